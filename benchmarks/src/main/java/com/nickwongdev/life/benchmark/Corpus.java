@@ -0,0 +1,70 @@
+package com.nickwongdev.life.benchmark;
+
+import com.nickwongdev.life.Engine;
+import com.nickwongdev.life.Life106Parser;
+import com.nickwongdev.life.Main;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Random;
+
+/**
+ * The standard set of patterns every Engine change is measured against.
+ * <p>
+ * Names ending in .life are the patterns bundled at the root of the repository. Names of the form soup-N are
+ * random soups of N cells at roughly 35% density in a square around the origin, generated from a fixed seed so
+ * every run and every Engine sees the same soup.
+ */
+final class Corpus {
+
+    private static final String SOUP_PREFIX = "soup-";
+
+    private static final double SOUP_DENSITY = 0.35;
+
+    private static final long SOUP_SEED = 0x11fe;
+
+    private Corpus() {
+    }
+
+    /**
+     * @param engineName as accepted by {@link Main#createEngine(String, int)}
+     * @param threads    how many threads the Engine may tick with
+     * @param pattern    a bundled .life file or soup-N
+     * @return an initialized Engine holding the pattern
+     */
+    static Engine load(final String engineName, final int threads, final String pattern) {
+        final var engine = Main.createEngine(engineName, threads);
+        if (pattern.startsWith(SOUP_PREFIX)) {
+            fillSoup(engine, Integer.parseInt(pattern.substring(SOUP_PREFIX.length())));
+        } else {
+            try (var stream = Corpus.class.getResourceAsStream("/" + pattern)) {
+                if (stream == null) {
+                    throw new IllegalArgumentException("Unknown pattern " + pattern);
+                }
+                new Life106Parser().parse(stream, engine::createLife);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        engine.initialize();
+        return engine;
+    }
+
+    /**
+     * @return how many Life are in the Engine
+     */
+    static long population(final Engine engine) {
+        return engine.spatialQuery(Long.MIN_VALUE, Long.MAX_VALUE, Long.MAX_VALUE, Long.MIN_VALUE).length;
+    }
+
+    private static void fillSoup(final Engine engine, final int cells) {
+        final var side = Math.max(1, (int) Math.ceil(Math.sqrt(cells / SOUP_DENSITY)));
+        final var random = new Random(SOUP_SEED);
+        var created = 0;
+        while (created < cells) {
+            if (engine.createLife(random.nextInt(side) - side / 2, random.nextInt(side) - side / 2) != null) {
+                created++;
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.nickwongdev.life.benchmark;
+
+import com.nickwongdev.life.Engine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of creating Life in an already populated Engine and destroying it again, so the population
+ * stays the same size for the whole run.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CreateLifeBenchmark {
+
+    private static final int POSITIONS = 1 << 16;
+
+    @Param({"world", "tile", "packed", "hashlife"})
+    public String engine;
+
+    @Param({"soup-1000", "soup-100000", "soup-10000000"})
+    public String pattern;
+
+    private Engine world;
+    private final long[] xs = new long[POSITIONS];
+    private final long[] ys = new long[POSITIONS];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void load() {
+        world = Corpus.load(engine, 1, pattern);
+        // Positions spread over the same square as the soup, so some collide with existing Life
+        final var side = (int) Math.ceil(Math.sqrt(Integer.parseInt(pattern.substring("soup-".length())) / 0.35));
+        final var random = new Random(POSITIONS);
+        for (int i = 0; i < POSITIONS; i++) {
+            xs[i] = random.nextInt(side) - side / 2;
+            ys[i] = random.nextInt(side) - side / 2;
+        }
+    }
+
+    @Benchmark
+    public void createAndDestroy() {
+        final var i = next;
+        next = (next + 1) & (POSITIONS - 1);
+        final var life = world.createLife(xs[i], ys[i]);
+        if (life != null) {
+            world.destroyLife(life);
+        }
+    }
+}
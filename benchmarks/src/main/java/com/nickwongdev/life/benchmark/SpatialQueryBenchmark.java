@@ -0,0 +1,82 @@
+package com.nickwongdev.life.benchmark;
+
+import com.nickwongdev.life.Engine;
+import com.nickwongdev.life.Life;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures spatialQuery latency for the 5x5 neighborhood query that ticking depends on, and for a large rectangle
+ * like a viewport would ask for. Queries are centered on Life that exists so every query finds something.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SpatialQueryBenchmark {
+
+    private static final int RECTANGLE_RADIUS = 500;
+
+    @Param({"world", "tile", "packed", "hashlife"})
+    public String engine;
+
+    @Param({"glideratedge.life", "soup-1000", "soup-100000", "soup-10000000"})
+    public String pattern;
+
+    private Engine world;
+    private Life[] centers;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void load() {
+        world = Corpus.load(engine, 1, pattern);
+        centers = world.spatialQuery(Long.MIN_VALUE, Long.MAX_VALUE, Long.MAX_VALUE, Long.MIN_VALUE);
+    }
+
+    @Benchmark
+    public Life[] neighborhood() {
+        final var center = nextCenter();
+        return world.spatialQuery(
+                saturatingAdd(center.getX(), -2), saturatingAdd(center.getY(), 2),
+                saturatingAdd(center.getX(), 2), saturatingAdd(center.getY(), -2));
+    }
+
+    @Benchmark
+    public Life[] rectangle() {
+        final var center = nextCenter();
+        return world.spatialQuery(
+                saturatingAdd(center.getX(), -RECTANGLE_RADIUS), saturatingAdd(center.getY(), RECTANGLE_RADIUS),
+                saturatingAdd(center.getX(), RECTANGLE_RADIUS), saturatingAdd(center.getY(), -RECTANGLE_RADIUS));
+    }
+
+    private Life nextCenter() {
+        final var center = centers[next];
+        next = (next + 1) % centers.length;
+        return center;
+    }
+
+    private static long saturatingAdd(final long value, final long delta) {
+        final var result = value + delta;
+        if (delta > 0 && result < value) {
+            return Long.MAX_VALUE;
+        }
+        if (delta < 0 && result > value) {
+            return Long.MIN_VALUE;
+        }
+        return result;
+    }
+}
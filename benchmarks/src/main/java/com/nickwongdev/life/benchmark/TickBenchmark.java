@@ -0,0 +1,70 @@
+package com.nickwongdev.life.benchmark;
+
+import com.nickwongdev.life.Engine;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures generations per second, and cells per second through an auxiliary counter.
+ * <p>
+ * The pattern is reloaded at the start of every iteration so soups are measured while they are still busy rather
+ * than after they have settled into ash. Cells per second is based on the population at the start of the
+ * iteration.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class TickBenchmark {
+
+    @Param({"world", "tile", "vector", "packed", "hashlife"})
+    public String engine;
+
+    @Param({"1"})
+    public int threads;
+
+    @Param({"glider.life", "fourgliders.life", "spinner.life", "glideratedge.life",
+            "soup-1000", "soup-10000", "soup-100000", "soup-1000000", "soup-10000000"})
+    public String pattern;
+
+    private Engine world;
+    private long population;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Cells {
+        public long cells;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            cells = 0;
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void load() {
+        world = Corpus.load(engine, threads, pattern);
+        population = Corpus.population(world);
+    }
+
+    @Benchmark
+    public void tick(final Cells counters) {
+        world.tick();
+        counters.cells += population;
+    }
+}
@@ -0,0 +1,15 @@
+package com.nickwongdev.life;
+
+/**
+ * Receives cells and their ages one at a time without boxing.
+ */
+@FunctionalInterface
+public interface AgedCellConsumer {
+
+    /**
+     * @param x   The x position of the cell
+     * @param y   The y position of the cell
+     * @param age How many generations the cell has been alive, 0 from engines that do not keep ages
+     */
+    void accept(long x, long y, long age);
+}
@@ -0,0 +1,12 @@
+package com.nickwongdev.life;
+
+/**
+ * The smallest box holding every Life of an Engine, inclusive on every side.
+ *
+ * @param minX the x position of the western most Life
+ * @param minY the y position of the lowest Life
+ * @param maxX the x position of the eastern most Life
+ * @param maxY the y position of the highest Life
+ */
+public record Bounds(long minX, long minY, long maxX, long maxY) {
+}
@@ -0,0 +1,14 @@
+package com.nickwongdev.life;
+
+/**
+ * Receives cells one at a time without boxing the coordinates. {@code engine::createLife} is a CellConsumer.
+ */
+@FunctionalInterface
+public interface CellConsumer {
+
+    /**
+     * @param x The x position of the cell
+     * @param y The y position of the cell
+     */
+    void accept(long x, long y);
+}
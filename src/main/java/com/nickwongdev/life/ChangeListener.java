@@ -0,0 +1,20 @@
+package com.nickwongdev.life;
+
+import java.util.List;
+
+/**
+ * Told what changed every time a {@link World} completes a generation.
+ */
+@FunctionalInterface
+public interface ChangeListener {
+
+    /**
+     * Called on the ticking thread once a generation is complete, before the next tick starts. The lists belong to
+     * the World and are only valid during the call, and the Life in them must not be changed.
+     *
+     * @param generation the generation that was just completed
+     * @param births     Life born in this generation, in no particular order
+     * @param deaths     Life that died going into this generation, in no particular order
+     */
+    void changed(long generation, List<Life> births, List<Life> deaths);
+}
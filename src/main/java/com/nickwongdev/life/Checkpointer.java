@@ -0,0 +1,186 @@
+package com.nickwongdev.life;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Saves a snapshot of an Engine every few generations without holding up the tick loop.
+ * <p>
+ * When a checkpoint is due the generation is captured on the tick thread with {@link Engine#freeze()}, which costs
+ * nothing for a double-buffered {@link World} or a {@link HashLifeWorld} and a copy into primitive arrays otherwise.
+ * The capture is written by {@link SnapshotWriter} on a background thread while ticking carries on.
+ * <p>
+ * Each checkpoint is written to a temporary file, forced to disk and then renamed into place, so a crash part way
+ * through a write never leaves a broken checkpoint behind. Once a checkpoint is in place the oldest are deleted
+ * until only the configured number are left.
+ * <p>
+ * Design decisions:
+ * At most one checkpoint is being written at a time. One that falls due while the last is still being written is
+ * skipped rather than queued, so a slow disk costs checkpoints and not memory or tick time. A failed write is
+ * reported on stderr and by {@link #close()}, the run itself carries on.
+ */
+public final class Checkpointer implements AutoCloseable {
+
+    private static final String PREFIX = "checkpoint-";
+    private static final String SUFFIX = ".snap";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+
+    private static final long NOT_SCHEDULED = -1;
+
+    private final Path directory;
+    private final long interval;
+    private final int retention;
+
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        final var thread = new Thread(runnable, "checkpoint-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private Future<?> pending;
+
+    // The first multiple of the interval after the age the run started from, NOT_SCHEDULED until an Engine is seen
+    private long nextCheckpoint = NOT_SCHEDULED;
+
+    // Set by the writer thread, reported by close
+    private volatile IOException failure;
+
+    /**
+     * @param directory where to keep checkpoints, created if it does not exist
+     * @param interval  how many generations apart checkpoints are
+     * @param retention how many of the latest checkpoints to keep
+     * @throws IOException if the directory cannot be created
+     */
+    public Checkpointer(final Path directory, final long interval, final int retention) throws IOException {
+        if (interval < 1) {
+            throw new IllegalArgumentException("interval must be at least 1, was " + interval);
+        }
+        if (retention < 1) {
+            throw new IllegalArgumentException("retention must be at least 1, was " + retention);
+        }
+        this.directory = Files.createDirectories(directory);
+        this.interval = interval;
+        this.retention = retention;
+    }
+
+    /**
+     * @return how many generations the Engine can advance before the next checkpoint is due, at least 1
+     */
+    long untilNext(final Engine engine) {
+        return Math.max(1, nextCheckpoint(engine) - engine.getAge());
+    }
+
+    /**
+     * Called by the run loop after advancing. Starts writing a checkpoint if one is due.
+     *
+     * @param engine the Engine being run
+     * @return true if a checkpoint was started
+     */
+    public boolean afterAdvance(final Engine engine) {
+        final var generation = engine.getAge();
+        if (generation < nextCheckpoint(engine)) {
+            return false;
+        }
+        nextCheckpoint = (generation / interval + 1) * interval;
+        if (pending != null && !pending.isDone()) {
+            System.err.println("Skipping checkpoint at generation " + generation + ", the last one is still being"
+                    + " written");
+            return false;
+        }
+        final var view = engine.freeze();
+        pending = writer.submit(() -> save(view));
+        return true;
+    }
+
+    /**
+     * A run restored from a checkpoint picks up the schedule where it left off rather than starting again from the
+     * first interval
+     */
+    private long nextCheckpoint(final Engine engine) {
+        if (nextCheckpoint == NOT_SCHEDULED) {
+            nextCheckpoint = (engine.getAge() / interval + 1) * interval;
+        }
+        return nextCheckpoint;
+    }
+
+    /**
+     * Waits for the checkpoint being written, if any, and stops the writer thread
+     *
+     * @throws IOException if any checkpoint could not be written
+     */
+    @Override
+    public void close() throws IOException {
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS)) {
+                throw new IOException("Timed out waiting for the last checkpoint");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted waiting for the last checkpoint", e);
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * @param directory where checkpoints are kept
+     * @return the checkpoint of the latest generation, or null if there is none
+     * @throws IOException if the directory cannot be listed
+     */
+    public static Path latest(final Path directory) throws IOException {
+        final var checkpoints = list(directory);
+        return checkpoints.isEmpty() ? null : checkpoints.get(checkpoints.size() - 1);
+    }
+
+    private void save(final WorldView view) {
+        final var name = PREFIX + String.format("%019d", view.getAge()) + SUFFIX;
+        final var target = directory.resolve(name);
+        final var temporary = directory.resolve(name + TEMPORARY_SUFFIX);
+        try {
+            try (var channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                SnapshotWriter.write(view, channel);
+                channel.force(true);
+            }
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+            final var checkpoints = list(directory);
+            for (int i = 0; i < checkpoints.size() - retention; i++) {
+                Files.deleteIfExists(checkpoints.get(i));
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to write checkpoint " + target + ": " + e.getMessage());
+            failure = e;
+        }
+    }
+
+    /**
+     * @return every checkpoint in the directory, oldest first
+     */
+    private static List<Path> list(final Path directory) throws IOException {
+        final List<Path> checkpoints = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(file -> {
+                final var name = file.getFileName().toString();
+                return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+            }).forEach(checkpoints::add);
+        }
+        // Generations are zero padded, so names sort by generation
+        Collections.sort(checkpoints);
+        return checkpoints;
+    }
+}
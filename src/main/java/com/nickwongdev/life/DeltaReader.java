@@ -0,0 +1,132 @@
+package com.nickwongdev.life;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+
+/**
+ * Replays a stream written by {@link DeltaWriter} into an Engine, leaving it at the last generation in the stream.
+ * <p>
+ * The channel is read through one large buffer that is topped up whenever less than a whole record is left in it,
+ * like {@link SnapshotReader}. Births go straight into {@link Engine#restoreLife(long, long, long)} and deaths are
+ * found with a one cell {@link Engine#spatialQuery(long, long, long, long)}, so nothing is kept per Life on the way.
+ * <p>
+ * Design decisions:
+ * The stream does not carry ages, so every Life is restored as one generation old, as if the Engine had just been
+ * initialized with the last generation.
+ */
+public final class DeltaReader {
+
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+
+    // Names the format in error messages
+    private static final String FORMAT = "delta stream";
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer;
+
+    private boolean endOfStream = false;
+
+    /**
+     * @param channel    where to read, not closed by the reader
+     * @param bufferSize how many bytes to read from the channel at a time
+     */
+    DeltaReader(final ReadableByteChannel channel, final int bufferSize) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(
+                Math.max(bufferSize, Math.max(DeltaWriter.HEADER_LENGTH, DeltaWriter.MAX_RECORD_LENGTH)));
+        this.buffer.limit(0);
+    }
+
+    /**
+     * Replays every generation in a stream into an empty Engine and sets its generation to the last one. The Engine
+     * must not be initialized afterwards.
+     *
+     * @param channel where to read, not closed
+     * @param engine  the empty Engine to replay into
+     * @return how many generations were read
+     * @throws IOException if the channel cannot be read or does not hold a delta stream
+     */
+    public static long replay(final ReadableByteChannel channel, final Engine engine) throws IOException {
+        return new DeltaReader(channel, DEFAULT_BUFFER_SIZE).replayInto(engine);
+    }
+
+    long replayInto(final Engine engine) throws IOException {
+        fill(DeltaWriter.HEADER_LENGTH);
+        if (buffer.remaining() < DeltaWriter.HEADER_LENGTH) {
+            throw new IOException("Not a delta stream, too short for a header");
+        }
+        final var magic = new byte[DeltaWriter.MAGIC.length];
+        buffer.get(magic);
+        if (!Arrays.equals(magic, DeltaWriter.MAGIC)) {
+            throw new IOException("Not a delta stream, bad magic bytes");
+        }
+        final var version = buffer.get();
+        if (version != DeltaWriter.VERSION) {
+            throw new IOException("Unsupported delta stream version " + version);
+        }
+
+        var generation = 0L;
+        var records = 0L;
+        while (true) {
+            fill(DeltaWriter.MAX_RECORD_LENGTH);
+            if (!buffer.hasRemaining()) {
+                break;
+            }
+            final var next = VarLongCodec.getVarLong(buffer, FORMAT);
+            final var births = VarLongCodec.getVarLong(buffer, FORMAT);
+            final var deaths = VarLongCodec.getVarLong(buffer, FORMAT);
+            if (next <= generation || births < 0 || deaths < 0) {
+                throw new IOException("Corrupt delta stream, generation " + next + " after " + generation
+                        + " with " + births + " births and " + deaths + " deaths");
+            }
+            generation = next;
+
+            var x = Long.MIN_VALUE;
+            var y = 0L;
+            for (long i = 0; i < births; i++) {
+                fill(DeltaWriter.MAX_RECORD_LENGTH);
+                final var dx = VarLongCodec.getVarLong(buffer, FORMAT);
+                final var dy = VarLongCodec.getVarLong(buffer, FORMAT);
+                x += dx;
+                y += dx == 0 && i > 0 ? dy : VarLongCodec.unzigzag(dy);
+                if (engine.restoreLife(x, y, 1) == null) {
+                    throw new IOException("Corrupt delta stream, Life at " + x + " " + y + " is born twice in"
+                            + " generation " + generation);
+                }
+            }
+
+            x = Long.MIN_VALUE;
+            y = 0L;
+            for (long i = 0; i < deaths; i++) {
+                fill(DeltaWriter.MAX_RECORD_LENGTH);
+                final var dx = VarLongCodec.getVarLong(buffer, FORMAT);
+                final var dy = VarLongCodec.getVarLong(buffer, FORMAT);
+                x += dx;
+                y += dx == 0 && i > 0 ? dy : VarLongCodec.unzigzag(dy);
+                final var found = engine.spatialQuery(x, y, x, y);
+                if (found.length == 0) {
+                    throw new IOException("Corrupt delta stream, no Life at " + x + " " + y + " to die in"
+                            + " generation " + generation);
+                }
+                engine.destroyLife(found[0]);
+            }
+            records++;
+        }
+        if (records == 0) {
+            throw new IOException("Corrupt delta stream, no generations");
+        }
+        engine.restore(generation);
+        return records;
+    }
+
+    /**
+     * Reads until at least the given number of bytes are buffered or the channel has nothing more
+     */
+    private void fill(final int length) throws IOException {
+        if (!endOfStream) {
+            endOfStream = VarLongCodec.fill(channel, buffer, length);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.nickwongdev.life;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Streams the births and deaths of every generation of a {@link World} as compact binary, see {@link DeltaReader}.
+ * <p>
+ * The stream starts with the magic bytes {@link #MAGIC} and a version byte, then has one record per generation in
+ * which anything changed. A record is the generation, the number of births and the number of deaths as varints,
+ * followed by the births and then the deaths. Each list is ordered by x and then by y and every cell in it is coded
+ * like a Life in a snapshot, see {@link SnapshotWriter}, without the age.
+ * <p>
+ * The first record is written by {@link #begin(WorldView)} and holds every Life of the starting generation as births,
+ * so the stream alone is enough to rebuild every generation after it. A generation where nothing changed has no
+ * record, so a World that has settled down writes nothing at all.
+ * <p>
+ * Cells of a generation are copied into two primitive arrays that are reused from one generation to the next, sorted
+ * and encoded straight into one large buffer that only goes to the channel when it is full, like
+ * {@link Life106Writer}.
+ * <p>
+ * Not thread safe, it must only be told about one World.
+ */
+public final class DeltaWriter implements ChangeListener {
+
+    static final byte[] MAGIC = {'L', 'I', 'F', 'E', 'D', 'L', 'T', 'A'};
+
+    static final byte VERSION = 1;
+
+    // Magic and version
+    static final int HEADER_LENGTH = 8 + 1;
+
+    // Three varints of up to ten bytes each, for a record header or a cell and some slack
+    static final int MAX_RECORD_LENGTH = 3 * VarLongCodec.MAX_LENGTH;
+
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer;
+
+    private long[] xs = new long[1024];
+    private long[] ys = new long[1024];
+
+    private long records = 0;
+
+    // changed cannot throw, so a failed write is held until flush
+    private IOException failure;
+
+    public DeltaWriter(final WritableByteChannel channel) {
+        this(channel, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param channel    where to write, not closed by the writer
+     * @param bufferSize how many bytes to collect before writing to the channel
+     */
+    public DeltaWriter(final WritableByteChannel channel, final int bufferSize) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(Math.max(bufferSize, Math.max(HEADER_LENGTH, MAX_RECORD_LENGTH)));
+    }
+
+    /**
+     * Writes the header and the starting generation, must be called once before any change
+     *
+     * @param view the generation the stream starts from
+     * @throws IOException if the channel cannot be written
+     */
+    public void begin(final WorldView view) throws IOException {
+        VarLongCodec.ensureRoom(channel, buffer, HEADER_LENGTH);
+        buffer.put(MAGIC);
+        buffer.put(VERSION);
+
+        final var population = view.getPopulation();
+        if (population > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Too many Life to start a delta stream: " + population);
+        }
+        ensureCapacity((int) population);
+        final var count = new int[1];
+        view.forEachLife((x, y) -> {
+            xs[count[0]] = x;
+            ys[count[0]] = y;
+            count[0]++;
+        });
+        LongPairMap.sort(xs, ys, count[0]);
+        putRecordHeader(view.getAge(), count[0], 0);
+        putCells(count[0]);
+        records++;
+    }
+
+    /**
+     * Writes one generation. Failures are reported by the next {@link #flush()}.
+     */
+    @Override
+    public void changed(final long generation, final List<Life> births, final List<Life> deaths) {
+        if (failure != null || (births.isEmpty() && deaths.isEmpty())) {
+            return;
+        }
+        try {
+            putRecordHeader(generation, births.size(), deaths.size());
+            putLives(births);
+            putLives(deaths);
+            records++;
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+
+    /**
+     * @return how many generations have been written, including the starting one
+     */
+    public long getRecords() {
+        return records;
+    }
+
+    /**
+     * Writes everything buffered so far to the channel
+     *
+     * @throws IOException if any write since the last flush failed
+     */
+    public void flush() throws IOException {
+        if (failure != null) {
+            final var e = failure;
+            failure = null;
+            throw e;
+        }
+        VarLongCodec.drain(channel, buffer);
+    }
+
+    private void putRecordHeader(final long generation, final long births, final long deaths) throws IOException {
+        VarLongCodec.ensureRoom(channel, buffer, MAX_RECORD_LENGTH);
+        VarLongCodec.putVarLong(buffer, generation);
+        VarLongCodec.putVarLong(buffer, births);
+        VarLongCodec.putVarLong(buffer, deaths);
+    }
+
+    private void putLives(final List<Life> lives) throws IOException {
+        final var count = lives.size();
+        ensureCapacity(count);
+        for (int i = 0; i < count; i++) {
+            final var life = lives.get(i);
+            xs[i] = life.getX();
+            ys[i] = life.getY();
+        }
+        LongPairMap.sort(xs, ys, count);
+        putCells(count);
+    }
+
+    private void ensureCapacity(final int count) {
+        if (xs.length < count) {
+            xs = Arrays.copyOf(xs, Math.max(count, xs.length * 2));
+            ys = Arrays.copyOf(ys, xs.length);
+        }
+    }
+
+    /**
+     * Writes the first cells of xs and ys, which must be sorted
+     */
+    private void putCells(final int count) throws IOException {
+        var previousX = Long.MIN_VALUE;
+        var previousY = 0L;
+        for (int i = 0; i < count; i++) {
+            VarLongCodec.ensureRoom(channel, buffer, MAX_RECORD_LENGTH);
+            final var dx = xs[i] - previousX;
+            VarLongCodec.putVarLong(buffer, dx);
+            if (dx == 0 && i > 0) {
+                VarLongCodec.putVarLong(buffer, ys[i] - previousY);
+            } else {
+                VarLongCodec.putVarLong(buffer, VarLongCodec.zigzag(ys[i] - previousY));
+            }
+            previousX = xs[i];
+            previousY = ys[i];
+        }
+    }
+}
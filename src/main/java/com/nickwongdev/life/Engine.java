@@ -0,0 +1,199 @@
+package com.nickwongdev.life;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+
+/**
+ * An Engine is something that can hold Life and advance it through generations.
+ * <p>
+ * The original {@link World} is the reference implementation. Other engines trade per-Life bookkeeping (such as
+ * {@link Life#getAge()}) for speed or memory, but all of them operate over the same signed 64-bit coordinate space
+ * and treat everything beyond MIN_LONG / MAX_LONG as permanently dead.
+ * <p>
+ * An Engine is also a {@link WorldView} of its current generation.
+ */
+public interface Engine extends WorldView {
+
+    /**
+     * Inserts new Life into the Engine.
+     *
+     * @param xPos The x position for new life to be created
+     * @param yPos The y position for new life to be created
+     * @return the new Life created or null if there was already life there
+     */
+    Life createLife(long xPos, long yPos);
+
+    /**
+     * Inserts Life that already has an age, when restoring a saved Engine. Engines that do not keep ages create the
+     * Life the same way createLife does.
+     *
+     * @param xPos The x position of the Life
+     * @param yPos The y position of the Life
+     * @param age  How many generations the Life has been alive
+     * @return the new Life created or null if there was already life there
+     */
+    default Life restoreLife(final long xPos, final long yPos, final long age) {
+        return createLife(xPos, yPos);
+    }
+
+    /**
+     * Inserts a batch of new Life, as if createLife was called for each cell in turn. Engines that can share the cost
+     * of their bookkeeping across a batch override this.
+     *
+     * @param xs     the x positions of the new Life
+     * @param ys     the y positions of the new Life
+     * @param length how many cells of xs and ys to insert
+     * @return how many Life were created, cells that were already alive are skipped
+     */
+    default int createLives(final long[] xs, final long[] ys, final int length) {
+        var created = 0;
+        for (int i = 0; i < length; i++) {
+            if (createLife(xs[i], ys[i]) != null) {
+                created++;
+            }
+        }
+        return created;
+    }
+
+    /**
+     * @return true if createLife, createLives and destroyLife may be called from several threads at once
+     */
+    default boolean isThreadSafe() {
+        return false;
+    }
+
+    /**
+     * Removes Life from the Engine
+     *
+     * @param life The Life to remove (usually because it is dead)
+     */
+    void destroyLife(Life life);
+
+    /**
+     * Scans an area of the Engine and returns the Life in that area ordered by x and then by y.
+     *
+     * @param startX The upper left x position of the area
+     * @param startY The upper left y position of the area
+     * @param endX   The lower right x position of the area
+     * @param endY   The lower right y position of the area
+     * @return An array of Life found in the area specified
+     */
+    Life[] spatialQuery(long startX, long startY, long endX, long endY);
+
+    /**
+     * Counts the Life in an area of the Engine. Engines that can count without building every Life override this.
+     *
+     * @param startX The upper left x position of the area
+     * @param startY The upper left y position of the area
+     * @param endX   The lower right x position of the area
+     * @param endY   The lower right y position of the area
+     * @return how many Life are in the area specified
+     */
+    default long count(final long startX, final long startY, final long endX, final long endY) {
+        return spatialQuery(startX, startY, endX, endY).length;
+    }
+
+    /**
+     * @param startX The upper left x position of the area
+     * @param startY The upper left y position of the area
+     * @param endX   The lower right x position of the area
+     * @param endY   The lower right y position of the area
+     * @return true if there is no Life in the area specified
+     */
+    default boolean isEmpty(final long startX, final long startY, final long endX, final long endY) {
+        return count(startX, startY, endX, endY) == 0;
+    }
+
+    /**
+     * Engines that keep track of their edges as Life is born and dies override this, the default visits every Life.
+     *
+     * @return the smallest box holding every Life, or null if there is none
+     */
+    default Bounds getBounds() {
+        final var box = new long[]{Long.MAX_VALUE, Long.MAX_VALUE, Long.MIN_VALUE, Long.MIN_VALUE};
+        final var empty = new boolean[]{true};
+        forEachLife((x, y) -> {
+            box[0] = Math.min(box[0], x);
+            box[1] = Math.min(box[1], y);
+            box[2] = Math.max(box[2], x);
+            box[3] = Math.max(box[3], y);
+            empty[0] = false;
+        });
+        return empty[0] ? null : new Bounds(box[0], box[1], box[2], box[3]);
+    }
+
+    /**
+     * Marks the initial population as the first generation. Must be called once before ticking.
+     */
+    void initialize();
+
+    /**
+     * Marks Life inserted through {@link #restoreLife(long, long, long)} as the given generation. Called once in
+     * place of {@link #initialize()}.
+     *
+     * @param generation the generation the Engine was saved at
+     */
+    void restore(long generation);
+
+    /**
+     * Advances the Engine by exactly one generation.
+     */
+    void tick();
+
+    /**
+     * Advances the Engine by the given number of generations. Engines that can skip ahead override this.
+     *
+     * @param generations how many generations to advance, must not be negative
+     */
+    default void advance(final long generations) {
+        for (long i = 0; i < generations; i++) {
+            tick();
+        }
+    }
+
+    /**
+     * Advances a World that is known to repeat every period generations. Engines that can account for the skipped
+     * generations without simulating them override this.
+     *
+     * @param generations how many generations to advance, must be a multiple of period
+     * @param period      how many generations it takes the World to repeat
+     */
+    default void fastForward(final long generations, final long period) {
+        advance(generations);
+    }
+
+    /**
+     * Captures the current generation so it can be read from another thread while the Engine carries on, for
+     * checkpointing. Engines whose generations are never changed once complete override this to hand out the
+     * generation itself, the default copies every Life.
+     *
+     * @return a view of the current generation that never changes
+     */
+    default WorldView freeze() {
+        return FrozenCells.copyOf(this);
+    }
+
+    /**
+     * Equal generations of an Engine always have equal hashes. Engines that can keep the hash up to date as Life is
+     * born and dies override this, the default visits every Life.
+     *
+     * @return a hash of the position of every Life
+     */
+    default long stateHash() {
+        return StateHash.of(this);
+    }
+
+    /**
+     * Prints every Life in Life 1.06 format to stdout
+     */
+    default void printWorld() {
+        System.out.flush();
+        try {
+            Life106Writer.write(this, Channels.newChannel(System.out));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        System.out.flush();
+    }
+}
@@ -0,0 +1,64 @@
+package com.nickwongdev.life;
+
+/**
+ * A copy of every Life of a generation in primitive arrays, already ordered by x and then by y.
+ */
+final class FrozenCells implements WorldView {
+
+    private final long age;
+    private final long[] xs;
+    private final long[] ys;
+    private final long[] ages;
+
+    private FrozenCells(final long age, final long[] xs, final long[] ys, final long[] ages) {
+        this.age = age;
+        this.xs = xs;
+        this.ys = ys;
+        this.ages = ages;
+    }
+
+    /**
+     * Copies the current generation of a view, on the calling thread
+     */
+    static FrozenCells copyOf(final WorldView view) {
+        final var population = view.getPopulation();
+        if (population > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Too many Life to copy: " + population);
+        }
+        final var xs = new long[(int) population];
+        final var ys = new long[(int) population];
+        final var ages = new long[(int) population];
+        final var count = new int[1];
+        view.forEachLifeWithAge((x, y, age) -> {
+            xs[count[0]] = x;
+            ys[count[0]] = y;
+            ages[count[0]] = age;
+            count[0]++;
+        });
+        return new FrozenCells(view.getAge(), xs, ys, ages);
+    }
+
+    @Override
+    public long getAge() {
+        return age;
+    }
+
+    @Override
+    public long getPopulation() {
+        return xs.length;
+    }
+
+    @Override
+    public void forEachLife(final CellConsumer consumer) {
+        for (int i = 0; i < xs.length; i++) {
+            consumer.accept(xs[i], ys[i]);
+        }
+    }
+
+    @Override
+    public void forEachLifeWithAge(final AgedCellConsumer consumer) {
+        for (int i = 0; i < xs.length; i++) {
+            consumer.accept(xs[i], ys[i], ages[i]);
+        }
+    }
+}
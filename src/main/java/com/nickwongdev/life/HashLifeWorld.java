@@ -0,0 +1,698 @@
+package com.nickwongdev.life;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * An Engine built on Bill Gosper's HashLife algorithm.
+ * <p>
+ * The World is a quadtree of canonical Nodes. A Node at level k is a 2^k x 2^k square made of four level k-1
+ * children, and every distinct square is only ever stored once, so repetition in space costs nothing. Every Node
+ * also memoizes its RESULT, the center 2^(k-1) square advanced 2^(k-2) generations, so repetition in time costs
+ * nothing either. Periodic and sparse patterns can be advanced billions of generations in milliseconds.
+ * <p>
+ * The root is always a level 64 Node, which is exactly the signed 64-bit coordinate space that {@link World}
+ * supports. Coordinates are mapped onto the tree by flipping the sign bit, so MIN_LONG is offset 0 and MAX_LONG
+ * is offset 2^64 - 1.
+ * <p>
+ * The edges of the space are where this gets interesting. To step the root it is padded out to a level 65 Node
+ * with an empty border and the RESULT of that is the new root, so anything that would be born outside the space
+ * is simply never computed. That matches the dead border of {@link World} exactly for a single generation. For a
+ * jump of 2^j generations it is only exact if nothing gets within 2^j cells of the edge, since information moves at
+ * most one cell per generation. {@link #advance(long)} checks the border before each jump and falls back to
+ * smaller jumps, all the way down to a single generation, when the population is near the edge.
+ * <p>
+ * Design decisions:
+ * Per-Life age is not tracked. Life returned from this Engine is created on demand from the tree and always has
+ * an age of 0.
+ * <p>
+ * Nodes keep a single memo slot for steps smaller than their natural RESULT, since the step size only changes when
+ * approaching the edge or finishing the tail of an advance. The canonical table is rebuilt from the root when it
+ * grows past its limit so memory stays bounded on long runs.
+ */
+public class HashLifeWorld implements Engine {
+
+    private static final int ROOT_LEVEL = 64;
+
+    private static final int DEFAULT_MAX_NODES = 1 << 22;
+
+    private final int maxNodes;
+
+    private final Node[] empty = new Node[ROOT_LEVEL + 2];
+
+    private Node[] table = new Node[1 << 16];
+    private int tableSize = 0;
+
+    private final Node dead;
+    private final Node alive;
+
+    private Node root;
+
+    private long age = 0;
+
+    public HashLifeWorld() {
+        this(DEFAULT_MAX_NODES);
+    }
+
+    /**
+     * @param maxNodes how many canonical Nodes to keep before rebuilding the table from the root
+     */
+    public HashLifeWorld(final int maxNodes) {
+        this.maxNodes = maxNodes;
+        dead = new Node(0);
+        alive = new Node(1);
+        empty[0] = dead;
+        for (int level = 1; level < empty.length; level++) {
+            var e = empty[level - 1];
+            empty[level] = join(e, e, e, e);
+        }
+        root = empty[ROOT_LEVEL];
+    }
+
+    @Override
+    public Life createLife(final long xPos, final long yPos) {
+        if (getCell(xPos, yPos)) {
+            return null;
+        }
+        root = setCell(root, ROOT_LEVEL, unsigned(xPos), unsigned(yPos), alive);
+        return new Life(xPos, yPos);
+    }
+
+    @Override
+    public void destroyLife(final Life life) {
+        root = setCell(root, ROOT_LEVEL, unsigned(life.getX()), unsigned(life.getY()), dead);
+    }
+
+    @Override
+    public Life[] spatialQuery(final long startX, final long startY, final long endX, final long endY) {
+        assert (startX <= endX);
+        assert (endY <= startY);
+
+        final List<Life> foundLife = new ArrayList<>();
+        collect(root, ROOT_LEVEL, 0, 0, unsigned(startX), unsigned(endY), unsigned(endX), unsigned(startY), foundLife);
+        foundLife.sort(Comparator.comparingLong(Life::getX).thenComparingLong(Life::getY));
+        return foundLife.toArray(new Life[0]);
+    }
+
+    /**
+     * Nodes entirely inside the area are counted from their population without visiting their Life
+     */
+    @Override
+    public long count(final long startX, final long startY, final long endX, final long endY) {
+        assert (startX <= endX);
+        assert (endY <= startY);
+
+        return count(root, ROOT_LEVEL, 0, 0, unsigned(startX), unsigned(endY), unsigned(endX), unsigned(startY));
+    }
+
+    @Override
+    public void initialize() {
+        age = 1;
+    }
+
+    @Override
+    public void restore(final long generation) {
+        age = generation;
+    }
+
+    @Override
+    public void tick() {
+        advance(1);
+    }
+
+    /**
+     * Advances in the largest power of two jumps that are safe given how close the population is to the edge of
+     * the coordinate space.
+     *
+     * @param generations how many generations to advance, must not be negative
+     */
+    @Override
+    public void advance(final long generations) {
+        var remaining = generations;
+        while (remaining > 0) {
+            var stepLog = 63 - Long.numberOfLeadingZeros(remaining);
+            while (stepLog > 0 && !isClearOfEdge(1L << stepLog)) {
+                stepLog--;
+            }
+            root = successor(expand(root), stepLog);
+            remaining -= 1L << stepLog;
+            age += 1L << stepLog;
+            if (tableSize > maxNodes) {
+                collectGarbage();
+            }
+        }
+    }
+
+    /**
+     * A World that repeats is the same tree after every period, so only the generation moves
+     */
+    @Override
+    public void fastForward(final long generations, final long period) {
+        age += generations;
+    }
+
+    /**
+     * Nodes are canonical, so equal generations are the same root and have the same structural hash
+     */
+    @Override
+    public long stateHash() {
+        return root.stateHash;
+    }
+
+    @Override
+    public long getAge() {
+        return age;
+    }
+
+    /**
+     * @return how many Life are in the World, saturating at MAX_LONG
+     */
+    @Override
+    public long getPopulation() {
+        return root.population;
+    }
+
+    /**
+     * @return how many canonical Nodes are currently stored
+     */
+    int getNodeCount() {
+        return tableSize;
+    }
+
+    /**
+     * The tree is in Z order, so it is walked a strip of columns at a time to hand out Life in x then y order without
+     * collecting and sorting it, see {@link ColumnWalk}. Patterns of any population can be visited.
+     */
+    @Override
+    public void forEachLife(final CellConsumer consumer) {
+        new ColumnWalk(consumer).walk(root);
+    }
+
+    /**
+     * Nodes never change, so the current root is the whole generation
+     */
+    @Override
+    public WorldView freeze() {
+        final var frozenRoot = root;
+        final var frozenAge = age;
+        return new WorldView() {
+            @Override
+            public long getAge() {
+                return frozenAge;
+            }
+
+            @Override
+            public long getPopulation() {
+                return frozenRoot.population;
+            }
+
+            @Override
+            public void forEachLife(final CellConsumer consumer) {
+                new ColumnWalk(consumer).walk(frozenRoot);
+            }
+        };
+    }
+
+    public boolean getCell(final long xPos, final long yPos) {
+        var node = root;
+        var ux = unsigned(xPos);
+        var uy = unsigned(yPos);
+        for (int level = ROOT_LEVEL; level > 0 && node.population > 0; level--) {
+            node = child(node, level, ux, uy);
+        }
+        return node == alive;
+    }
+
+    /**
+     * @return the root of the tree, a level 64 Node centered on (0, 0)
+     */
+    Node getRoot() {
+        return root;
+    }
+
+    /**
+     * @return the canonical empty Node of a level
+     */
+    Node emptyNode(final int level) {
+        return empty[level];
+    }
+
+    /**
+     * @return the level 0 Node of a live or dead cell
+     */
+    Node cell(final boolean live) {
+        return live ? alive : dead;
+    }
+
+    /**
+     * Replaces the whole World with a Node centered on (0, 0) and marks it as the given generation, the way a loaded
+     * pattern is placed. Smaller Nodes are padded out to the root, larger ones must have nothing outside the
+     * coordinate space.
+     *
+     * @param node       a Node made by this World
+     * @param generation the generation the Node is at, at least 1
+     */
+    void replaceRoot(final Node node, final long generation) {
+        var placed = node;
+        while (placed.level > ROOT_LEVEL) {
+            final var inner = center(placed);
+            if (inner.population != placed.population) {
+                throw new IllegalArgumentException("Pattern is larger than the 64-bit coordinate space");
+            }
+            placed = inner;
+        }
+        while (placed.level < ROOT_LEVEL) {
+            placed = expand(placed);
+        }
+        root = placed;
+        age = generation;
+    }
+
+    /**
+     * @return the level k - 1 Node at the center of a level k Node, k at least 2
+     */
+    Node center(final Node node) {
+        return join(node.nw.se, node.ne.sw, node.sw.ne, node.se.nw);
+    }
+
+    /**
+     * Nothing can travel further than one cell per generation, so a jump is exact if no Life is within that many
+     * cells of the edge.
+     */
+    private boolean isClearOfEdge(final long generations) {
+        var low = Long.MIN_VALUE + generations;
+        var high = Long.MAX_VALUE - generations;
+        if (low > high) {
+            return root.population == 0;
+        }
+        var inner = count(root, ROOT_LEVEL, 0, 0, unsigned(low), unsigned(low), unsigned(high), unsigned(high));
+        return inner == root.population;
+    }
+
+    /**
+     * Counts Life inside an inclusive rectangle given in unsigned offsets
+     */
+    private long count(final Node node, final int level, final long ox, final long oy,
+                       final long x0, final long y0, final long x1, final long y1) {
+        if (node.population == 0) {
+            return 0;
+        }
+        var lastX = ox + span(level);
+        var lastY = oy + span(level);
+        if (Long.compareUnsigned(lastX, x0) < 0 || Long.compareUnsigned(ox, x1) > 0
+                || Long.compareUnsigned(lastY, y0) < 0 || Long.compareUnsigned(oy, y1) > 0) {
+            return 0;
+        }
+        if (Long.compareUnsigned(ox, x0) >= 0 && Long.compareUnsigned(lastX, x1) <= 0
+                && Long.compareUnsigned(oy, y0) >= 0 && Long.compareUnsigned(lastY, y1) <= 0) {
+            return node.population;
+        }
+        var half = 1L << (level - 1);
+        return saturatingAdd(
+                saturatingAdd(count(node.nw, level - 1, ox, oy, x0, y0, x1, y1),
+                        count(node.ne, level - 1, ox + half, oy, x0, y0, x1, y1)),
+                saturatingAdd(count(node.sw, level - 1, ox, oy + half, x0, y0, x1, y1),
+                        count(node.se, level - 1, ox + half, oy + half, x0, y0, x1, y1)));
+    }
+
+    private void collect(final Node node, final int level, final long ox, final long oy,
+                         final long x0, final long y0, final long x1, final long y1, final List<Life> foundLife) {
+        if (node.population == 0) {
+            return;
+        }
+        var lastX = ox + span(level);
+        var lastY = oy + span(level);
+        if (Long.compareUnsigned(lastX, x0) < 0 || Long.compareUnsigned(ox, x1) > 0
+                || Long.compareUnsigned(lastY, y0) < 0 || Long.compareUnsigned(oy, y1) > 0) {
+            return;
+        }
+        if (level == 0) {
+            foundLife.add(new Life(ox ^ Long.MIN_VALUE, oy ^ Long.MIN_VALUE));
+            return;
+        }
+        var half = 1L << (level - 1);
+        collect(node.nw, level - 1, ox, oy, x0, y0, x1, y1, foundLife);
+        collect(node.ne, level - 1, ox + half, oy, x0, y0, x1, y1, foundLife);
+        collect(node.sw, level - 1, ox, oy + half, x0, y0, x1, y1, foundLife);
+        collect(node.se, level - 1, ox + half, oy + half, x0, y0, x1, y1, foundLife);
+    }
+
+    private Node setCell(final Node node, final int level, final long ux, final long uy, final Node cell) {
+        if (level == 0) {
+            return cell;
+        }
+        var bit = level - 1;
+        var east = ((ux >>> bit) & 1) != 0;
+        var south = ((uy >>> bit) & 1) != 0;
+        if (south) {
+            return east
+                    ? join(node.nw, node.ne, node.sw, setCell(node.se, bit, ux, uy, cell))
+                    : join(node.nw, node.ne, setCell(node.sw, bit, ux, uy, cell), node.se);
+        }
+        return east
+                ? join(node.nw, setCell(node.ne, bit, ux, uy, cell), node.sw, node.se)
+                : join(setCell(node.nw, bit, ux, uy, cell), node.ne, node.sw, node.se);
+    }
+
+    private static Node child(final Node node, final int level, final long ux, final long uy) {
+        var bit = level - 1;
+        var east = ((ux >>> bit) & 1) != 0;
+        var south = ((uy >>> bit) & 1) != 0;
+        if (south) {
+            return east ? node.se : node.sw;
+        }
+        return east ? node.ne : node.nw;
+    }
+
+    /**
+     * Pads a Node with an empty border so its RESULT covers the same area as the Node itself
+     */
+    private Node expand(final Node node) {
+        var e = empty[node.level - 1];
+        return join(
+                join(e, e, e, node.nw),
+                join(e, e, node.ne, e),
+                join(e, node.sw, e, e),
+                join(node.se, e, e, e));
+    }
+
+    /**
+     * The center of a Node at level k advanced 2^stepLog generations, where stepLog is at most k - 2.
+     *
+     * @param node     the Node to advance, level 2 or greater
+     * @param stepLog  log2 of the number of generations to advance
+     * @return the level k - 1 center
+     */
+    private Node successor(final Node node, final int stepLog) {
+        var level = node.level;
+        if (node.population == 0) {
+            return empty[level - 1];
+        }
+        var fullStep = stepLog == level - 2;
+        if (fullStep && node.result != null) {
+            return node.result;
+        }
+        if (!fullStep && node.stepLog == stepLog) {
+            return node.stepResult;
+        }
+        if (level == 2) {
+            node.result = baseCase(node);
+            return node.result;
+        }
+
+        // Nine overlapping squares one level down
+        final var n00 = node.nw;
+        final var n01 = join(node.nw.ne, node.ne.nw, node.nw.se, node.ne.sw);
+        final var n02 = node.ne;
+        final var n10 = join(node.nw.sw, node.nw.se, node.sw.nw, node.sw.ne);
+        final var n11 = join(node.nw.se, node.ne.sw, node.sw.ne, node.se.nw);
+        final var n12 = join(node.ne.sw, node.ne.se, node.se.nw, node.se.ne);
+        final var n20 = node.sw;
+        final var n21 = join(node.sw.ne, node.se.nw, node.sw.se, node.se.sw);
+        final var n22 = node.se;
+
+        Node r00, r01, r02, r10, r11, r12, r20, r21, r22;
+        if (fullStep) {
+            // First half of the step
+            r00 = successor(n00, level - 3);
+            r01 = successor(n01, level - 3);
+            r02 = successor(n02, level - 3);
+            r10 = successor(n10, level - 3);
+            r11 = successor(n11, level - 3);
+            r12 = successor(n12, level - 3);
+            r20 = successor(n20, level - 3);
+            r21 = successor(n21, level - 3);
+            r22 = successor(n22, level - 3);
+        } else {
+            // Smaller steps do all of the work in the second half
+            r00 = center(n00);
+            r01 = center(n01);
+            r02 = center(n02);
+            r10 = center(n10);
+            r11 = center(n11);
+            r12 = center(n12);
+            r20 = center(n20);
+            r21 = center(n21);
+            r22 = center(n22);
+        }
+
+        var nextLog = fullStep ? level - 3 : stepLog;
+        final var result = join(
+                successor(join(r00, r01, r10, r11), nextLog),
+                successor(join(r01, r02, r11, r12), nextLog),
+                successor(join(r10, r11, r20, r21), nextLog),
+                successor(join(r11, r12, r21, r22), nextLog));
+
+        if (fullStep) {
+            node.result = result;
+        } else {
+            node.stepLog = stepLog;
+            node.stepResult = result;
+        }
+        return result;
+    }
+
+    /**
+     * A level 2 Node is 4x4 cells, its center 2x2 one generation later is read from {@link NeighborhoodTable}
+     */
+    private Node baseCase(final Node node) {
+        var bits = 0;
+        for (int y = 0; y < 4; y++) {
+            for (int x = 0; x < 4; x++) {
+                var quadrant = y < 2 ? (x < 2 ? node.nw : node.ne) : (x < 2 ? node.sw : node.se);
+                var cell = (y & 1) == 0 ? ((x & 1) == 0 ? quadrant.nw : quadrant.ne) : ((x & 1) == 0 ? quadrant.sw : quadrant.se);
+                if (cell == alive) {
+                    bits |= 1 << (y * 4 + x);
+                }
+            }
+        }
+        var result = NeighborhoodTable.centerOf4x4(bits);
+        return join(
+                (result & 1) != 0 ? alive : dead,
+                (result & 2) != 0 ? alive : dead,
+                (result & 4) != 0 ? alive : dead,
+                (result & 8) != 0 ? alive : dead);
+    }
+
+    /**
+     * Returns the canonical Node with the given children, creating it if this is the first time it has been seen
+     */
+    Node join(final Node nw, final Node ne, final Node sw, final Node se) {
+        var hash = Node.hash(nw, ne, sw, se);
+        var index = hash & (table.length - 1);
+        for (var node = table[index]; node != null; node = node.next) {
+            if (node.nw == nw && node.ne == ne && node.sw == sw && node.se == se) {
+                return node;
+            }
+        }
+        var node = new Node(nw, ne, sw, se, hash);
+        node.next = table[index];
+        table[index] = node;
+        if (++tableSize > table.length * 3 / 4) {
+            resize(table.length * 2);
+        }
+        return node;
+    }
+
+    private void resize(final int capacity) {
+        final var oldTable = table;
+        table = new Node[capacity];
+        for (Node head : oldTable) {
+            var node = head;
+            while (node != null) {
+                var next = node.next;
+                var index = node.hash & (capacity - 1);
+                node.next = table[index];
+                table[index] = node;
+                node = next;
+            }
+        }
+    }
+
+    /**
+     * Drops every Node that is not reachable from the root (or an empty Node) along with all memoized results
+     */
+    private void collectGarbage() {
+        table = new Node[table.length];
+        tableSize = 0;
+        for (int level = 1; level < empty.length; level++) {
+            retain(empty[level]);
+        }
+        retain(root);
+    }
+
+    private void retain(final Node node) {
+        if (node.level == 0) {
+            return;
+        }
+        var index = node.hash & (table.length - 1);
+        for (var existing = table[index]; existing != null; existing = existing.next) {
+            if (existing == node) {
+                return;
+            }
+        }
+        retain(node.nw);
+        retain(node.ne);
+        retain(node.sw);
+        retain(node.se);
+        node.result = null;
+        node.stepResult = null;
+        node.stepLog = -1;
+        node.next = table[index];
+        table[index] = node;
+        tableSize++;
+    }
+
+    private static long unsigned(final long coordinate) {
+        return coordinate ^ Long.MIN_VALUE;
+    }
+
+    /**
+     * @return the distance from the first to the last cell of a Node at the given level
+     */
+    private static long span(final int level) {
+        return level == 0 ? 0 : -1L >>> (64 - level);
+    }
+
+    private static long saturatingAdd(final long a, final long b) {
+        var sum = a + b;
+        return sum < 0 ? Long.MAX_VALUE : sum;
+    }
+
+    /**
+     * A canonical square of the World. Children are ordered with y increasing from north to south.
+     */
+    /**
+     * Visits the Life of a tree in x then y order. A strip is the non-empty Nodes of one level that share an x range,
+     * stacked from north to south. Splitting each of them into its west and east halves gives the two strips of the
+     * level below, still from north to south, and the strips of level 0 are single columns of Life. Every level
+     * reuses one buffer, since a strip is finished before the next one at its level is built, so memory follows the
+     * number of Nodes in the tallest column rather than the population.
+     */
+    private static final class ColumnWalk {
+        private final Node[][] nodes = new Node[ROOT_LEVEL + 1][];
+        private final long[][] offsets = new long[ROOT_LEVEL + 1][];
+        private final CellConsumer consumer;
+
+        private ColumnWalk(final CellConsumer consumer) {
+            this.consumer = consumer;
+        }
+
+        private void walk(final Node root) {
+            nodes[ROOT_LEVEL] = new Node[]{root};
+            offsets[ROOT_LEVEL] = new long[]{0};
+            walk(ROOT_LEVEL, root.population == 0 ? 0 : 1, 0);
+        }
+
+        /**
+         * @param level the level of the strip
+         * @param count how many Nodes are in the strip
+         * @param ox    the unsigned x offset of the strip
+         */
+        private void walk(final int level, final int count, final long ox) {
+            if (count == 0) {
+                return;
+            }
+            if (level == 0) {
+                final var column = offsets[0];
+                for (int i = 0; i < count; i++) {
+                    consumer.accept(ox ^ Long.MIN_VALUE, column[i] ^ Long.MIN_VALUE);
+                }
+                return;
+            }
+            walk(level - 1, split(level, count, true), ox);
+            walk(level - 1, split(level, count, false), ox + (1L << (level - 1)));
+        }
+
+        /**
+         * Fills the strip one level down with the non-empty west or east halves of a strip
+         *
+         * @return how many Nodes are in the strip one level down
+         */
+        private int split(final int level, final int count, final boolean west) {
+            if (nodes[level - 1] == null || nodes[level - 1].length < count * 2) {
+                nodes[level - 1] = new Node[count * 2];
+                offsets[level - 1] = new long[count * 2];
+            }
+            final var strip = nodes[level];
+            final var stripOffsets = offsets[level];
+            final var below = nodes[level - 1];
+            final var belowOffsets = offsets[level - 1];
+            final var half = 1L << (level - 1);
+            var next = 0;
+            for (int i = 0; i < count; i++) {
+                final var north = west ? strip[i].nw : strip[i].ne;
+                final var south = west ? strip[i].sw : strip[i].se;
+                if (north.population > 0) {
+                    below[next] = north;
+                    belowOffsets[next++] = stripOffsets[i];
+                }
+                if (south.population > 0) {
+                    below[next] = south;
+                    belowOffsets[next++] = stripOffsets[i] + half;
+                }
+            }
+            return next;
+        }
+    }
+
+    static final class Node {
+        final Node nw;
+        final Node ne;
+        final Node sw;
+        final Node se;
+        final int level;
+        final long population;
+        final int hash;
+
+        // A 64-bit structural hash, wide enough to compare whole generations
+        final long stateHash;
+
+        // Memoized center advanced 2^(level - 2) generations
+        Node result;
+
+        // Memoized center advanced 2^stepLog generations for a smaller step
+        Node stepResult;
+        int stepLog = -1;
+
+        // Chain for the canonical table
+        Node next;
+
+        private Node(final int population) {
+            this.nw = null;
+            this.ne = null;
+            this.sw = null;
+            this.se = null;
+            this.level = 0;
+            this.population = population;
+            this.hash = population;
+            this.stateHash = population;
+        }
+
+        private Node(final Node nw, final Node ne, final Node sw, final Node se, final int hash) {
+            this.nw = nw;
+            this.ne = ne;
+            this.sw = sw;
+            this.se = se;
+            this.level = nw.level + 1;
+            this.population = saturatingAdd(saturatingAdd(nw.population, ne.population),
+                    saturatingAdd(sw.population, se.population));
+            this.hash = hash;
+            this.stateHash = StateHash.of(StateHash.of(nw.stateHash, ne.stateHash) + level,
+                    StateHash.of(sw.stateHash, se.stateHash));
+        }
+
+        private static int hash(final Node nw, final Node ne, final Node sw, final Node se) {
+            var h = nw.level * 0x9e3779b9 + nw.hash;
+            h = h * 31 + ne.hash;
+            h = h * 31 + sw.hash;
+            h = h * 31 + se.hash;
+            // Spread the bits so the level 0 and 1 squares do not pile up in one bucket
+            h ^= (h >>> 16);
+            h *= 0x85ebca6b;
+            h ^= (h >>> 13);
+            return h;
+        }
+    }
+}
@@ -17,6 +17,15 @@ public class Life {
         this.y = y;
     }
 
+    /**
+     * For engines that keep ages outside of Life and create Life on demand
+     */
+    Life(long x, long y, long age) {
+        this.x = x;
+        this.y = y;
+        this.age = age;
+    }
+
     public long getX() {
         return x;
     }
@@ -33,6 +42,13 @@ public class Life {
         this.age++;
     }
 
+    /**
+     * Ages this Life by several ticks at once
+     */
+    void tick(final long ticks) {
+        this.age += ticks;
+    }
+
     @Override
     public String toString() {
         return "Life{" +
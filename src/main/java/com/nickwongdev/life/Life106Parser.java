@@ -0,0 +1,264 @@
+package com.nickwongdev.life;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Streaming parser for the Life 1.06 format that scans bytes directly.
+ * <p>
+ * The input is read in large chunks into a single reused buffer and the coordinates are accumulated digit by digit,
+ * so no Strings, arrays or boxed values are created per line and every cell goes straight to a {@link CellConsumer}.
+ * Loading is bound by how fast the bytes can be read.
+ * <p>
+ * After the "#Life 1.06" header, a line holds two decimal numbers in the full signed 64-bit range separated by any
+ * mix of spaces and tabs. Blank lines, lines starting with '#' and Windows line endings are all accepted. Anything
+ * else is reported as an IOException with the line number.
+ * <p>
+ * Not thread safe, create a parser per input.
+ */
+public final class Life106Parser {
+
+    public static final String HEADER_LINE = "#Life 1.06";
+
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+    private final byte[] buffer;
+
+    // Parser state, carried across buffer refills
+    private long lineNumber;
+    private boolean inComment;
+    private boolean inNumber;
+    private boolean negative;
+    private boolean hasDigits;
+    private long value;
+    private int numbersOnLine;
+    private long firstNumber;
+    private long secondNumber;
+
+    public Life106Parser() {
+        this(DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param bufferSize how many bytes to read at a time
+     */
+    Life106Parser(final int bufferSize) {
+        this.buffer = new byte[bufferSize];
+    }
+
+    /**
+     * Parses a whole Life 1.06 stream
+     *
+     * @param input    the stream to read, not closed
+     * @param consumer receives every cell in the order they appear
+     * @return how many cells were read
+     * @throws IOException if the stream cannot be read or is not Life 1.06
+     */
+    public long parse(final InputStream input, final CellConsumer consumer) throws IOException {
+        reset();
+
+        var limit = readHeader(input);
+        if (limit == 0) {
+            limit = input.read(buffer, 0, buffer.length);
+        }
+
+        var cells = 0L;
+        while (limit > 0) {
+            cells += feed(buffer, limit, consumer);
+            limit = input.read(buffer, 0, buffer.length);
+        }
+        return cells + finish(consumer);
+    }
+
+    /**
+     * Parses the body of a Life 1.06 file read by {@link #readHeader(ByteBuffer)}, that is lines of cells without the
+     * header. Used to parse pieces of a large file that start at the beginning of a line.
+     *
+     * @param input    the bytes between position and limit are parsed, position is left at limit
+     * @param consumer receives every cell in the order they appear
+     * @return how many cells were read
+     * @throws IOException if the input is not Life 1.06
+     */
+    public long parseBody(final ByteBuffer input, final CellConsumer consumer) throws IOException {
+        reset();
+        var cells = 0L;
+        while (input.hasRemaining()) {
+            final var length = Math.min(buffer.length, input.remaining());
+            input.get(buffer, 0, length);
+            cells += feed(buffer, length, consumer);
+        }
+        return cells + finish(consumer);
+    }
+
+    /**
+     * Checks that a buffer starts with the Life 1.06 header
+     *
+     * @param input the start of the file, position is moved to just after the header line
+     * @throws IOException if the header is missing
+     */
+    public static void readHeader(final ByteBuffer input) throws IOException {
+        final var start = input.position();
+        while (input.hasRemaining()) {
+            if (input.get() == '\n') {
+                checkHeader(StandardCharsets.UTF_8.decode(input.duplicate().position(start).limit(input.position() - 1)).toString());
+                return;
+            }
+        }
+        checkHeader(StandardCharsets.UTF_8.decode(input.duplicate().position(start)).toString());
+    }
+
+    private void reset() {
+        lineNumber = 1;
+        inComment = false;
+        resetLine();
+    }
+
+    /**
+     * Runs the bytes through the state machine, which carries over partial lines from the previous call
+     *
+     * @return how many cells were completed
+     */
+    private long feed(final byte[] bytes, final int length, final CellConsumer consumer) throws IOException {
+        var cells = 0L;
+        for (int i = 0; i < length; i++) {
+            final var c = bytes[i];
+            if (c == '\n') {
+                if (endLine(consumer)) {
+                    cells++;
+                }
+            } else if (inComment) {
+                continue;
+            } else if (c >= '0' && c <= '9') {
+                digit(c - '0');
+            } else if (c == ' ' || c == '\t' || c == '\r') {
+                endNumber();
+            } else if (c == '-' || c == '+') {
+                if (inNumber) {
+                    throw error("unexpected '" + (char) c + "'");
+                }
+                inNumber = true;
+                negative = c == '-';
+            } else if (c == '#' && !inNumber && numbersOnLine == 0) {
+                inComment = true;
+            } else {
+                throw error("unexpected character '" + (char) c + "'");
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Ends the last line, which may not have a line ending
+     *
+     * @return 1 if the last line held a cell
+     */
+    private long finish(final CellConsumer consumer) throws IOException {
+        return endLine(consumer) ? 1 : 0;
+    }
+
+    /**
+     * Reads up to the end of the header line, which must match {@link #HEADER_LINE} once trimmed.
+     *
+     * @return how many bytes after the header are at the start of the buffer, or -1 if the input ended
+     */
+    private int readHeader(final InputStream input) throws IOException {
+        var limit = 0;
+        while (true) {
+            for (int i = 0; i < limit; i++) {
+                if (buffer[i] == '\n') {
+                    checkHeader(new String(buffer, 0, i, StandardCharsets.UTF_8));
+                    lineNumber++;
+                    // Move the rest of the first read to the front so the main loop can continue from it
+                    System.arraycopy(buffer, i + 1, buffer, 0, limit - i - 1);
+                    return limit - i - 1;
+                }
+            }
+            if (limit == buffer.length) {
+                throw error("missing header");
+            }
+            final var read = input.read(buffer, limit, buffer.length - limit);
+            if (read < 0) {
+                checkHeader(new String(buffer, 0, limit, StandardCharsets.UTF_8));
+                return -1;
+            }
+            limit += read;
+        }
+    }
+
+    private static void checkHeader(final String line) throws IOException {
+        if (!HEADER_LINE.equals(line.trim())) {
+            throw new IOException("Filename provided is not a Life 1.06 format (missing header)");
+        }
+    }
+
+    /**
+     * Accumulates negatively so MIN_LONG can be parsed, the same way Long.parseLong does
+     */
+    private void digit(final int digit) throws IOException {
+        inNumber = true;
+        hasDigits = true;
+        final var limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        if (value < limit / 10) {
+            throw error("number out of range");
+        }
+        value *= 10;
+        if (value < limit + digit) {
+            throw error("number out of range");
+        }
+        value -= digit;
+    }
+
+    private void endNumber() throws IOException {
+        if (!inNumber) {
+            return;
+        }
+        if (!hasDigits) {
+            throw error("sign without a number");
+        }
+        final var number = negative ? value : -value;
+        if (numbersOnLine == 0) {
+            firstNumber = number;
+        } else if (numbersOnLine == 1) {
+            secondNumber = number;
+        } else {
+            throw error("more than two numbers");
+        }
+        numbersOnLine++;
+        inNumber = false;
+        negative = false;
+        hasDigits = false;
+        value = 0;
+    }
+
+    /**
+     * @return true if the line held a cell
+     */
+    private boolean endLine(final CellConsumer consumer) throws IOException {
+        endNumber();
+        final var numbers = numbersOnLine;
+        if (numbers == 1) {
+            throw error("expected two numbers");
+        }
+        if (numbers == 2) {
+            consumer.accept(firstNumber, secondNumber);
+        }
+        lineNumber++;
+        inComment = false;
+        resetLine();
+        return numbers == 2;
+    }
+
+    private void resetLine() {
+        inNumber = false;
+        negative = false;
+        hasDigits = false;
+        value = 0;
+        numbersOnLine = 0;
+    }
+
+    private IOException error(final String message) {
+        return new IOException("Invalid Life 1.06 input on line " + lineNumber + ": " + message);
+    }
+}
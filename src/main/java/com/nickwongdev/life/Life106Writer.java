@@ -0,0 +1,131 @@
+package com.nickwongdev.life;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes Life 1.06 through one large byte buffer.
+ * <p>
+ * Coordinates are formatted straight into the buffer by hand, so there is no String concatenation, no charset
+ * encoding and no lock per line the way there is with System.out.println. The buffer only goes to the channel when
+ * it is full, which makes writing a large World a handful of big sequential writes.
+ * <p>
+ * Not thread safe.
+ */
+public final class Life106Writer implements CellConsumer {
+
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+
+    // Longest line is "-9223372036854775808 -9223372036854775808\n"
+    private static final int MAX_LINE_LENGTH = 20 + 1 + 20 + 1;
+
+    private static final byte[] HEADER = (Life106Parser.HEADER_LINE + "\n").getBytes(StandardCharsets.US_ASCII);
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer;
+
+    // Digits are formatted backwards into here before being copied into the buffer
+    private final byte[] digits = new byte[20];
+
+    // accept cannot throw, so a failed write is held until flush
+    private IOException failure;
+
+    public Life106Writer(final WritableByteChannel channel) {
+        this(channel, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param channel    where to write, not closed by the writer
+     * @param bufferSize how many bytes to collect before writing to the channel
+     */
+    public Life106Writer(final WritableByteChannel channel, final int bufferSize) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(Math.max(bufferSize, MAX_LINE_LENGTH));
+    }
+
+    /**
+     * Writes the header and every Life in the Engine, then flushes
+     *
+     * @param engine  the Engine to write
+     * @param channel where to write, not closed
+     * @throws IOException if the channel cannot be written
+     */
+    public static void write(final Engine engine, final WritableByteChannel channel) throws IOException {
+        final var writer = new Life106Writer(channel);
+        writer.writeHeader();
+        engine.forEachLife(writer);
+        writer.flush();
+    }
+
+    public void writeHeader() throws IOException {
+        ensureRoom(HEADER.length);
+        buffer.put(HEADER);
+    }
+
+    /**
+     * Writes one line. Failures are reported by the next {@link #flush()}.
+     */
+    @Override
+    public void accept(final long x, final long y) {
+        if (failure != null) {
+            return;
+        }
+        try {
+            ensureRoom(MAX_LINE_LENGTH);
+        } catch (IOException e) {
+            failure = e;
+            return;
+        }
+        putLong(x);
+        buffer.put((byte) ' ');
+        putLong(y);
+        buffer.put((byte) '\n');
+    }
+
+    /**
+     * Writes everything buffered so far to the channel
+     *
+     * @throws IOException if any write since the last flush failed
+     */
+    public void flush() throws IOException {
+        if (failure != null) {
+            final var e = failure;
+            failure = null;
+            throw e;
+        }
+        drain();
+    }
+
+    private void ensureRoom(final int length) throws IOException {
+        if (buffer.remaining() < length) {
+            drain();
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Formats negatively so MIN_LONG needs no special case
+     */
+    private void putLong(final long value) {
+        var remaining = value < 0 ? value : -value;
+        var position = digits.length;
+        do {
+            final var quotient = remaining / 10;
+            digits[--position] = (byte) ('0' + (quotient * 10 - remaining));
+            remaining = quotient;
+        } while (remaining != 0);
+        if (value < 0) {
+            buffer.put((byte) '-');
+        }
+        buffer.put(digits, position, digits.length - position);
+    }
+}
@@ -0,0 +1,93 @@
+package com.nickwongdev.life;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts values into power of two buckets, so recording is one array increment and the whole range of a long fits in
+ * 65 buckets. Bucket 0 holds 0, bucket b holds values from 2^(b-1) up to 2^b - 1.
+ * <p>
+ * Design decisions:
+ * Percentiles are only known to within a factor of two, which is plenty to tell a 2ms tick from a 40ms one and costs
+ * nothing to keep. Negative values are counted as 0.
+ * <p>
+ * Thread safe.
+ */
+public final class Log2Histogram {
+
+    static final int BUCKETS = 65;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    public void record(final long value) {
+        counts.incrementAndGet(bucket(value));
+    }
+
+    /**
+     * @return the counts so far, buckets recorded while copying may or may not be included
+     */
+    public Snapshot snapshot() {
+        final var copy = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+        }
+        return new Snapshot(copy);
+    }
+
+    static int bucket(final long value) {
+        return value <= 0 ? 0 : 64 - Long.numberOfLeadingZeros(value);
+    }
+
+    /**
+     * @return the largest value that goes into a bucket
+     */
+    static long upperBound(final int bucket) {
+        return bucket == 0 ? 0 : bucket == 64 ? Long.MAX_VALUE : (1L << bucket) - 1;
+    }
+
+    /**
+     * The counts of a histogram at one moment
+     *
+     * @param counts how many values went into each bucket
+     */
+    public record Snapshot(long[] counts) {
+
+        public long count() {
+            var total = 0L;
+            for (long count : counts) {
+                total += count;
+            }
+            return total;
+        }
+
+        /**
+         * @param quantile between 0 and 1, 0.5 is the median
+         * @return the upper bound of the bucket the quantile falls in, 0 if nothing was recorded
+         */
+        public long percentile(final double quantile) {
+            final var total = count();
+            if (total == 0) {
+                return 0;
+            }
+            final var rank = Math.max(1, (long) Math.ceil(quantile * total));
+            var seen = 0L;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return upperBound(i);
+                }
+            }
+            return upperBound(counts.length - 1);
+        }
+
+        /**
+         * @return the counts recorded since an earlier snapshot of the same histogram
+         */
+        public Snapshot minus(final Snapshot earlier) {
+            final var difference = new long[counts.length];
+            for (int i = 0; i < counts.length; i++) {
+                difference[i] = counts[i] - earlier.counts[i];
+            }
+            return new Snapshot(difference);
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package com.nickwongdev.life;
+
+import java.util.Arrays;
+
+/**
+ * An open-addressing hash map from a pair of longs to an int, with no per-entry objects.
+ * <p>
+ * Keys live in two parallel long[] and values in an int[], with a separate occupancy array since every (x, y) is a
+ * valid key and there is no spare value to mark an empty slot. Collisions are resolved with linear probing, and
+ * removal shifts the rest of the cluster back instead of leaving tombstones, so lookups never slow down as cells
+ * come and go.
+ * <p>
+ * Slots can be walked directly with {@link #capacity()} and {@link #isOccupied(int)}, which lets hot loops iterate
+ * without a lambda or an iterator. The map must not be modified while it is being walked that way.
+ * <p>
+ * Not thread safe.
+ */
+final class LongPairMap {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    // Resize when more than 5/8 of the slots are occupied, linear probing degrades quickly past that
+    private static final int LOAD_NUMERATOR = 5;
+    private static final int LOAD_DENOMINATOR = 8;
+
+    private long[] xs;
+    private long[] ys;
+    private int[] values;
+    private boolean[] occupied;
+    private int mask;
+    private int size;
+
+    LongPairMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize how many entries to size the table for
+     */
+    LongPairMap(final int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    boolean containsKey(final long x, final long y) {
+        return find(x, y) >= 0;
+    }
+
+    /**
+     * @return the value for the key, or missing if the key is not in the map
+     */
+    int get(final long x, final long y, final int missing) {
+        final var slot = find(x, y);
+        return slot < 0 ? missing : values[slot];
+    }
+
+    /**
+     * @return true if the key was added, false if it was already present (in which case the value is unchanged)
+     */
+    boolean putIfAbsent(final long x, final long y, final int value) {
+        var slot = slotFor(x, y);
+        while (occupied[slot]) {
+            if (xs[slot] == x && ys[slot] == y) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        insert(slot, x, y, value);
+        return true;
+    }
+
+    /**
+     * Sets the value for a key, adding the key if needed
+     */
+    void put(final long x, final long y, final int value) {
+        var slot = slotFor(x, y);
+        while (occupied[slot]) {
+            if (xs[slot] == x && ys[slot] == y) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        insert(slot, x, y, value);
+    }
+
+    /**
+     * Adds one to the value for a key, a missing key counts as zero
+     *
+     * @return the new value
+     */
+    int increment(final long x, final long y) {
+        var slot = slotFor(x, y);
+        while (occupied[slot]) {
+            if (xs[slot] == x && ys[slot] == y) {
+                return ++values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        insert(slot, x, y, 1);
+        return 1;
+    }
+
+    /**
+     * @return true if the key was present and removed
+     */
+    boolean remove(final long x, final long y) {
+        var slot = find(x, y);
+        if (slot < 0) {
+            return false;
+        }
+        // Shift later members of the cluster back into the hole if their home slot allows it
+        var hole = slot;
+        var next = (hole + 1) & mask;
+        while (occupied[next]) {
+            final var home = slotFor(xs[next], ys[next]);
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                xs[hole] = xs[next];
+                ys[hole] = ys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        occupied[hole] = false;
+        size--;
+        return true;
+    }
+
+    /**
+     * Removes every entry but keeps the table, so a map can be reused every generation without allocating
+     */
+    void clear() {
+        Arrays.fill(occupied, false);
+        size = 0;
+    }
+
+    int capacity() {
+        return occupied.length;
+    }
+
+    boolean isOccupied(final int slot) {
+        return occupied[slot];
+    }
+
+    long x(final int slot) {
+        return xs[slot];
+    }
+
+    long y(final int slot) {
+        return ys[slot];
+    }
+
+    int value(final int slot) {
+        return values[slot];
+    }
+
+    /**
+     * Copies every key into the given arrays ordered by x and then by y
+     *
+     * @return how many keys were copied
+     */
+    int copySortedKeys(final long[] sortedXs, final long[] sortedYs) {
+        var count = 0;
+        for (int slot = 0; slot < occupied.length; slot++) {
+            if (occupied[slot]) {
+                sortedXs[count] = xs[slot];
+                sortedYs[count] = ys[slot];
+                count++;
+            }
+        }
+        sort(sortedXs, sortedYs, count);
+        return count;
+    }
+
+    /**
+     * Sorts pairs held in two parallel arrays by primary and then by secondary. This is a bottom up merge sort so
+     * the worst case is O(n log n) regardless of how the pairs came out of the hash table.
+     *
+     * @param primary   the first sort key
+     * @param secondary the second sort key, moved along with primary
+     * @param length    how many pairs from the start of the arrays to sort
+     */
+    static void sort(final long[] primary, final long[] secondary, final int length) {
+        var fromPrimary = primary;
+        var fromSecondary = secondary;
+        var toPrimary = new long[length];
+        var toSecondary = new long[length];
+        for (int width = 1; width < length; width <<= 1) {
+            for (int start = 0; start < length; start += width << 1) {
+                final var middle = Math.min(start + width, length);
+                final var end = Math.min(start + (width << 1), length);
+                var left = start;
+                var right = middle;
+                for (int out = start; out < end; out++) {
+                    if (left < middle && (right >= end || compare(fromPrimary, fromSecondary, left, right) <= 0)) {
+                        toPrimary[out] = fromPrimary[left];
+                        toSecondary[out] = fromSecondary[left];
+                        left++;
+                    } else {
+                        toPrimary[out] = fromPrimary[right];
+                        toSecondary[out] = fromSecondary[right];
+                        right++;
+                    }
+                }
+            }
+            final var swapPrimary = fromPrimary;
+            final var swapSecondary = fromSecondary;
+            fromPrimary = toPrimary;
+            fromSecondary = toSecondary;
+            toPrimary = swapPrimary;
+            toSecondary = swapSecondary;
+        }
+        if (fromPrimary != primary) {
+            System.arraycopy(fromPrimary, 0, primary, 0, length);
+            System.arraycopy(fromSecondary, 0, secondary, 0, length);
+        }
+    }
+
+    private static int compare(final long[] primary, final long[] secondary, final int a, final int b) {
+        final var result = Long.compare(primary[a], primary[b]);
+        return result != 0 ? result : Long.compare(secondary[a], secondary[b]);
+    }
+
+    private int find(final long x, final long y) {
+        var slot = slotFor(x, y);
+        while (occupied[slot]) {
+            if (xs[slot] == x && ys[slot] == y) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void insert(final int slot, final long x, final long y, final int value) {
+        xs[slot] = x;
+        ys[slot] = y;
+        values[slot] = value;
+        occupied[slot] = true;
+        if (++size * LOAD_DENOMINATOR > occupied.length * LOAD_NUMERATOR) {
+            resize(occupied.length << 1);
+        }
+    }
+
+    private void resize(final int capacity) {
+        final var oldXs = xs;
+        final var oldYs = ys;
+        final var oldValues = values;
+        final var oldOccupied = occupied;
+        allocate(capacity);
+        for (int slot = 0; slot < oldOccupied.length; slot++) {
+            if (oldOccupied[slot]) {
+                var newSlot = slotFor(oldXs[slot], oldYs[slot]);
+                while (occupied[newSlot]) {
+                    newSlot = (newSlot + 1) & mask;
+                }
+                xs[newSlot] = oldXs[slot];
+                ys[newSlot] = oldYs[slot];
+                values[newSlot] = oldValues[slot];
+                occupied[newSlot] = true;
+            }
+        }
+    }
+
+    private void allocate(final int capacity) {
+        xs = new long[capacity];
+        ys = new long[capacity];
+        values = new int[capacity];
+        occupied = new boolean[capacity];
+        mask = capacity - 1;
+    }
+
+    private int slotFor(final long x, final long y) {
+        // Neighboring cells differ in the low bits only, so mix both coordinates thoroughly (murmur3 finalizer)
+        var h = x * 0x9e3779b97f4a7c15L + y;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h & mask;
+    }
+
+    private static int tableSizeFor(final int expectedSize) {
+        final var minimum = Math.max(DEFAULT_CAPACITY, (int) ((long) expectedSize * LOAD_DENOMINATOR / LOAD_NUMERATOR) + 1);
+        return Integer.highestOneBit(minimum - 1) << 1;
+    }
+}
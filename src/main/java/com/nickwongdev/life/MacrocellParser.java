@@ -0,0 +1,193 @@
+package com.nickwongdev.life;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Loads a pattern in Golly's Macrocell format straight into the quadtree of a {@link HashLifeWorld}.
+ * <p>
+ * A Macrocell file is the quadtree itself. After the "[M2]" line and any '#' lines, every line is one Node, and a
+ * Node only refers to lines before it:
+ * <ul>
+ * <li>an 8x8 leaf, written as rows of '.' and '*' each ended by '$', with dead cells at the end left out</li>
+ * <li>"k nw ne sw se", a 2^k square made of four Nodes given by line number, 0 meaning empty</li>
+ * </ul>
+ * The last Node is the whole pattern, centered on (0, 0) with y growing downward, which is exactly how the root of
+ * a {@link HashLifeWorld} is laid out. Every line becomes one canonical Node through the World's own table, so a
+ * pattern is loaded in time and memory proportional to its file, however many cells it has.
+ * <p>
+ * A "#G" line gives the generation of the pattern, which becomes the generation of the World.
+ * <p>
+ * Design decisions:
+ * Only Conway's Life (B3/S23) is accepted, a "#R" line with any other rule is reported as an IOException.
+ */
+public final class MacrocellParser {
+
+    public static final String HEADER_PREFIX = "[M2]";
+
+    private static final int LEAF_LEVEL = 3;
+    private static final int LEAF_SIZE = 1 << LEAF_LEVEL;
+
+    // The largest level with empty Nodes to pad it, padding beyond the coordinate space must be empty
+    private static final int MAX_LEVEL = 65;
+
+    private MacrocellParser() {
+    }
+
+    /**
+     * Replaces everything in the World with a Macrocell pattern. The World must not be initialized afterwards.
+     *
+     * @param input the stream to read, not closed
+     * @param world the World to load into
+     * @return how many Life the pattern has, saturating at MAX_LONG
+     * @throws IOException if the stream cannot be read or is not Macrocell for Conway's Life
+     */
+    public static long parse(final InputStream input, final HashLifeWorld world) throws IOException {
+        final var reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.US_ASCII));
+        final var header = reader.readLine();
+        if (header == null || !header.startsWith(HEADER_PREFIX)) {
+            throw new IOException("Not a Macrocell file (missing " + HEADER_PREFIX + " header)");
+        }
+
+        // Line numbers start at 1, 0 is the empty Node
+        final List<HashLifeWorld.Node> nodes = new ArrayList<>();
+        nodes.add(null);
+        var generation = 0L;
+        var lineNumber = 1L;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            final var text = line.trim();
+            if (text.isEmpty()) {
+                continue;
+            }
+            final var first = text.charAt(0);
+            if (first == '#') {
+                generation = comment(text, generation, lineNumber);
+            } else if (first == '.' || first == '*' || first == '$') {
+                nodes.add(leaf(text, world, lineNumber));
+            } else if (first >= '0' && first <= '9') {
+                nodes.add(branch(text, nodes, world, lineNumber));
+            } else {
+                throw error(lineNumber, "unexpected line " + text);
+            }
+        }
+        if (nodes.size() == 1) {
+            throw new IOException("Invalid Macrocell input: no Nodes");
+        }
+
+        final var pattern = nodes.get(nodes.size() - 1);
+        try {
+            world.replaceRoot(pattern, generation + 1);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid Macrocell input: " + e.getMessage(), e);
+        }
+        return pattern.population;
+    }
+
+    /**
+     * @return the generation, updated if the line is a "#G" line
+     */
+    private static long comment(final String text, final long generation, final long lineNumber) throws IOException {
+        if (text.startsWith("#R")) {
+            final var rule = text.substring(2).trim().toUpperCase(Locale.ROOT);
+            if (!rule.equals("B3/S23") && !rule.equals("23/3")) {
+                throw error(lineNumber, "only Conway's Life (B3/S23) is supported, not " + rule);
+            }
+        } else if (text.startsWith("#G")) {
+            try {
+                final var parsed = Long.parseLong(text.substring(2).trim());
+                if (parsed < 0 || parsed == Long.MAX_VALUE) {
+                    throw error(lineNumber, "generation out of range");
+                }
+                return parsed;
+            } catch (NumberFormatException e) {
+                throw error(lineNumber, "not a generation: " + text);
+            }
+        }
+        return generation;
+    }
+
+    private static HashLifeWorld.Node leaf(final String text, final HashLifeWorld world, final long lineNumber)
+            throws IOException {
+        var bits = 0L;
+        var x = 0;
+        var y = 0;
+        for (int i = 0; i < text.length(); i++) {
+            final var c = text.charAt(i);
+            if (c == '$') {
+                x = 0;
+                y++;
+                continue;
+            }
+            if (x >= LEAF_SIZE || y >= LEAF_SIZE) {
+                throw error(lineNumber, "leaf larger than 8x8");
+            }
+            if (c == '*') {
+                bits |= 1L << (y * LEAF_SIZE + x);
+            } else if (c != '.') {
+                throw error(lineNumber, "unexpected character '" + c + "' in a leaf");
+            }
+            x++;
+        }
+        return square(bits, 0, 0, LEAF_LEVEL, world);
+    }
+
+    /**
+     * @return the Node for the square of an 8x8 bitmap at (x, y) of the given level
+     */
+    private static HashLifeWorld.Node square(final long bits, final int x, final int y, final int level,
+                                             final HashLifeWorld world) {
+        if (level == 0) {
+            return world.cell((bits & (1L << (y * LEAF_SIZE + x))) != 0);
+        }
+        final var half = 1 << (level - 1);
+        return world.join(
+                square(bits, x, y, level - 1, world),
+                square(bits, x + half, y, level - 1, world),
+                square(bits, x, y + half, level - 1, world),
+                square(bits, x + half, y + half, level - 1, world));
+    }
+
+    private static HashLifeWorld.Node branch(final String text, final List<HashLifeWorld.Node> nodes,
+                                             final HashLifeWorld world, final long lineNumber) throws IOException {
+        final var fields = text.split("\\s+");
+        if (fields.length != 5) {
+            throw error(lineNumber, "expected a level and four Nodes");
+        }
+        final int level;
+        final var children = new HashLifeWorld.Node[4];
+        try {
+            level = Integer.parseInt(fields[0]);
+            if (level <= LEAF_LEVEL || level > MAX_LEVEL) {
+                throw error(lineNumber, "level " + level + " is not between " + (LEAF_LEVEL + 1) + " and "
+                        + MAX_LEVEL);
+            }
+            for (int i = 0; i < children.length; i++) {
+                final var index = Integer.parseInt(fields[i + 1]);
+                if (index < 0 || index >= nodes.size()) {
+                    throw error(lineNumber, "Node " + index + " is not defined before it is used");
+                }
+                final var child = index == 0 ? world.emptyNode(level - 1) : nodes.get(index);
+                if (child.level != level - 1) {
+                    throw error(lineNumber, "Node " + index + " is level " + child.level + ", expected "
+                            + (level - 1));
+                }
+                children[i] = child;
+            }
+        } catch (NumberFormatException e) {
+            throw error(lineNumber, "not a number in " + text);
+        }
+        return world.join(children[0], children[1], children[2], children[3]);
+    }
+
+    private static IOException error(final long lineNumber, final String message) {
+        return new IOException("Invalid Macrocell input on line " + lineNumber + ": " + message);
+    }
+}
@@ -0,0 +1,150 @@
+package com.nickwongdev.life;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Writes the quadtree of a {@link HashLifeWorld} in Golly's Macrocell format, see {@link MacrocellParser}.
+ * <p>
+ * Every distinct Node is written once, children before parents, so the file is proportional to the number of
+ * distinct Nodes rather than the number of cells. The root is first shrunk to the smallest Node centered on (0, 0)
+ * that still holds every Life, so a small pattern is not wrapped in 60 levels of empty space.
+ * <p>
+ * Nodes are canonical, so they are numbered by identity. Lines go through one large byte buffer that only goes to
+ * the channel when it is full, like {@link Life106Writer}.
+ * <p>
+ * Not thread safe, and the World must not be changed while it is written.
+ */
+public final class MacrocellWriter {
+
+    private static final int LEAF_LEVEL = 3;
+    private static final int LEAF_SIZE = 1 << LEAF_LEVEL;
+
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final HashLifeWorld world;
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final Map<HashLifeWorld.Node, Integer> lineNumbers = new IdentityHashMap<>();
+
+    private MacrocellWriter(final HashLifeWorld world, final WritableByteChannel channel) {
+        this.world = world;
+        this.channel = channel;
+    }
+
+    /**
+     * @param world   the World to write
+     * @param channel where to write, not closed
+     * @return how many Nodes were written
+     * @throws IOException if the channel cannot be written
+     */
+    public static int write(final HashLifeWorld world, final WritableByteChannel channel) throws IOException {
+        final var writer = new MacrocellWriter(world, channel);
+        writer.putLine(MacrocellParser.HEADER_PREFIX + " (life-java)");
+        writer.putLine("#R B3/S23");
+        if (world.getAge() > 1) {
+            writer.putLine("#G " + (world.getAge() - 1));
+        }
+
+        var pattern = world.getRoot();
+        while (pattern.level > LEAF_LEVEL && world.center(pattern).population == pattern.population) {
+            pattern = world.center(pattern);
+        }
+        if (pattern.population == 0) {
+            // An empty file has no Nodes to be the pattern, so write an empty leaf
+            pattern = world.emptyNode(LEAF_LEVEL);
+            writer.putLine("$");
+        } else {
+            writer.number(pattern);
+        }
+        writer.drain();
+        return Math.max(1, writer.lineNumbers.size());
+    }
+
+    /**
+     * Writes a Node and everything below it that has not been written yet
+     *
+     * @return the line number of the Node, 0 if it is empty
+     */
+    private int number(final HashLifeWorld.Node node) throws IOException {
+        if (node.population == 0) {
+            return 0;
+        }
+        final var known = lineNumbers.get(node);
+        if (known != null) {
+            return known;
+        }
+        if (node.level == LEAF_LEVEL) {
+            putLine(leaf(node));
+        } else {
+            final var nw = number(node.nw);
+            final var ne = number(node.ne);
+            final var sw = number(node.sw);
+            final var se = number(node.se);
+            putLine(node.level + " " + nw + " " + ne + " " + sw + " " + se);
+        }
+        final var line = lineNumbers.size() + 1;
+        lineNumbers.put(node, line);
+        return line;
+    }
+
+    /**
+     * @return the rows of an 8x8 Node as '.' and '*', each ended by '$', with dead cells at the end of a row left
+     * out
+     */
+    private static String leaf(final HashLifeWorld.Node node) {
+        final var text = new StringBuilder();
+        for (int y = 0; y < LEAF_SIZE; y++) {
+            var row = new StringBuilder();
+            for (int x = 0; x < LEAF_SIZE; x++) {
+                row.append(isAlive(node, x, y) ? '*' : '.');
+            }
+            var end = row.length();
+            while (end > 0 && row.charAt(end - 1) == '.') {
+                end--;
+            }
+            text.append(row, 0, end).append('$');
+        }
+        // Empty rows at the end can be left out too
+        var end = text.length();
+        while (end > 1 && text.charAt(end - 1) == '$' && text.charAt(end - 2) == '$') {
+            end--;
+        }
+        return text.substring(0, end);
+    }
+
+    private static boolean isAlive(final HashLifeWorld.Node node, final int x, final int y) {
+        var current = node;
+        for (int level = LEAF_LEVEL; level > 0; level--) {
+            final var bit = level - 1;
+            final var east = ((x >>> bit) & 1) != 0;
+            final var south = ((y >>> bit) & 1) != 0;
+            if (south) {
+                current = east ? current.se : current.sw;
+            } else {
+                current = east ? current.ne : current.nw;
+            }
+        }
+        return current.population != 0;
+    }
+
+    private void putLine(final String line) throws IOException {
+        final var bytes = (line + "\n").getBytes(StandardCharsets.US_ASCII);
+        if (buffer.remaining() < bytes.length) {
+            drain();
+        }
+        buffer.put(bytes);
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
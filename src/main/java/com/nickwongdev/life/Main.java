@@ -4,26 +4,316 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.StringReader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
 
 public class Main {
-    private static final String HEADER_LINE = "#Life 1.06";
+    private static final String HEADER_LINE = Life106Parser.HEADER_LINE;
 
-    public static void main(String[] args) {
-        var lifeList = readInput();
-        final var world = new World();
+    private static final String ENGINE_ARG = "--engine=";
+    private static final String THREADS_ARG = "--threads=";
+    private static final String DOUBLE_BUFFERED_ARG = "--double-buffered";
+    private static final String INPUT_ARG = "--input=";
+    private static final String OUTPUT_ARG = "--output=";
+    private static final String GENERATIONS_ARG = "--generations=";
+    private static final String TIME_BUDGET_ARG = "--time-budget=";
+    private static final String POPULATION_ARG = "--population=";
+    private static final String UNTIL_ARG = "--until=";
+    private static final String MAX_PERIOD_ARG = "--max-period=";
+    private static final String FAST_FORWARD_ARG = "--fast-forward";
+    private static final String FORMAT_ARG = "--format=";
+    private static final String RESTORE_ARG = "--restore=";
+    private static final String SAVE_ARG = "--save=";
+    private static final String CHECKPOINT_DIR_ARG = "--checkpoint-dir=";
+    private static final String CHECKPOINT_EVERY_ARG = "--checkpoint-every=";
+    private static final String CHECKPOINT_KEEP_ARG = "--checkpoint-keep=";
+    private static final String DELTA_ARG = "--delta=";
+    private static final String METRICS_ARG = "--metrics=";
 
-        for (long[] lifePos : lifeList) {
-            world.createLife(lifePos[0], lifePos[1]);
+    private static final long DEFAULT_GENERATIONS = 10;
+    private static final int DEFAULT_MAX_PERIOD = 1024;
+    private static final String RLE = "rle";
+    private static final String RLE_EXTENSION = ".rle";
+    private static final String MACROCELL_EXTENSION = ".mc";
+
+    private static final long DEFAULT_CHECKPOINT_EVERY = 1000;
+    private static final int DEFAULT_CHECKPOINT_KEEP = 3;
+
+    public static void main(String[] args) throws IOException {
+        var engineName = "world";
+        var threads = 1;
+        var doubleBuffered = false;
+        Path input = null;
+        Path output = null;
+        var generations = Runner.UNLIMITED;
+        var timeBudgetNanos = Runner.UNLIMITED;
+        var population = Runner.UNLIMITED;
+        var until = Runner.Until.NEVER;
+        var maxPeriod = DEFAULT_MAX_PERIOD;
+        var fastForward = false;
+        var format = "life106";
+        Path restore = null;
+        Path save = null;
+        Path checkpointDir = null;
+        var checkpointEvery = DEFAULT_CHECKPOINT_EVERY;
+        var checkpointKeep = DEFAULT_CHECKPOINT_KEEP;
+        Path delta = null;
+        var metricsPeriodNanos = 0L;
+        for (String arg : args) {
+            if (arg.startsWith(ENGINE_ARG)) {
+                engineName = arg.substring(ENGINE_ARG.length());
+            } else if (arg.startsWith(THREADS_ARG)) {
+                threads = Integer.parseInt(arg.substring(THREADS_ARG.length()));
+            } else if (arg.equals(DOUBLE_BUFFERED_ARG)) {
+                doubleBuffered = true;
+            } else if (arg.startsWith(INPUT_ARG)) {
+                input = Path.of(arg.substring(INPUT_ARG.length()));
+            } else if (arg.startsWith(OUTPUT_ARG)) {
+                output = Path.of(arg.substring(OUTPUT_ARG.length()));
+            } else if (arg.startsWith(GENERATIONS_ARG)) {
+                generations = Long.parseLong(arg.substring(GENERATIONS_ARG.length()));
+            } else if (arg.startsWith(TIME_BUDGET_ARG)) {
+                timeBudgetNanos = parseDuration(arg.substring(TIME_BUDGET_ARG.length()));
+            } else if (arg.startsWith(POPULATION_ARG)) {
+                population = Long.parseLong(arg.substring(POPULATION_ARG.length()));
+            } else if (arg.startsWith(UNTIL_ARG)) {
+                until = Runner.Until.valueOf(arg.substring(UNTIL_ARG.length()).toUpperCase(Locale.ROOT));
+            } else if (arg.startsWith(MAX_PERIOD_ARG)) {
+                maxPeriod = Integer.parseInt(arg.substring(MAX_PERIOD_ARG.length()));
+            } else if (arg.equals(FAST_FORWARD_ARG)) {
+                fastForward = true;
+            } else if (arg.startsWith(FORMAT_ARG)) {
+                format = arg.substring(FORMAT_ARG.length()).toLowerCase(Locale.ROOT);
+                if (!format.equals(RLE) && !format.equals("life106")) {
+                    throw new IllegalArgumentException("Unknown format " + format + ", expected life106 or rle");
+                }
+            } else if (arg.startsWith(RESTORE_ARG)) {
+                restore = Path.of(arg.substring(RESTORE_ARG.length()));
+            } else if (arg.startsWith(SAVE_ARG)) {
+                save = Path.of(arg.substring(SAVE_ARG.length()));
+            } else if (arg.startsWith(CHECKPOINT_DIR_ARG)) {
+                checkpointDir = Path.of(arg.substring(CHECKPOINT_DIR_ARG.length()));
+            } else if (arg.startsWith(CHECKPOINT_EVERY_ARG)) {
+                checkpointEvery = Long.parseLong(arg.substring(CHECKPOINT_EVERY_ARG.length()));
+            } else if (arg.startsWith(CHECKPOINT_KEEP_ARG)) {
+                checkpointKeep = Integer.parseInt(arg.substring(CHECKPOINT_KEEP_ARG.length()));
+            } else if (arg.startsWith(DELTA_ARG)) {
+                delta = Path.of(arg.substring(DELTA_ARG.length()));
+            } else if (arg.startsWith(METRICS_ARG)) {
+                metricsPeriodNanos = parseDuration(arg.substring(METRICS_ARG.length()));
+            } else {
+                throw new IllegalArgumentException("Unknown argument " + arg);
+            }
+        }
+
+        final var world = createEngine(engineName, threads, doubleBuffered);
+        try {
+            if (restore != null && Files.isDirectory(restore)) {
+                // Pick up from the latest checkpoint in a checkpoint directory
+                final var latest = Checkpointer.latest(restore);
+                if (latest == null) {
+                    throw new IOException("No checkpoints in " + restore);
+                }
+                restore = latest;
+            }
+            if (restore != null) {
+                try (var channel = FileChannel.open(restore, StandardOpenOption.READ)) {
+                    SnapshotReader.read(channel, world);
+                }
+            } else if (input == null) {
+                if (format.equals(RLE)) {
+                    new RleParser().parse(System.in, world::createLife);
+                } else {
+                    new Life106Parser().parse(System.in, world::createLife);
+                }
+                world.initialize();
+            } else if (hasExtension(input, MACROCELL_EXTENSION)) {
+                // The pattern carries its own generation, so the Engine is not initialized
+                try (var stream = Files.newInputStream(input)) {
+                    MacrocellParser.parse(stream, hashLife(world));
+                }
+            } else if (hasExtension(input, RLE_EXTENSION)) {
+                try (var stream = Files.newInputStream(input)) {
+                    new RleParser().parse(stream, world::createLife);
+                }
+                world.initialize();
+            } else {
+                MappedLife106Loader.load(input, threads, world);
+                world.initialize();
+            }
+
+            if (generations == Runner.UNLIMITED && timeBudgetNanos == Runner.UNLIMITED
+                    && population == Runner.UNLIMITED && until == Runner.Until.NEVER) {
+                generations = DEFAULT_GENERATIONS;
+            }
+            final var runner = new Runner(generations, timeBudgetNanos, population, until, maxPeriod, fastForward);
+            final Runner.Result result;
+            final var reporter = metricsPeriodNanos == 0 ? null : startMetrics(world, metricsPeriodNanos);
+            try (var deltaChannel = delta == null ? null : FileChannel.open(delta, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                final var deltaWriter = deltaChannel == null ? null : startDelta(world, deltaChannel);
+                if (checkpointDir == null) {
+                    result = runner.run(world);
+                } else {
+                    try (var checkpointer = new Checkpointer(checkpointDir, checkpointEvery, checkpointKeep)) {
+                        result = runner.run(world, checkpointer);
+                    }
+                }
+                if (deltaWriter != null) {
+                    ((World) world).setChangeListener(null);
+                    deltaWriter.flush();
+                }
+            } finally {
+                if (reporter != null) {
+                    reporter.close();
+                }
+            }
+            System.err.println("Stopped by " + result.reason() + " after " + result.generations() + " generations"
+                    + (result.period() > 0 ? ", period " + result.period() : ""));
+
+            if (save != null) {
+                try (var channel = FileChannel.open(save, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING)) {
+                    SnapshotWriter.write(world, channel);
+                }
+            }
+
+            if (output == null && format.equals(RLE)) {
+                System.out.flush();
+                RleWriter.write(world, Channels.newChannel(System.out));
+                System.out.flush();
+            } else if (output == null) {
+                world.printWorld();
+            } else {
+                try (var channel = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING)) {
+                    if (hasExtension(output, MACROCELL_EXTENSION)) {
+                        MacrocellWriter.write(hashLife(world), channel);
+                    } else if (hasExtension(output, RLE_EXTENSION)) {
+                        RleWriter.write(world, channel);
+                    } else {
+                        Life106Writer.write(world, channel);
+                    }
+                }
+            }
+        } finally {
+            // Worker threads and off-heap tiles are released rather than left to the end of the process
+            if (world instanceof World threaded) {
+                threaded.close();
+            } else if (world instanceof OffHeapTileWorld offHeap) {
+                offHeap.close();
+            }
+        }
+    }
+
+    /**
+     * @return true if a file is named with the extension, files that are neither RLE nor Macrocell are read and
+     * written as Life 1.06
+     */
+    private static boolean hasExtension(final Path path, final String extension) {
+        return path.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(extension);
+    }
+
+    /**
+     * Only the world engine records tick metrics
+     */
+    private static MetricsReporter startMetrics(final Engine engine, final long periodNanos) {
+        if (!(engine instanceof World world)) {
+            throw new IllegalArgumentException("Tick metrics need --engine=world");
+        }
+        final var metrics = new TickMetrics();
+        world.setMetrics(metrics);
+        return new MetricsReporter(metrics, periodNanos, System.err);
+    }
+
+    /**
+     * Births and deaths come straight from the lists a World builds every tick, so only the world engine streams them
+     */
+    private static DeltaWriter startDelta(final Engine engine, final FileChannel channel) throws IOException {
+        if (!(engine instanceof World world)) {
+            throw new IllegalArgumentException("Delta streams need --engine=world");
         }
-        world.initialize();
+        final var writer = new DeltaWriter(channel);
+        writer.begin(world);
+        world.setChangeListener(writer);
+        return writer;
+    }
 
-        for (int i = 0; i < 10; i++) {
-            world.tick();
+    /**
+     * Macrocell is the quadtree itself, so it is only read and written by the hashlife engine
+     */
+    private static HashLifeWorld hashLife(final Engine engine) {
+        if (engine instanceof HashLifeWorld hashLifeWorld) {
+            return hashLifeWorld;
         }
+        throw new IllegalArgumentException("Macrocell files need --engine=hashlife");
+    }
 
-        world.printWorld();
+    /**
+     * @param name    the name of the Engine as given on the command line
+     * @param threads how many threads the Engine may tick with, ignored by single threaded engines
+     * @return a new, empty Engine
+     */
+    public static Engine createEngine(final String name, final int threads) {
+        return createEngine(name, threads, false);
+    }
+
+    /**
+     * @param name           the name of the Engine as given on the command line
+     * @param threads        how many threads the Engine may tick with, ignored by single threaded engines
+     * @param doubleBuffered whether World should build each generation into a new map, ignored by other engines
+     * @return a new, empty Engine
+     */
+    public static Engine createEngine(final String name, final int threads, final boolean doubleBuffered) {
+        return switch (name) {
+            case "world" -> new World(threads, doubleBuffered);
+            case "hashlife" -> new HashLifeWorld();
+            case "tile" -> new TileWorld();
+            case "vector" -> TileWorld.vectorized();
+            case "offheap" -> {
+                try {
+                    yield new OffHeapTileWorld(TileStepper.vectorOrScalar());
+                } catch (NoClassDefFoundError e) {
+                    throw new IllegalStateException("The offheap engine needs --add-modules jdk.incubator.foreign", e);
+                }
+            }
+            case "packed" -> new PackedWorld();
+            default -> throw new IllegalArgumentException(
+                    "Unknown engine " + name + ", expected world, hashlife, tile, vector, offheap or packed");
+        };
+    }
+
+    /**
+     * @param value a number followed by ms, s, m or h, seconds if there is no unit
+     * @return the duration in nanoseconds
+     */
+    static long parseDuration(final String value) {
+        final TimeUnit unit;
+        final String number;
+        if (value.endsWith("ms")) {
+            unit = TimeUnit.MILLISECONDS;
+            number = value.substring(0, value.length() - 2);
+        } else if (value.endsWith("s")) {
+            unit = TimeUnit.SECONDS;
+            number = value.substring(0, value.length() - 1);
+        } else if (value.endsWith("m")) {
+            unit = TimeUnit.MINUTES;
+            number = value.substring(0, value.length() - 1);
+        } else if (value.endsWith("h")) {
+            unit = TimeUnit.HOURS;
+            number = value.substring(0, value.length() - 1);
+        } else {
+            unit = TimeUnit.SECONDS;
+            number = value;
+        }
+        return unit.toNanos(Long.parseLong(number));
     }
 
     public static List<long[]> readInput() {
@@ -36,7 +326,8 @@ public class Main {
     }
 
     /**
-     * I used this to debug since it's a pain to pipe stdin into java jars.
+     * I used this to debug since it's a pain to pipe stdin into java jars. Builds a List of every cell, use
+     * {@link Life106Parser} to stream cells straight into an Engine.
      */
     public static List<long[]> readBuffer(final BufferedReader reader) {
         var lifeList = new ArrayList<long[]>();
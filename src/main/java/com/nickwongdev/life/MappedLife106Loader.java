@@ -0,0 +1,190 @@
+package com.nickwongdev.life;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Loads a Life 1.06 file by memory mapping it and parsing pieces of it in parallel.
+ * <p>
+ * The body of the file is cut into chunks that each start at the beginning of a line. Every chunk is mapped on its
+ * own, which keeps each mapping under the 2GB limit of a MappedByteBuffer, and parsed by its own
+ * {@link Life106Parser} on a worker thread.
+ * <p>
+ * Every worker hands its cells to the Engine in batches through {@link Engine#createLives(long[], long[], int)}.
+ * Engines that are thread safe, like {@link World}, take batches from every worker at once and share their own
+ * locking across each batch. Other engines receive batches while holding the Engine's lock, so they are only ever
+ * called by one thread at a time.
+ */
+public final class MappedLife106Loader {
+
+    // Keeps every mapping well under Integer.MAX_VALUE even after a boundary moves forward to the end of a line
+    private static final long MAX_CHUNK_SIZE = 1L << 30;
+
+    // More chunks than workers so one slow chunk does not hold up the whole load
+    private static final int CHUNKS_PER_WORKER = 4;
+
+    private static final int BATCH_SIZE = 1 << 13;
+
+    // How far to read at a time when looking for the end of a line
+    private static final int SCAN_SIZE = 4096;
+
+    private MappedLife106Loader() {
+    }
+
+    /**
+     * @param path    the Life 1.06 file to load
+     * @param threads how many threads to parse with
+     * @param engine  where to create the Life
+     * @return how many cells were read
+     * @throws IOException if the file cannot be read or is not Life 1.06
+     */
+    public static long load(final Path path, final int threads, final Engine engine) throws IOException {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final var size = channel.size();
+            final var bodyStart = headerEnd(channel);
+            final var boundaries = chunkBoundaries(channel, bodyStart, size, threads);
+
+            final var executor = Executors.newFixedThreadPool(threads);
+            try {
+                final List<Future<Long>> results = new ArrayList<>();
+                for (int i = 0; i + 1 < boundaries.size(); i++) {
+                    final long start = boundaries.get(i);
+                    final long end = boundaries.get(i + 1);
+                    results.add(executor.submit(parseChunk(channel, start, end, engine)));
+                }
+                var cells = 0L;
+                for (Future<Long> result : results) {
+                    cells += result.get();
+                }
+                return cells;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while loading " + path, e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException ioException) {
+                    throw ioException;
+                }
+                throw new IOException("Failed to load " + path, e.getCause());
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    private static Callable<Long> parseChunk(final FileChannel channel, final long start, final long end,
+                                             final Engine engine) {
+        return () -> {
+            final var mapped = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            final var parser = new Life106Parser();
+            try {
+                final var batch = new Batch(engine);
+                final var cells = parser.parseBody(mapped, batch);
+                batch.flush();
+                return cells;
+            } catch (IOException e) {
+                throw new IOException("In bytes " + start + " to " + end + ": " + e.getMessage(), e);
+            }
+        };
+    }
+
+    /**
+     * @return the offset just after the header line
+     */
+    private static long headerEnd(final FileChannel channel) throws IOException {
+        final var headerLength = (int) Math.min(channel.size(), SCAN_SIZE);
+        final var header = channel.map(FileChannel.MapMode.READ_ONLY, 0, headerLength);
+        Life106Parser.readHeader(header);
+        return header.position();
+    }
+
+    /**
+     * Cuts [bodyStart, size) into roughly even chunks, each moved forward to start at the beginning of a line
+     *
+     * @return the start of every chunk followed by the end of the last one
+     */
+    private static List<Long> chunkBoundaries(final FileChannel channel, final long bodyStart, final long size,
+                                              final int threads) throws IOException {
+        final var bodySize = size - bodyStart;
+        final var chunks = Math.max((long) threads * CHUNKS_PER_WORKER, (bodySize + MAX_CHUNK_SIZE - 1) / MAX_CHUNK_SIZE);
+        final var chunkSize = Math.max(1, Math.min(MAX_CHUNK_SIZE, (bodySize + chunks - 1) / chunks));
+
+        final List<Long> boundaries = new ArrayList<>();
+        boundaries.add(bodyStart);
+        var boundary = bodyStart;
+        while (true) {
+            boundary = nextLineStart(channel, boundary + chunkSize, size);
+            if (boundary >= size) {
+                break;
+            }
+            boundaries.add(boundary);
+        }
+        boundaries.add(size);
+        return boundaries;
+    }
+
+    /**
+     * @return the offset just after the first line ending at or after position, or size if there is none
+     */
+    private static long nextLineStart(final FileChannel channel, final long position, final long size)
+            throws IOException {
+        final var scan = ByteBuffer.allocate(SCAN_SIZE);
+        var offset = position;
+        while (offset < size) {
+            scan.clear();
+            final var read = channel.read(scan, offset);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (scan.get(i) == '\n') {
+                    return offset + i + 1;
+                }
+            }
+            offset += read;
+        }
+        return size;
+    }
+
+    /**
+     * Collects cells and hands them to the Engine a batch at a time, holding its lock if it is not thread safe
+     */
+    private static final class Batch implements CellConsumer {
+        private final Engine engine;
+        private final long[] xs = new long[BATCH_SIZE];
+        private final long[] ys = new long[BATCH_SIZE];
+        private int size;
+
+        private Batch(final Engine engine) {
+            this.engine = engine;
+        }
+
+        @Override
+        public void accept(final long x, final long y) {
+            xs[size] = x;
+            ys[size] = y;
+            if (++size == BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (engine.isThreadSafe()) {
+                engine.createLives(xs, ys, size);
+            } else {
+                synchronized (engine) {
+                    engine.createLives(xs, ys, size);
+                }
+            }
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.nickwongdev.life;
+
+import java.io.PrintStream;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prints what a {@link TickMetrics} recorded every period on a background thread, one line per period covering just
+ * that period, and a final line with the totals when closed.
+ * <p>
+ * Design decisions:
+ * The reporter only ever reads snapshots, so a slow stream holds up the reporter thread and never the tick loop.
+ */
+public final class MetricsReporter implements AutoCloseable {
+
+    private final TickMetrics metrics;
+    private final PrintStream out;
+
+    private final ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final var thread = new Thread(runnable, "metrics-reporter");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Only touched by the reporter thread
+    private TickMetrics.Snapshot last;
+
+    /**
+     * @param metrics     what to report
+     * @param periodNanos how often to report
+     * @param out         where to print
+     */
+    public MetricsReporter(final TickMetrics metrics, final long periodNanos, final PrintStream out) {
+        if (periodNanos < 1) {
+            throw new IllegalArgumentException("period must be positive, was " + periodNanos);
+        }
+        this.metrics = metrics;
+        this.out = out;
+        this.last = metrics.snapshot();
+        reporter.scheduleAtFixedRate(this::report, periodNanos, periodNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void report() {
+        final var now = metrics.snapshot();
+        final var period = now.minus(last);
+        last = now;
+        final var seconds = period.takenNanos() / 1e9;
+        out.println("metrics: " + period.format() + String.format(" ticks_per_s=%.1f", period.ticks() / seconds));
+    }
+
+    /**
+     * Stops reporting and prints the totals
+     */
+    @Override
+    public void close() {
+        reporter.shutdownNow();
+        try {
+            reporter.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        out.println("metrics total: " + metrics.snapshot().format());
+    }
+}
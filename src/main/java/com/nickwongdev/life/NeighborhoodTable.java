@@ -0,0 +1,83 @@
+package com.nickwongdev.life;
+
+/**
+ * Precomputed Life rules for small neighborhoods packed into bitmasks.
+ * <p>
+ * A 4x4 square is packed as bit (y * 4 + x) and looked up to get its 2x2 center one generation later, packed as bit
+ * ((y - 1) * 2 + (x - 1)). That is the whole B3/S23 rule for four cells in a single byte read, without counting
+ * anything.
+ * <p>
+ * A 5x5 square, packed as bit (y * 5 + x), is resolved by four overlapping 4x4 lookups whose centers together cover
+ * its 3x3 center. This is everything a Life needs to decide whether it survives and where it gives birth.
+ */
+final class NeighborhoodTable {
+
+    /**
+     * The bit of the center of a 5x5 mask
+     */
+    static final int CENTER_BIT = 2 * 5 + 2;
+
+    private static final byte[] CENTER_RESULTS = new byte[1 << 16];
+
+    // A 2x2 result spread out to its place in a 5x5 mask, relative to its top left cell
+    private static final int[] SPREAD = new int[16];
+
+    static {
+        for (int i = 0; i < CENTER_RESULTS.length; i++) {
+            int result = 0;
+            for (int y = 1; y <= 2; y++) {
+                for (int x = 1; x <= 2; x++) {
+                    var neighbors = 0;
+                    for (int dy = -1; dy <= 1; dy++) {
+                        for (int dx = -1; dx <= 1; dx++) {
+                            if ((dx != 0 || dy != 0) && ((i >>> ((y + dy) * 4 + x + dx)) & 1) != 0) {
+                                neighbors++;
+                            }
+                        }
+                    }
+                    var alive = ((i >>> (y * 4 + x)) & 1) != 0;
+                    if (neighbors == 3 || (alive && neighbors == 2)) {
+                        result |= 1 << ((y - 1) * 2 + (x - 1));
+                    }
+                }
+            }
+            CENTER_RESULTS[i] = (byte) result;
+        }
+        for (int i = 0; i < SPREAD.length; i++) {
+            SPREAD[i] = (i & 0b11) | ((i & 0b1100) << 3);
+        }
+    }
+
+    private NeighborhoodTable() {
+    }
+
+    /**
+     * @param bits a 4x4 square packed as bit (y * 4 + x)
+     * @return its 2x2 center one generation later, packed as bit ((y - 1) * 2 + (x - 1))
+     */
+    static int centerOf4x4(final int bits) {
+        return CENTER_RESULTS[bits];
+    }
+
+    /**
+     * @param bits a 5x5 square packed as bit (y * 5 + x)
+     * @return its 3x3 center one generation later, packed the same way, every other bit is clear
+     */
+    static int centerOf5x5(final int bits) {
+        return SPREAD[CENTER_RESULTS[window(bits, 0, 0)]] << 6
+                | SPREAD[CENTER_RESULTS[window(bits, 1, 0)]] << 7
+                | SPREAD[CENTER_RESULTS[window(bits, 0, 1)]] << 11
+                | SPREAD[CENTER_RESULTS[window(bits, 1, 1)]] << 12;
+    }
+
+    /**
+     * @return the 4x4 square of a 5x5 mask starting at the given column and row, packed as bit (y * 4 + x)
+     */
+    private static int window(final int bits, final int column, final int row) {
+        final var shifted = bits >>> (row * 5 + column);
+        return (shifted & 0xF)
+                | ((shifted >>> 5) & 0xF) << 4
+                | ((shifted >>> 10) & 0xF) << 8
+                | ((shifted >>> 15) & 0xF) << 12;
+    }
+}
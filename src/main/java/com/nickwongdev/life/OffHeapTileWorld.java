@@ -0,0 +1,457 @@
+package com.nickwongdev.life;
+
+import jdk.incubator.foreign.MemoryAccess;
+import jdk.incubator.foreign.MemorySegment;
+import jdk.incubator.foreign.ResourceScope;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import static com.nickwongdev.life.TileWorld.TILE_MASK;
+import static com.nickwongdev.life.TileWorld.TILE_SHIFT;
+import static com.nickwongdev.life.TileWorld.TILE_SIZE;
+
+/**
+ * An Engine that keeps the bit tiles of {@link TileWorld} outside the Java heap.
+ * <p>
+ * Tiles live in native memory slabs of 4096 tiles (2MB) allocated from a single {@link ResourceScope}. A tile is
+ * addressed by its slot number, and the only heap structures are the primitive {@link LongPairMap}s from tile
+ * position to slot and the free slot stack, so there are no objects per Life or per tile for the garbage collector
+ * to trace. Heap use is a few dozen bytes per occupied tile and independent of the population inside the tiles.
+ * <p>
+ * Memory is released all at once by {@link #close()}. Slots freed while ticking are reused, slabs are kept until
+ * the World is closed. Using the World after it is closed throws IllegalStateException.
+ * <p>
+ * A generation is computed like {@link TileWorld}: only tiles that changed and their neighbors are stepped, each
+ * tile is copied into heap scratch rows, stepped by a {@link TileStepper} and written to a fresh slot, and the new
+ * slots are swapped in once every tile has been computed.
+ * <p>
+ * Design decisions:
+ * Requires --add-modules jdk.incubator.foreign, the Foreign Memory API in this JDK. Its scope is shared so Life can
+ * be loaded from several threads, see {@link MappedLife106Loader}, although like TileWorld the Engine itself is not
+ * thread safe. Per-Life age is not tracked, Life returned from this Engine always has an age of 0.
+ */
+public class OffHeapTileWorld implements Engine, AutoCloseable {
+
+    private static final long TILE_BYTES = (long) TILE_SIZE * Long.BYTES;
+
+    private static final int SLAB_SHIFT = 12;
+    private static final int SLAB_TILES = 1 << SLAB_SHIFT;
+    private static final int SLAB_MASK = SLAB_TILES - 1;
+
+    // The slot of a tile that has no Life
+    private static final int NO_SLOT = -1;
+
+    private final ResourceScope scope = ResourceScope.newSharedScope();
+
+    private final List<MemorySegment> slabs = new ArrayList<>();
+
+    // Slots handed out so far, and the ones that were given back
+    private int slotCount = 0;
+    private int[] freeSlots = new int[64];
+    private int freeCount = 0;
+
+    // Occupied tiles mapped to their slot
+    private final LongPairMap tiles = new LongPairMap();
+
+    // Tiles that changed since the last generation was computed, and the next generation of them while ticking
+    private LongPairMap changed = new LongPairMap();
+    private LongPairMap updates = new LongPairMap();
+    private final LongPairMap visited = new LongPairMap();
+
+    private final TileStepper stepper;
+
+    private final long[] rows = new long[TILE_SIZE + 2];
+    private final long[] west = new long[TILE_SIZE + 2];
+    private final long[] east = new long[TILE_SIZE + 2];
+    private final long[] next = new long[TILE_SIZE];
+    private final long[] scratch = new long[TILE_SIZE];
+
+    private long age = 0;
+
+    // Sum of the StateHash of every live cell
+    private long stateHash = 0;
+
+    // How many cells are alive, kept with the state hash so counting does not read every tile
+    private long population = 0;
+
+    public OffHeapTileWorld() {
+        this(TileStepper.SCALAR);
+    }
+
+    OffHeapTileWorld(final TileStepper stepper) {
+        this.stepper = stepper;
+    }
+
+    @Override
+    public Life createLife(final long xPos, final long yPos) {
+        final var tileX = xPos >> TILE_SHIFT;
+        final var tileY = yPos >> TILE_SHIFT;
+        var slot = tiles.get(tileX, tileY, NO_SLOT);
+        if (slot == NO_SLOT) {
+            slot = allocateSlot();
+            tiles.put(tileX, tileY, slot);
+        }
+        final var row = (int) (yPos & TILE_MASK);
+        final var bit = 1L << (xPos & TILE_MASK);
+        final var bits = row(slot, row);
+        if ((bits & bit) != 0) {
+            return null;
+        }
+        setRow(slot, row, bits | bit);
+        stateHash += StateHash.of(xPos, yPos);
+        population++;
+        changed.putIfAbsent(tileX, tileY, 0);
+        return new Life(xPos, yPos);
+    }
+
+    @Override
+    public void destroyLife(final Life life) {
+        final var tileX = life.getX() >> TILE_SHIFT;
+        final var tileY = life.getY() >> TILE_SHIFT;
+        final var slot = tiles.get(tileX, tileY, NO_SLOT);
+        if (slot == NO_SLOT) {
+            return;
+        }
+        final var row = (int) (life.getY() & TILE_MASK);
+        final var bit = 1L << (life.getX() & TILE_MASK);
+        final var bits = row(slot, row);
+        if ((bits & bit) == 0) {
+            return;
+        }
+        setRow(slot, row, bits & ~bit);
+        stateHash -= StateHash.of(life.getX(), life.getY());
+        population--;
+        changed.putIfAbsent(tileX, tileY, 0);
+        // Give the slot back so empty tiles do not leak
+        if (isEmpty(slot)) {
+            tiles.remove(tileX, tileY);
+            freeSlot(slot);
+        }
+    }
+
+    @Override
+    public Life[] spatialQuery(final long startX, final long startY, final long endX, final long endY) {
+        assert (startX <= endX);
+        assert (endY <= startY);
+
+        final List<Life> foundLife = new ArrayList<>();
+        final var startTileX = startX >> TILE_SHIFT;
+        final var endTileX = endX >> TILE_SHIFT;
+        final var startTileY = endY >> TILE_SHIFT;
+        final var endTileY = startY >> TILE_SHIFT;
+
+        // Small areas look up the tiles they cover, large areas filter the tiles that exist
+        final var width = endTileX - startTileX + 1;
+        final var height = endTileY - startTileY + 1;
+        if (width > 0 && height > 0 && width <= tiles.size() && height <= tiles.size() / width) {
+            for (long tileX = startTileX; tileX <= endTileX; tileX++) {
+                for (long tileY = startTileY; tileY <= endTileY; tileY++) {
+                    final var slot = tiles.get(tileX, tileY, NO_SLOT);
+                    if (slot != NO_SLOT) {
+                        read(slot, scratch);
+                        TileWorld.collect(tileX, tileY, scratch, startX, startY, endX, endY, foundLife);
+                    }
+                }
+            }
+        } else {
+            for (int entry = 0; entry < tiles.capacity(); entry++) {
+                if (!tiles.isOccupied(entry)) {
+                    continue;
+                }
+                final var tileX = tiles.x(entry);
+                final var tileY = tiles.y(entry);
+                if (tileX >= startTileX && tileX <= endTileX && tileY >= startTileY && tileY <= endTileY) {
+                    read(tiles.value(entry), scratch);
+                    TileWorld.collect(tileX, tileY, scratch, startX, startY, endX, endY, foundLife);
+                }
+            }
+        }
+        foundLife.sort(Comparator.comparingLong(Life::getX).thenComparingLong(Life::getY));
+        return foundLife.toArray(new Life[0]);
+    }
+
+    @Override
+    public void initialize() {
+        age = 1;
+    }
+
+    @Override
+    public void restore(final long generation) {
+        age = generation;
+    }
+
+    /**
+     * Only tiles that changed last generation, and the tiles next to them, are stepped. Each new tile is written to
+     * a fresh slot and swapped in after every tile is computed, so no tile reads a neighbor that has moved on.
+     */
+    @Override
+    public void tick() {
+        updates.clear();
+        visited.clear();
+        for (int entry = 0; entry < changed.capacity(); entry++) {
+            if (!changed.isOccupied(entry)) {
+                continue;
+            }
+            final var changedX = changed.x(entry);
+            final var changedY = changed.y(entry);
+            for (long tileX = changedX - 1; tileX <= changedX + 1; tileX++) {
+                for (long tileY = changedY - 1; tileY <= changedY + 1; tileY++) {
+                    if (!TileWorld.inBounds(tileX, tileY) || !visited.putIfAbsent(tileX, tileY, 0)) {
+                        continue;
+                    }
+                    gatherNeighborhood(tileX, tileY);
+                    stepper.step(rows, west, east, next);
+                    final var current = tiles.get(tileX, tileY, NO_SLOT);
+                    if (current == NO_SLOT ? TileWorld.isEmpty(next) : matches(current, next)) {
+                        continue;
+                    }
+                    if (TileWorld.isEmpty(next)) {
+                        updates.put(tileX, tileY, NO_SLOT);
+                    } else {
+                        final var slot = allocateSlot();
+                        write(slot, next);
+                        updates.put(tileX, tileY, slot);
+                    }
+                }
+            }
+        }
+
+        for (int entry = 0; entry < updates.capacity(); entry++) {
+            if (!updates.isOccupied(entry)) {
+                continue;
+            }
+            final var tileX = updates.x(entry);
+            final var tileY = updates.y(entry);
+            final var slot = updates.value(entry);
+            final var current = tiles.get(tileX, tileY, NO_SLOT);
+            updateCounts(tileX, tileY, current, slot);
+            if (current != NO_SLOT) {
+                freeSlot(current);
+            }
+            if (slot == NO_SLOT) {
+                tiles.remove(tileX, tileY);
+            } else {
+                tiles.put(tileX, tileY, slot);
+            }
+        }
+
+        final var swap = changed;
+        changed = updates;
+        updates = swap;
+        age++;
+    }
+
+    @Override
+    public long getAge() {
+        return age;
+    }
+
+    /**
+     * There are no ages to update, and the changed tiles are the same ones that changed the last time the World was
+     * in this state
+     */
+    @Override
+    public void fastForward(final long generations, final long period) {
+        age += generations;
+    }
+
+    @Override
+    public long stateHash() {
+        return stateHash;
+    }
+
+    @Override
+    public long getPopulation() {
+        return population;
+    }
+
+    /**
+     * Walks tiles a column of tiles at a time, and inside each column of tiles one x at a time, which gives x then y
+     * order without sorting the Life. The tiles of a column are copied to the heap once, so each row is only read
+     * from native memory once rather than once per x.
+     */
+    @Override
+    public void forEachLife(final CellConsumer consumer) {
+        final var xs = new long[tiles.size()];
+        final var ys = new long[tiles.size()];
+        final var count = tiles.copySortedKeys(xs, ys);
+        final var slots = new int[count];
+        for (int i = 0; i < count; i++) {
+            slots[i] = tiles.get(xs[i], ys[i], NO_SLOT);
+        }
+        var columnRows = new long[TILE_SIZE];
+        var start = 0;
+        while (start < count) {
+            var end = start;
+            while (end < count && xs[end] == xs[start]) {
+                end++;
+            }
+            if (columnRows.length < (end - start) * TILE_SIZE) {
+                columnRows = new long[Math.max((end - start) * TILE_SIZE, columnRows.length * 2)];
+            }
+            for (int i = start; i < end; i++) {
+                for (int row = 0; row < TILE_SIZE; row++) {
+                    columnRows[(i - start) * TILE_SIZE + row] = row(slots[i], row);
+                }
+            }
+            final var originX = xs[start] << TILE_SHIFT;
+            for (int column = 0; column < TILE_SIZE; column++) {
+                final var bit = 1L << column;
+                for (int i = start; i < end; i++) {
+                    final var originY = ys[i] << TILE_SHIFT;
+                    final var offset = (i - start) * TILE_SIZE;
+                    for (int row = 0; row < TILE_SIZE; row++) {
+                        if ((columnRows[offset + row] & bit) != 0) {
+                            consumer.accept(originX + column, originY + row);
+                        }
+                    }
+                }
+            }
+            start = end;
+        }
+    }
+
+    /**
+     * Frees all native memory held by the World
+     */
+    @Override
+    public void close() {
+        scope.close();
+    }
+
+    /**
+     * @return how many tiles have Life in them
+     */
+    int getTileCount() {
+        return tiles.size();
+    }
+
+    /**
+     * @return how many bytes of native memory the World holds
+     */
+    long getNativeBytes() {
+        return slabs.size() * SLAB_TILES * TILE_BYTES;
+    }
+
+    /**
+     * Fills the padded scratch rows the same way {@link TileWorld} does, see
+     * {@link TileWorld#step(long[], long[], long[], long[])}
+     */
+    private void gatherNeighborhood(final long tileX, final long tileY) {
+        final var center = slot(tileX, tileY);
+        final var north = slot(tileX, tileY - 1);
+        final var south = slot(tileX, tileY + 1);
+        final var westTile = slot(tileX - 1, tileY);
+        final var eastTile = slot(tileX + 1, tileY);
+
+        rows[0] = row(north, TILE_MASK);
+        rows[TILE_SIZE + 1] = row(south, 0);
+        west[0] = row(slot(tileX - 1, tileY - 1), TILE_MASK) >>> TILE_MASK;
+        west[TILE_SIZE + 1] = row(slot(tileX - 1, tileY + 1), 0) >>> TILE_MASK;
+        east[0] = row(slot(tileX + 1, tileY - 1), TILE_MASK) << TILE_MASK;
+        east[TILE_SIZE + 1] = row(slot(tileX + 1, tileY + 1), 0) << TILE_MASK;
+        for (int row = 0; row < TILE_SIZE; row++) {
+            rows[row + 1] = row(center, row);
+            west[row + 1] = row(westTile, row) >>> TILE_MASK;
+            east[row + 1] = row(eastTile, row) << TILE_MASK;
+        }
+    }
+
+    /**
+     * Adds the births and subtracts the deaths between two versions of a tile, to the state hash and the population
+     */
+    private void updateCounts(final long tileX, final long tileY, final int current, final int next) {
+        final var originX = tileX << TILE_SHIFT;
+        final var originY = tileY << TILE_SHIFT;
+        for (int row = 0; row < TILE_SIZE; row++) {
+            final var before = row(current, row);
+            final var after = row(next, row);
+            if (before != after) {
+                stateHash += StateHash.ofRow(originX, originY + row, after & ~before);
+                stateHash -= StateHash.ofRow(originX, originY + row, before & ~after);
+                population += Long.bitCount(after) - Long.bitCount(before);
+            }
+        }
+    }
+
+    private int slot(final long tileX, final long tileY) {
+        if (!TileWorld.inBounds(tileX, tileY)) {
+            return NO_SLOT;
+        }
+        return tiles.get(tileX, tileY, NO_SLOT);
+    }
+
+    /**
+     * @return a row of the tile in the given slot, or 0 for NO_SLOT
+     */
+    private long row(final int slot, final int row) {
+        if (slot == NO_SLOT) {
+            return 0;
+        }
+        return MemoryAccess.getLongAtIndex(slabs.get(slot >>> SLAB_SHIFT),
+                ((long) (slot & SLAB_MASK) << TILE_SHIFT) + row);
+    }
+
+    private void setRow(final int slot, final int row, final long bits) {
+        MemoryAccess.setLongAtIndex(slabs.get(slot >>> SLAB_SHIFT),
+                ((long) (slot & SLAB_MASK) << TILE_SHIFT) + row, bits);
+    }
+
+    private void read(final int slot, final long[] tile) {
+        for (int row = 0; row < TILE_SIZE; row++) {
+            tile[row] = row(slot, row);
+        }
+    }
+
+    private void write(final int slot, final long[] tile) {
+        for (int row = 0; row < TILE_SIZE; row++) {
+            setRow(slot, row, tile[row]);
+        }
+    }
+
+    private boolean matches(final int slot, final long[] tile) {
+        for (int row = 0; row < TILE_SIZE; row++) {
+            if (row(slot, row) != tile[row]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isEmpty(final int slot) {
+        for (int row = 0; row < TILE_SIZE; row++) {
+            if (row(slot, row) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return a slot holding an empty tile
+     */
+    private int allocateSlot() {
+        final int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            if (slotCount == slabs.size() * SLAB_TILES) {
+                slabs.add(MemorySegment.allocateNative(SLAB_TILES * TILE_BYTES, Long.BYTES, scope));
+            }
+            slot = slotCount++;
+        }
+        Arrays.fill(scratch, 0);
+        write(slot, scratch);
+        return slot;
+    }
+
+    private void freeSlot(final int slot) {
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+    }
+}
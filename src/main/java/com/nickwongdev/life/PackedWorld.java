@@ -0,0 +1,222 @@
+package com.nickwongdev.life;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * An Engine that stores the World in a primitive open-addressing hash keyed by (x, y) instead of nested skip lists.
+ * <p>
+ * Each live cell is two longs and an int age in a {@link LongPairMap}, so there are no Life objects, boxed Long keys
+ * or skip list nodes per cell, and nothing is allocated per cell while ticking. Ordered iteration is not free in a
+ * hash, so output sorts the cells explicitly when it is needed.
+ * <p>
+ * A generation is computed by having every live cell add one to the neighbor count of the eight cells around it,
+ * then keeping the cells with exactly three neighbors, or two neighbors if they were already alive. Neighbors past
+ * MIN_LONG / MAX_LONG are never counted, which gives the same dead border as {@link World}.
+ * <p>
+ * Design decisions:
+ * Ages are kept like {@link World} keeps them, they count the generations a cell has been alive and saturate at
+ * MAX_INT. The count and both generations are held in maps that are reused every tick, so once the World reaches
+ * its working size a tick allocates nothing.
+ */
+public class PackedWorld implements Engine {
+
+    // Live cells mapped to their age
+    private LongPairMap cells = new LongPairMap();
+
+    // The generation being built, swapped with cells at the end of every tick
+    private LongPairMap nextCells = new LongPairMap();
+
+    // Neighbor count of every cell next to a live cell
+    private final LongPairMap neighborCounts = new LongPairMap();
+
+    private long age = 0;
+
+    // Sum of the StateHash of every live cell
+    private long stateHash = 0;
+
+    @Override
+    public Life createLife(final long xPos, final long yPos) {
+        if (!cells.putIfAbsent(xPos, yPos, 0)) {
+            return null;
+        }
+        stateHash += StateHash.of(xPos, yPos);
+        return new Life(xPos, yPos);
+    }
+
+    /**
+     * Ages past MAX_INT saturate like they do while ticking
+     */
+    @Override
+    public Life restoreLife(final long xPos, final long yPos, final long age) {
+        final var cellAge = (int) Math.min(Integer.MAX_VALUE, age);
+        if (!cells.putIfAbsent(xPos, yPos, cellAge)) {
+            return null;
+        }
+        stateHash += StateHash.of(xPos, yPos);
+        return new Life(xPos, yPos, cellAge);
+    }
+
+    @Override
+    public void destroyLife(final Life life) {
+        if (cells.remove(life.getX(), life.getY())) {
+            stateHash -= StateHash.of(life.getX(), life.getY());
+        }
+    }
+
+    @Override
+    public Life[] spatialQuery(final long startX, final long startY, final long endX, final long endY) {
+        assert (startX <= endX);
+        assert (endY <= startY);
+
+        final List<Life> foundLife = new ArrayList<>();
+        final var width = endX - startX + 1;
+        final var height = startY - endY + 1;
+        if (width > 0 && height > 0 && width <= cells.size() && height <= cells.size() / width) {
+            // Small areas look up each cell, already in order; offsets keep x and y from wrapping at Long.MAX_VALUE
+            for (long i = 0; i < width; i++) {
+                final var x = startX + i;
+                for (long j = 0; j < height; j++) {
+                    final var y = endY + j;
+                    final var cellAge = cells.get(x, y, -1);
+                    if (cellAge >= 0) {
+                        foundLife.add(new Life(x, y, cellAge));
+                    }
+                }
+            }
+            return foundLife.toArray(new Life[0]);
+        }
+        for (int slot = 0; slot < cells.capacity(); slot++) {
+            if (cells.isOccupied(slot)) {
+                final var x = cells.x(slot);
+                final var y = cells.y(slot);
+                if (x >= startX && x <= endX && y >= endY && y <= startY) {
+                    foundLife.add(new Life(x, y, cells.value(slot)));
+                }
+            }
+        }
+        foundLife.sort(Comparator.comparingLong(Life::getX).thenComparingLong(Life::getY));
+        return foundLife.toArray(new Life[0]);
+    }
+
+    @Override
+    public void initialize() {
+        age = 1;
+        for (int slot = 0; slot < cells.capacity(); slot++) {
+            if (cells.isOccupied(slot)) {
+                cells.put(cells.x(slot), cells.y(slot), 1);
+            }
+        }
+    }
+
+    @Override
+    public void restore(final long generation) {
+        age = generation;
+    }
+
+    @Override
+    public void tick() {
+        neighborCounts.clear();
+        for (int slot = 0; slot < cells.capacity(); slot++) {
+            if (!cells.isOccupied(slot)) {
+                continue;
+            }
+            final var x = cells.x(slot);
+            final var y = cells.y(slot);
+            for (int dx = -1; dx <= 1; dx++) {
+                // Overflow Detection, there is nothing past the edge to count
+                if ((dx < 0 && x == Long.MIN_VALUE) || (dx > 0 && x == Long.MAX_VALUE)) {
+                    continue;
+                }
+                for (int dy = -1; dy <= 1; dy++) {
+                    if ((dx == 0 && dy == 0) || (dy < 0 && y == Long.MIN_VALUE) || (dy > 0 && y == Long.MAX_VALUE)) {
+                        continue;
+                    }
+                    neighborCounts.increment(x + dx, y + dy);
+                }
+            }
+        }
+
+        nextCells.clear();
+        final var oldHash = stateHash;
+        var survivorHash = 0L;
+        for (int slot = 0; slot < neighborCounts.capacity(); slot++) {
+            if (!neighborCounts.isOccupied(slot)) {
+                continue;
+            }
+            final var count = neighborCounts.value(slot);
+            if (count != 2 && count != 3) {
+                continue;
+            }
+            final var x = neighborCounts.x(slot);
+            final var y = neighborCounts.y(slot);
+            final var cellAge = cells.get(x, y, -1);
+            if (cellAge >= 0) {
+                nextCells.put(x, y, cellAge == Integer.MAX_VALUE ? cellAge : cellAge + 1);
+                survivorHash += StateHash.of(x, y);
+            } else if (count == 3) {
+                // Newborns are initialized immediately, like World does at the end of its tick
+                nextCells.put(x, y, 1);
+                stateHash += StateHash.of(x, y);
+            }
+        }
+
+        // Every survivor was just hashed, so the dead are whatever is left of the old hash
+        stateHash -= oldHash - survivorHash;
+
+        final var swap = cells;
+        cells = nextCells;
+        nextCells = swap;
+        age++;
+    }
+
+    @Override
+    public long getAge() {
+        return age;
+    }
+
+    /**
+     * Cells alive for the whole period stay alive forever and get older, cells born during the period keep their age
+     */
+    @Override
+    public void fastForward(final long generations, final long period) {
+        for (int slot = 0; slot < cells.capacity(); slot++) {
+            if (cells.isOccupied(slot) && cells.value(slot) > period) {
+                final var cellAge = Math.min(Integer.MAX_VALUE, cells.value(slot) + generations);
+                cells.put(cells.x(slot), cells.y(slot), (int) cellAge);
+            }
+        }
+        age += generations;
+    }
+
+    @Override
+    public long getPopulation() {
+        return cells.size();
+    }
+
+    @Override
+    public long stateHash() {
+        return stateHash;
+    }
+
+    @Override
+    public void forEachLife(final CellConsumer consumer) {
+        final var xs = new long[cells.size()];
+        final var ys = new long[cells.size()];
+        final var count = cells.copySortedKeys(xs, ys);
+        for (int i = 0; i < count; i++) {
+            consumer.accept(xs[i], ys[i]);
+        }
+    }
+
+    @Override
+    public void forEachLifeWithAge(final AgedCellConsumer consumer) {
+        final var xs = new long[cells.size()];
+        final var ys = new long[cells.size()];
+        final var count = cells.copySortedKeys(xs, ys);
+        for (int i = 0; i < count; i++) {
+            consumer.accept(xs[i], ys[i], cells.get(xs[i], ys[i], 0));
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.nickwongdev.life;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+
+/**
+ * Streaming parser for the RLE pattern format that scans bytes directly.
+ * <p>
+ * An RLE file is any number of '#' lines, a header line like "x = 3, y = 3, rule = B3/S23", and a body of runs. A
+ * run is an optional count followed by 'b' for dead cells, 'o' for live cells or '$' for the end of a row, and the
+ * body ends with '!'. Whitespace and line breaks between runs are ignored, as is anything after the '!'.
+ * <p>
+ * Like {@link Life106Parser} the input is read in large chunks into a reused buffer and runs are decoded digit by
+ * digit, so nothing is created per cell and every live cell goes straight to a {@link CellConsumer}. A run of a
+ * million live cells is a million calls with no array in between.
+ * <p>
+ * The first row of the pattern is at y = 0 and rows go towards larger y, the same way a Life 1.06 file converted from
+ * RLE is laid out. A "#P x y" or "#R x y" line, or "Pos=x,y" in a "#CXRLE" line, moves the top left corner of the
+ * pattern to (x, y).
+ * <p>
+ * Design decisions:
+ * Only Conway's Life (B3/S23) is accepted, other rules are reported as an IOException rather than run as Life. The
+ * x and y in the header are not checked against the body, since they do not affect where cells go and files in the
+ * wild get them wrong. Counts and positions are unsigned 64-bit values, so a pattern can span the whole space.
+ * <p>
+ * Not thread safe, create a parser per input.
+ */
+public final class RleParser {
+
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+    private static final String POSITION_KEY = "pos=";
+
+    private final byte[] buffer;
+
+    // Parser state, carried across buffer refills
+    private long lineNumber;
+    private boolean inBody;
+    private boolean done;
+    private final StringBuilder line = new StringBuilder();
+    private long originX;
+    private long originY;
+    private long column;
+    private long row;
+    private long count;
+    private boolean hasCount;
+
+    public RleParser() {
+        this(DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param bufferSize how many bytes to read at a time
+     */
+    RleParser(final int bufferSize) {
+        this.buffer = new byte[bufferSize];
+    }
+
+    /**
+     * Parses a whole RLE stream
+     *
+     * @param input    the stream to read, not closed
+     * @param consumer receives every live cell, row by row
+     * @return how many cells were read
+     * @throws IOException if the stream cannot be read or is not RLE for Conway's Life
+     */
+    public long parse(final InputStream input, final CellConsumer consumer) throws IOException {
+        lineNumber = 1;
+        inBody = false;
+        done = false;
+        line.setLength(0);
+        originX = 0;
+        originY = 0;
+        column = 0;
+        row = 0;
+        count = 0;
+        hasCount = false;
+
+        var cells = 0L;
+        int limit;
+        while (!done && (limit = input.read(buffer, 0, buffer.length)) > 0) {
+            cells += feed(limit, consumer);
+        }
+        if (!inBody) {
+            if (line.length() > 0) {
+                headerLine();
+            }
+            if (!inBody) {
+                throw error("missing header");
+            }
+        }
+        if (!done) {
+            throw error("missing '!' at the end of the pattern");
+        }
+        return cells;
+    }
+
+    private long feed(final int length, final CellConsumer consumer) throws IOException {
+        var cells = 0L;
+        for (int i = 0; i < length && !done; i++) {
+            final var c = buffer[i];
+            if (c == '\n') {
+                if (!inBody) {
+                    headerLine();
+                } else if (hasCount) {
+                    // A count may not be split from its tag, but a line break between runs is fine
+                    throw error("count without a tag at the end of a line");
+                }
+                lineNumber++;
+            } else if (!inBody) {
+                line.append((char) (c & 0xFF));
+            } else if (c >= '0' && c <= '9') {
+                digit(c - '0');
+            } else if (c == 'b' || c == '.') {
+                column += takeCount();
+            } else if (c == '$') {
+                row += takeCount();
+                column = 0;
+            } else if (c == '!') {
+                done = true;
+            } else if (c == ' ' || c == '\t' || c == '\r') {
+                if (hasCount) {
+                    throw error("count without a tag");
+                }
+            } else if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')) {
+                // 'o' is alive, other letters are the live states of other rules and are read as alive too
+                final var run = takeCount();
+                final var y = originY + row;
+                for (long j = 0; Long.compareUnsigned(j, run) < 0; j++) {
+                    consumer.accept(originX + column + j, y);
+                }
+                column += run;
+                cells += run;
+            } else {
+                throw error("unexpected character '" + (char) c + "'");
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Handles a '#' line or the header line before the body starts
+     */
+    private void headerLine() throws IOException {
+        final var text = line.toString().trim();
+        line.setLength(0);
+        if (text.isEmpty()) {
+            return;
+        }
+        if (text.startsWith("#")) {
+            comment(text);
+            return;
+        }
+        if (!text.startsWith("x")) {
+            throw error("expected a header like \"x = 3, y = 3, rule = B3/S23\"");
+        }
+        for (String field : text.split(",")) {
+            final var equals = field.indexOf('=');
+            if (equals < 0) {
+                throw error("header field without '=': " + field.trim());
+            }
+            final var key = field.substring(0, equals).trim().toLowerCase(Locale.ROOT);
+            final var value = field.substring(equals + 1).trim().toUpperCase(Locale.ROOT);
+            if (key.equals("rule") && !value.equals("B3/S23") && !value.equals("23/3")) {
+                throw error("only Conway's Life (B3/S23) is supported, not " + value);
+            }
+        }
+        inBody = true;
+    }
+
+    private void comment(final String text) throws IOException {
+        if (text.startsWith("#P") || text.startsWith("#R")) {
+            final var numbers = text.substring(2).trim().split("\\s+");
+            if (numbers.length != 2) {
+                throw error("expected two numbers after " + text.substring(0, 2));
+            }
+            originX = parseLong(numbers[0]);
+            originY = parseLong(numbers[1]);
+        } else if (text.startsWith("#CXRLE")) {
+            final var lower = text.toLowerCase(Locale.ROOT);
+            final var start = lower.indexOf(POSITION_KEY);
+            if (start >= 0) {
+                var end = lower.indexOf(' ', start);
+                end = end < 0 ? lower.length() : end;
+                final var numbers = lower.substring(start + POSITION_KEY.length(), end).split(",");
+                if (numbers.length != 2) {
+                    throw error("expected Pos=x,y");
+                }
+                originX = parseLong(numbers[0].trim());
+                originY = parseLong(numbers[1].trim());
+            }
+        }
+    }
+
+    private long parseLong(final String number) throws IOException {
+        try {
+            return Long.parseLong(number);
+        } catch (NumberFormatException e) {
+            throw error("not a number: " + number);
+        }
+    }
+
+    /**
+     * Counts are unsigned, so a run can cover the whole space
+     */
+    private void digit(final int digit) throws IOException {
+        if (Long.compareUnsigned(count, Long.divideUnsigned(-1L, 10)) > 0) {
+            throw error("count out of range");
+        }
+        final var next = count * 10 + digit;
+        if (Long.compareUnsigned(next, count * 10) < 0) {
+            throw error("count out of range");
+        }
+        count = next;
+        hasCount = true;
+    }
+
+    /**
+     * @return the count before a tag, 1 if there was none
+     */
+    private long takeCount() throws IOException {
+        final var run = hasCount ? count : 1;
+        if (hasCount && run == 0) {
+            throw error("a count of 0");
+        }
+        count = 0;
+        hasCount = false;
+        return run;
+    }
+
+    private IOException error(final String message) {
+        return new IOException("Invalid RLE input on line " + lineNumber + ": " + message);
+    }
+}
@@ -0,0 +1,169 @@
+package com.nickwongdev.life;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes the RLE pattern format that {@link RleParser} reads.
+ * <p>
+ * RLE goes row by row, so every Life is first copied into two primitive arrays and sorted by y and then by x. Runs
+ * are then formatted straight into one large byte buffer that only goes to the channel when it is full, like
+ * {@link Life106Writer}. Lines are kept to 70 characters as the format asks, without splitting a run.
+ * <p>
+ * The pattern starts at the top left corner of the bounding box, which is written as a "#R x y" line so reading the
+ * file back puts every Life where it was. Dead cells at the end of a row are left out.
+ * <p>
+ * Not thread safe.
+ */
+public final class RleWriter {
+
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+
+    private static final int MAX_LINE_LENGTH = 70;
+
+    // Longest run is an unsigned count of 20 digits and its tag, plus a line break before it
+    private static final int MAX_RUN_LENGTH = 20 + 1 + 1;
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer;
+
+    // Digits are formatted backwards into here before being copied into the buffer
+    private final byte[] digits = new byte[20];
+
+    private int lineLength = 0;
+
+    /**
+     * @param channel    where to write, not closed by the writer
+     * @param bufferSize how many bytes to collect before writing to the channel
+     */
+    RleWriter(final WritableByteChannel channel, final int bufferSize) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(Math.max(bufferSize, MAX_LINE_LENGTH * 2));
+    }
+
+    /**
+     * Writes every Life in a generation as RLE, then flushes
+     *
+     * @param view    the generation to write
+     * @param channel where to write, not closed
+     * @throws IOException if the channel cannot be written
+     */
+    public static void write(final WorldView view, final WritableByteChannel channel) throws IOException {
+        new RleWriter(channel, DEFAULT_BUFFER_SIZE).writePattern(view);
+    }
+
+    void writePattern(final WorldView view) throws IOException {
+        final var population = view.getPopulation();
+        if (population > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Too many Life to write as RLE: " + population);
+        }
+        final var xs = new long[(int) population];
+        final var ys = new long[(int) population];
+        final var count = new int[1];
+        view.forEachLife((x, y) -> {
+            xs[count[0]] = x;
+            ys[count[0]] = y;
+            count[0]++;
+        });
+        final var cells = count[0];
+        LongPairMap.sort(ys, xs, cells);
+
+        var minX = Long.MAX_VALUE;
+        var maxX = Long.MIN_VALUE;
+        for (int i = 0; i < cells; i++) {
+            minX = Math.min(minX, xs[i]);
+            maxX = Math.max(maxX, xs[i]);
+        }
+        final var minY = cells == 0 ? 0 : ys[0];
+        final var maxY = cells == 0 ? -1 : ys[cells - 1];
+        if (cells == 0) {
+            minX = 0;
+            maxX = -1;
+        }
+
+        putText("#R " + minX + " " + minY + "\n");
+        putText("x = " + size(minX, maxX) + ", y = " + size(minY, maxY) + ", rule = B3/S23\n");
+
+        var row = minY;
+        var column = minX;
+        var i = 0;
+        while (i < cells) {
+            final var y = ys[i];
+            if (y != row) {
+                putRun(y - row, '$');
+                row = y;
+                column = minX;
+            }
+            if (xs[i] != column) {
+                putRun(xs[i] - column, 'b');
+            }
+            // Neighbors in a row make one run
+            var end = i + 1;
+            while (end < cells && ys[end] == y && xs[end] == xs[end - 1] + 1) {
+                end++;
+            }
+            putRun(end - i, 'o');
+            column = xs[end - 1] + 1;
+            i = end;
+        }
+        ensureRoom(2);
+        buffer.put((byte) '!');
+        buffer.put((byte) '\n');
+        drain();
+    }
+
+    /**
+     * @return how many cells there are from low to high, which can be up to 2^64
+     */
+    private static String size(final long low, final long high) {
+        return BigInteger.valueOf(high).subtract(BigInteger.valueOf(low)).add(BigInteger.ONE).toString();
+    }
+
+    private void putText(final String text) throws IOException {
+        final var bytes = text.getBytes(StandardCharsets.US_ASCII);
+        ensureRoom(bytes.length);
+        buffer.put(bytes);
+    }
+
+    /**
+     * Writes a count and tag, starting a new line first if the run does not fit on this one
+     *
+     * @param run an unsigned count, left out when it is 1
+     */
+    private void putRun(final long run, final char tag) throws IOException {
+        ensureRoom(MAX_RUN_LENGTH);
+        var position = digits.length;
+        if (run != 1) {
+            var remaining = run;
+            do {
+                digits[--position] = (byte) ('0' + Long.remainderUnsigned(remaining, 10));
+                remaining = Long.divideUnsigned(remaining, 10);
+            } while (remaining != 0);
+        }
+        final var length = digits.length - position + 1;
+        if (lineLength + length > MAX_LINE_LENGTH) {
+            buffer.put((byte) '\n');
+            lineLength = 0;
+        }
+        buffer.put(digits, position, digits.length - position);
+        buffer.put((byte) tag);
+        lineLength += length;
+    }
+
+    private void ensureRoom(final int length) throws IOException {
+        if (buffer.remaining() < length) {
+            drain();
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,275 @@
+package com.nickwongdev.life;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Advances an Engine until one of its stop conditions is met.
+ * <p>
+ * The conditions are a number of generations, a wall clock budget, a target population and running until the
+ * World is stable or periodic. When only generations and time are limited the Engine is advanced in large batches
+ * through {@link Engine#advance(long)}, so there is no per generation overhead and engines that can skip ahead do.
+ * The batch size is picked from how long the previous batch took so the clock is checked about every
+ * {@link #CHECK_INTERVAL_NANOS}.
+ * <p>
+ * Population and state are only looked at when a condition needs them, and then every generation. Population is
+ * read through {@link Engine#getPopulation()} and state is compared through {@link Engine#stateHash()}, which
+ * engines keep up to date as Life is born and dies where they can.
+ * <p>
+ * When fast forward is on, a World found to repeat with period P is moved ahead by the largest multiple of P that
+ * fits in the generations left through {@link Engine#fastForward(long, long)}, and only the remainder is simulated.
+ * <p>
+ * When given a {@link Checkpointer} batches are cut short at every checkpoint so each one is taken at exactly its
+ * generation.
+ * <p>
+ * Design decisions:
+ * States are compared by a 64-bit hash rather than by keeping copies of earlier generations, so memory does not
+ * grow with the World. A collision would report a period that is not real, which is accepted at 64 bits. Patterns
+ * that repeat in a different place, like gliders, are not periodic by this definition.
+ */
+public final class Runner {
+
+    /**
+     * Unlimited generations or population
+     */
+    public static final long UNLIMITED = -1;
+
+    // How often the clock is checked when advancing in batches
+    private static final long CHECK_INTERVAL_NANOS = 10_000_000L;
+
+    public enum Until {
+        /**
+         * Only stop on the other conditions
+         */
+        NEVER,
+        /**
+         * Stop once a generation is the same as the one before it
+         */
+        STABLE,
+        /**
+         * Stop once a generation is the same as one at most maxPeriod generations before it
+         */
+        PERIODIC
+    }
+
+    public enum StopReason {
+        GENERATIONS, TIME_BUDGET, POPULATION, STABLE, PERIODIC
+    }
+
+    /**
+     * @param reason      which condition stopped the run
+     * @param generations how many generations were advanced
+     * @param population  the population when the run stopped, or UNLIMITED if it was never counted
+     * @param period      the period the World was found to repeat with, or 0 if none was found
+     */
+    public record Result(StopReason reason, long generations, long population, long period) {
+    }
+
+    private final long generations;
+    private final long timeBudgetNanos;
+    private final long targetPopulation;
+    private final Until until;
+    private final int maxPeriod;
+    private final boolean fastForward;
+
+    /**
+     * @param generations      the most generations to advance, or UNLIMITED
+     * @param timeBudgetNanos  the most wall clock time to spend, or UNLIMITED
+     * @param targetPopulation stop once the population reaches this, from above or below, or UNLIMITED
+     * @param until            whether to stop on a stable or periodic World
+     * @param maxPeriod        the longest period looked for when until is PERIODIC
+     */
+    public Runner(final long generations, final long timeBudgetNanos, final long targetPopulation, final Until until,
+                  final int maxPeriod) {
+        this(generations, timeBudgetNanos, targetPopulation, until, maxPeriod, false);
+    }
+
+    /**
+     * @param generations      the most generations to advance, or UNLIMITED
+     * @param timeBudgetNanos  the most wall clock time to spend, or UNLIMITED
+     * @param targetPopulation stop once the population reaches this, from above or below, or UNLIMITED
+     * @param until            whether to stop on a stable or periodic World
+     * @param maxPeriod        the longest period looked for when until is PERIODIC or fast forwarding
+     * @param fastForward      whether to skip whole periods once the World is found to repeat
+     */
+    public Runner(final long generations, final long timeBudgetNanos, final long targetPopulation, final Until until,
+                  final int maxPeriod, final boolean fastForward) {
+        if (generations == UNLIMITED && timeBudgetNanos == UNLIMITED && targetPopulation == UNLIMITED
+                && until == Until.NEVER) {
+            throw new IllegalArgumentException("At least one stop condition is required");
+        }
+        if (maxPeriod < 1) {
+            throw new IllegalArgumentException("maxPeriod must be at least 1");
+        }
+        this.generations = generations;
+        this.timeBudgetNanos = timeBudgetNanos;
+        this.targetPopulation = targetPopulation;
+        this.until = until;
+        this.maxPeriod = maxPeriod;
+        this.fastForward = fastForward;
+    }
+
+    /**
+     * @param generations how many generations to advance
+     * @return a Runner that only stops after the given number of generations
+     */
+    public static Runner generations(final long generations) {
+        return new Runner(generations, UNLIMITED, UNLIMITED, Until.NEVER, 1);
+    }
+
+    /**
+     * Advances an initialized Engine until a stop condition is met
+     *
+     * @param engine the Engine to advance
+     * @return why and after how many generations the run stopped
+     */
+    public Result run(final Engine engine) {
+        return run(engine, null);
+    }
+
+    /**
+     * Advances an initialized Engine until a stop condition is met, saving checkpoints along the way
+     *
+     * @param engine       the Engine to advance
+     * @param checkpointer where to save checkpoints, or null for none
+     * @return why and after how many generations the run stopped
+     */
+    public Result run(final Engine engine, final Checkpointer checkpointer) {
+        if (targetPopulation == UNLIMITED && until == Until.NEVER && !fastForward) {
+            return runBatched(engine, checkpointer);
+        }
+        return runChecked(engine, checkpointer);
+    }
+
+    /**
+     * Advances in steps that end at every checkpoint
+     */
+    private static void advance(final Engine engine, final long generations, final Checkpointer checkpointer) {
+        if (checkpointer == null) {
+            engine.advance(generations);
+            return;
+        }
+        var remaining = generations;
+        while (remaining > 0) {
+            final var step = Math.min(remaining, checkpointer.untilNext(engine));
+            engine.advance(step);
+            remaining -= step;
+            checkpointer.afterAdvance(engine);
+        }
+    }
+
+    private Result runBatched(final Engine engine, final Checkpointer checkpointer) {
+        if (timeBudgetNanos == UNLIMITED) {
+            advance(engine, generations, checkpointer);
+            return new Result(StopReason.GENERATIONS, generations, UNLIMITED, 0);
+        }
+        final var start = System.nanoTime();
+        var advanced = 0L;
+        var batch = 1L;
+        while (generations == UNLIMITED || advanced < generations) {
+            final var elapsed = System.nanoTime() - start;
+            if (elapsed >= timeBudgetNanos) {
+                return new Result(StopReason.TIME_BUDGET, advanced, UNLIMITED, 0);
+            }
+            if (generations != UNLIMITED) {
+                batch = Math.min(batch, generations - advanced);
+            }
+            final var batchStart = System.nanoTime();
+            advance(engine, batch, checkpointer);
+            advanced += batch;
+            final var batchNanos = Math.max(1, System.nanoTime() - batchStart);
+
+            // Aim for the next batch to take one check interval, but no more than the time that is left
+            final var target = Math.min(CHECK_INTERVAL_NANOS, timeBudgetNanos - (System.nanoTime() - start));
+            final var perGeneration = Math.max(1, batchNanos / batch);
+            batch = Math.max(1, Math.min(batch * 2, target / perGeneration));
+        }
+        return new Result(StopReason.GENERATIONS, advanced, UNLIMITED, 0);
+    }
+
+    private Result runChecked(final Engine engine, final Checkpointer checkpointer) {
+        final var start = System.nanoTime();
+        final var skipping = fastForward && generations != UNLIMITED;
+        var history = until == Until.NEVER && !skipping
+                ? null : new History(until == Until.STABLE && !skipping ? 1 : maxPeriod);
+
+        var population = population(engine);
+        final var below = population < targetPopulation;
+        var advanced = 0L;
+        var period = 0L;
+        while (true) {
+            if (targetPopulation != UNLIMITED
+                    && (below ? population >= targetPopulation : population <= targetPopulation)) {
+                return new Result(StopReason.POPULATION, advanced, population, period);
+            }
+            if (history != null) {
+                final var found = history.add(advanced, engine.stateHash());
+                if (found > 0) {
+                    period = found;
+                    if (until == Until.PERIODIC || (until == Until.STABLE && found == 1)) {
+                        final var reason = found == 1 ? StopReason.STABLE : StopReason.PERIODIC;
+                        return new Result(reason, advanced, population, found);
+                    }
+                    // Every state of the period has already been checked, so skipping whole periods misses nothing
+                    final var remaining = generations - advanced;
+                    final var skip = remaining - remaining % found;
+                    engine.fastForward(skip, found);
+                    advanced += skip;
+                    if (checkpointer != null) {
+                        checkpointer.afterAdvance(engine);
+                    }
+                    history = null;
+                }
+            }
+            if (generations != UNLIMITED && advanced >= generations) {
+                return new Result(StopReason.GENERATIONS, advanced, population, period);
+            }
+            if (timeBudgetNanos != UNLIMITED && System.nanoTime() - start >= timeBudgetNanos) {
+                return new Result(StopReason.TIME_BUDGET, advanced, population, period);
+            }
+            advance(engine, 1, checkpointer);
+            advanced++;
+            population = population(engine);
+        }
+    }
+
+    /**
+     * @return how many Life are in the Engine, or UNLIMITED when no condition needs it
+     */
+    private long population(final Engine engine) {
+        if (targetPopulation == UNLIMITED) {
+            return UNLIMITED;
+        }
+        return engine.getPopulation();
+    }
+
+    /**
+     * The hashes of the last few generations
+     */
+    private static final class History {
+        private final long[] hashes;
+        private final Map<Long, Long> generationByHash = new HashMap<>();
+
+        History(final int maxPeriod) {
+            // One more than the period so the generation maxPeriod back is still held when comparing
+            hashes = new long[maxPeriod + 1];
+        }
+
+        /**
+         * @return the distance to the latest earlier generation with the same hash, or 0 if there is none in range
+         */
+        long add(final long generation, final long hash) {
+            final var slot = (int) (generation % hashes.length);
+            if (generation >= hashes.length) {
+                // Forget the generation falling out of range, unless a later one has the same hash
+                final var expired = hashes[slot];
+                if (Long.valueOf(generation - hashes.length).equals(generationByHash.get(expired))) {
+                    generationByHash.remove(expired);
+                }
+            }
+            hashes[slot] = hash;
+            final var previous = generationByHash.put(hash, generation);
+            return previous == null ? 0 : generation - previous;
+        }
+    }
+}
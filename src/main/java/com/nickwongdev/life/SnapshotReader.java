@@ -0,0 +1,100 @@
+package com.nickwongdev.life;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+
+/**
+ * Restores an Engine from a snapshot written by {@link SnapshotWriter}.
+ * <p>
+ * The channel is read through one large buffer that is topped up whenever less than a whole record is left in it,
+ * and every Life goes straight into {@link Engine#restoreLife(long, long, long)}, so nothing is kept per Life on
+ * the way.
+ * <p>
+ * Design decisions:
+ * Engines that do not keep ages save every age as 0. Restored Life is always at least one generation old, the same
+ * as after {@link Engine#initialize()}, so the snapshot of any Engine can be restored into any other.
+ */
+public final class SnapshotReader {
+
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+
+    // Names the format in error messages
+    private static final String FORMAT = "snapshot";
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer;
+
+    private boolean endOfStream = false;
+
+    /**
+     * @param channel    where to read, not closed by the reader
+     * @param bufferSize how many bytes to read from the channel at a time
+     */
+    SnapshotReader(final ReadableByteChannel channel, final int bufferSize) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(
+                Math.max(bufferSize, Math.max(SnapshotWriter.HEADER_LENGTH, SnapshotWriter.MAX_RECORD_LENGTH)));
+        this.buffer.limit(0);
+    }
+
+    /**
+     * Restores every Life in a snapshot into an empty Engine and sets its generation. The Engine must not be
+     * initialized afterwards.
+     *
+     * @param channel where to read, not closed
+     * @param engine  the empty Engine to restore into
+     * @return how many Life were read
+     * @throws IOException if the channel cannot be read or does not hold a snapshot
+     */
+    public static long read(final ReadableByteChannel channel, final Engine engine) throws IOException {
+        return new SnapshotReader(channel, DEFAULT_BUFFER_SIZE).readInto(engine);
+    }
+
+    long readInto(final Engine engine) throws IOException {
+        fill(SnapshotWriter.HEADER_LENGTH);
+        if (buffer.remaining() < SnapshotWriter.HEADER_LENGTH) {
+            throw new IOException("Not a snapshot, too short for a header");
+        }
+        final var magic = new byte[SnapshotWriter.MAGIC.length];
+        buffer.get(magic);
+        if (!Arrays.equals(magic, SnapshotWriter.MAGIC)) {
+            throw new IOException("Not a snapshot, bad magic bytes");
+        }
+        final var version = buffer.get();
+        if (version != SnapshotWriter.VERSION) {
+            throw new IOException("Unsupported snapshot version " + version);
+        }
+        final var generation = buffer.getLong();
+        final var population = buffer.getLong();
+        if (generation < 1 || population < 0) {
+            throw new IOException("Corrupt snapshot header, generation " + generation + ", population " + population);
+        }
+
+        var x = Long.MIN_VALUE;
+        var y = 0L;
+        for (long i = 0; i < population; i++) {
+            fill(SnapshotWriter.MAX_RECORD_LENGTH);
+            final var dx = VarLongCodec.getVarLong(buffer, FORMAT);
+            final var dy = VarLongCodec.getVarLong(buffer, FORMAT);
+            x += dx;
+            y += dx == 0 && i > 0 ? dy : VarLongCodec.unzigzag(dy);
+            final var age = VarLongCodec.getVarLong(buffer, FORMAT);
+            if (engine.restoreLife(x, y, Math.max(1, age)) == null) {
+                throw new IOException("Corrupt snapshot, Life at " + x + " " + y + " appears twice");
+            }
+        }
+        engine.restore(generation);
+        return population;
+    }
+
+    /**
+     * Reads until at least the given number of bytes are buffered or the channel has nothing more
+     */
+    private void fill(final int length) throws IOException {
+        if (!endOfStream) {
+            endOfStream = VarLongCodec.fill(channel, buffer, length);
+        }
+    }
+}
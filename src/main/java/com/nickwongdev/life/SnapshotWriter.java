@@ -0,0 +1,139 @@
+package com.nickwongdev.life;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Writes an Engine as a compact binary snapshot that {@link SnapshotReader} restores, ages and generation included.
+ * <p>
+ * The format is a header of the magic bytes {@link #MAGIC}, a version byte, the generation and the population as
+ * big endian longs, followed by every Life ordered by x and then by y. Each Life is three varints:
+ * <ul>
+ * <li>the distance in x from the Life before it, unsigned</li>
+ * <li>the distance in y from the Life before it, unsigned within a column, zigzag encoded when starting a new one</li>
+ * <li>its age</li>
+ * </ul>
+ * The first Life is measured from (MIN_LONG, 0). Distances wrap around like the longs they are, so any coordinates
+ * can be encoded, and neighbors in a dense pattern usually take three bytes.
+ * <p>
+ * Everything is encoded straight into one large buffer that only goes to the channel when it is full, like
+ * {@link Life106Writer}, so writing is a handful of big sequential writes.
+ * <p>
+ * Not thread safe.
+ */
+public final class SnapshotWriter implements AgedCellConsumer {
+
+    static final byte[] MAGIC = {'L', 'I', 'F', 'E', 'S', 'N', 'A', 'P'};
+
+    static final byte VERSION = 1;
+
+    // Magic, version, generation and population
+    static final int HEADER_LENGTH = 8 + 1 + 8 + 8;
+
+    // Three varints of up to ten bytes each
+    static final int MAX_RECORD_LENGTH = 3 * VarLongCodec.MAX_LENGTH;
+
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer;
+
+    private long previousX = Long.MIN_VALUE;
+    private long previousY = 0;
+    private long written = 0;
+
+    // accept cannot throw, so a failed write is held until flush
+    private IOException failure;
+
+    public SnapshotWriter(final WritableByteChannel channel) {
+        this(channel, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param channel    where to write, not closed by the writer
+     * @param bufferSize how many bytes to collect before writing to the channel
+     */
+    public SnapshotWriter(final WritableByteChannel channel, final int bufferSize) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(Math.max(bufferSize, Math.max(HEADER_LENGTH, MAX_RECORD_LENGTH)));
+    }
+
+    /**
+     * Writes a snapshot of every Life in a generation, then flushes
+     *
+     * @param view    the generation to write, an initialized Engine or one it froze
+     * @param channel where to write, not closed
+     * @return how many Life were written
+     * @throws IOException if the channel cannot be written
+     */
+    public static long write(final WorldView view, final WritableByteChannel channel) throws IOException {
+        if (view.getAge() == 0) {
+            throw new IllegalStateException("Only an initialized Engine can be saved");
+        }
+        final var population = view.getPopulation();
+        final var writer = new SnapshotWriter(channel);
+        writer.writeHeader(view.getAge(), population);
+        view.forEachLifeWithAge(writer);
+        writer.flush();
+        if (writer.written != population) {
+            throw new IOException("Engine changed while being saved, expected " + population + " Life but wrote "
+                    + writer.written);
+        }
+        return writer.written;
+    }
+
+    /**
+     * @param generation the generation being saved
+     * @param population how many Life will follow
+     */
+    public void writeHeader(final long generation, final long population) throws IOException {
+        VarLongCodec.ensureRoom(channel, buffer, HEADER_LENGTH);
+        buffer.put(MAGIC);
+        buffer.put(VERSION);
+        buffer.putLong(generation);
+        buffer.putLong(population);
+    }
+
+    /**
+     * Writes one Life, which must come after the one before it in x and then y order. Failures are reported by the
+     * next {@link #flush()}.
+     */
+    @Override
+    public void accept(final long x, final long y, final long age) {
+        if (failure != null) {
+            return;
+        }
+        try {
+            VarLongCodec.ensureRoom(channel, buffer, MAX_RECORD_LENGTH);
+        } catch (IOException e) {
+            failure = e;
+            return;
+        }
+        final var dx = x - previousX;
+        VarLongCodec.putVarLong(buffer, dx);
+        if (dx == 0 && written > 0) {
+            VarLongCodec.putVarLong(buffer, y - previousY);
+        } else {
+            VarLongCodec.putVarLong(buffer, VarLongCodec.zigzag(y - previousY));
+        }
+        VarLongCodec.putVarLong(buffer, age);
+        previousX = x;
+        previousY = y;
+        written++;
+    }
+
+    /**
+     * Writes everything buffered so far to the channel
+     *
+     * @throws IOException if any write since the last flush failed
+     */
+    public void flush() throws IOException {
+        if (failure != null) {
+            final var e = failure;
+            failure = null;
+            throw e;
+        }
+        VarLongCodec.drain(channel, buffer);
+    }
+}
@@ -0,0 +1,364 @@
+package com.nickwongdev.life;
+
+import java.util.Arrays;
+
+/**
+ * A sparse quadtree of where Life is, with the population of every Node, for rectangle queries over the whole
+ * signed 64-bit coordinate space.
+ * <p>
+ * Every internal Node is split 4x4, two bits of each coordinate per level, and the bottom Nodes are 64x64 bitmaps
+ * with one long per column. The root covers the whole space, so any cell is 29 levels down. Coordinates are mapped
+ * onto the tree by flipping the sign bit like {@link HashLifeWorld} does.
+ * <p>
+ * A query only descends into Nodes that cross the edge of the rectangle. Nodes entirely inside it answer a count
+ * from their population without looking further, and Nodes with no population are never created, so the work is
+ * proportional to the Life found plus the levels crossed by the edge of the rectangle, however wide it is.
+ * <p>
+ * Every Node also keeps the bounding box of its cells, widened on the way down when a cell is added and rebuilt from
+ * the children on the way back up when a cell on its edge is removed. The population and bounding box of the whole
+ * index are then just the root's.
+ * <p>
+ * Design decisions:
+ * Empty Nodes are removed as soon as their last Life is, so memory follows the population. The index is not
+ * thread safe, callers lock around it.
+ */
+final class SpatialIndex {
+
+    // The bottom Nodes are 2^6 cells on a side, one bit per cell
+    private static final int LEAF_BITS = 6;
+
+    // Each level splits a Node into 2^2 x 2^2 children
+    private static final int FANOUT_BITS = 2;
+
+    private static final int ROOT_BITS = 64;
+
+    private final Node root = new Node(ROOT_BITS);
+
+    /**
+     * @return how many cells are in the index
+     */
+    long size() {
+        return root.population;
+    }
+
+    /**
+     * @return the smallest box holding every cell, or null if the index is empty
+     */
+    Bounds bounds() {
+        if (root.population == 0) {
+            return null;
+        }
+        return new Bounds(root.minX ^ Long.MIN_VALUE, root.minY ^ Long.MIN_VALUE,
+                root.maxX ^ Long.MIN_VALUE, root.maxY ^ Long.MIN_VALUE);
+    }
+
+    /**
+     * @return false if the cell was already in the index
+     */
+    boolean add(final long x, final long y) {
+        return add(root, x ^ Long.MIN_VALUE, y ^ Long.MIN_VALUE);
+    }
+
+    /**
+     * @return false if the cell was not in the index
+     */
+    boolean remove(final long x, final long y) {
+        return remove(root, x ^ Long.MIN_VALUE, y ^ Long.MIN_VALUE);
+    }
+
+    /**
+     * @return how many cells are inside the inclusive rectangle
+     */
+    long count(final long minX, final long minY, final long maxX, final long maxY) {
+        return count(root, 0, 0, minX ^ Long.MIN_VALUE, minY ^ Long.MIN_VALUE,
+                maxX ^ Long.MIN_VALUE, maxY ^ Long.MIN_VALUE, false);
+    }
+
+    /**
+     * @return true if there are no cells inside the inclusive rectangle
+     */
+    boolean isEmpty(final long minX, final long minY, final long maxX, final long maxY) {
+        return count(root, 0, 0, minX ^ Long.MIN_VALUE, minY ^ Long.MIN_VALUE,
+                maxX ^ Long.MIN_VALUE, maxY ^ Long.MIN_VALUE, true) == 0;
+    }
+
+    /**
+     * @return every cell inside the inclusive rectangle ordered by x and then by y
+     */
+    Cells collect(final long minX, final long minY, final long maxX, final long maxY) {
+        final var cells = new Cells();
+        collect(root, 0, 0, minX ^ Long.MIN_VALUE, minY ^ Long.MIN_VALUE,
+                maxX ^ Long.MIN_VALUE, maxY ^ Long.MIN_VALUE, cells);
+        LongPairMap.sort(cells.xs, cells.ys, cells.size);
+        return cells;
+    }
+
+    private static boolean add(final Node node, final long ux, final long uy) {
+        final boolean added;
+        if (node.columns != null) {
+            final var column = (int) (ux & (Node.LEAF_SIZE - 1));
+            final var bit = 1L << (uy & (Node.LEAF_SIZE - 1));
+            added = (node.columns[column] & bit) == 0;
+            node.columns[column] |= bit;
+        } else {
+            final var index = childIndex(node.bits, ux, uy);
+            var child = node.children[index];
+            if (child == null) {
+                child = new Node(node.bits - FANOUT_BITS);
+                node.children[index] = child;
+            }
+            added = add(child, ux, uy);
+        }
+        if (added) {
+            if (node.population == 0) {
+                node.minX = ux;
+                node.maxX = ux;
+                node.minY = uy;
+                node.maxY = uy;
+            } else {
+                node.minX = Long.compareUnsigned(ux, node.minX) < 0 ? ux : node.minX;
+                node.maxX = Long.compareUnsigned(ux, node.maxX) > 0 ? ux : node.maxX;
+                node.minY = Long.compareUnsigned(uy, node.minY) < 0 ? uy : node.minY;
+                node.maxY = Long.compareUnsigned(uy, node.maxY) > 0 ? uy : node.maxY;
+            }
+            node.population++;
+        }
+        return added;
+    }
+
+    private static boolean remove(final Node node, final long ux, final long uy) {
+        final boolean removed;
+        if (node.columns != null) {
+            final var column = (int) (ux & (Node.LEAF_SIZE - 1));
+            final var bit = 1L << (uy & (Node.LEAF_SIZE - 1));
+            removed = (node.columns[column] & bit) != 0;
+            node.columns[column] &= ~bit;
+        } else {
+            final var index = childIndex(node.bits, ux, uy);
+            final var child = node.children[index];
+            removed = child != null && remove(child, ux, uy);
+            if (removed && child.population == 0) {
+                node.children[index] = null;
+            }
+        }
+        if (removed) {
+            node.population--;
+            if (node.population > 0
+                    && (ux == node.minX || ux == node.maxX || uy == node.minY || uy == node.maxY)) {
+                node.rebuildBounds();
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Counts the cells of a Node inside an inclusive rectangle given in unsigned offsets
+     *
+     * @param any stop as soon as one cell is found
+     */
+    private static long count(final Node node, final long ox, final long oy,
+                              final long x0, final long y0, final long x1, final long y1, final boolean any) {
+        final var lastX = ox + span(node.bits);
+        final var lastY = oy + span(node.bits);
+        if (Long.compareUnsigned(lastX, x0) < 0 || Long.compareUnsigned(ox, x1) > 0
+                || Long.compareUnsigned(lastY, y0) < 0 || Long.compareUnsigned(oy, y1) > 0) {
+            return 0;
+        }
+        if (Long.compareUnsigned(ox, x0) >= 0 && Long.compareUnsigned(lastX, x1) <= 0
+                && Long.compareUnsigned(oy, y0) >= 0 && Long.compareUnsigned(lastY, y1) <= 0) {
+            return node.population;
+        }
+        if (node.columns != null) {
+            final var rows = rowMask(oy, lastY, y0, y1);
+            var found = 0L;
+            for (int column = firstOffset(ox, x0); column <= lastOffset(ox, lastX, x1); column++) {
+                found += Long.bitCount(node.columns[column] & rows);
+            }
+            return found;
+        }
+        final var childSpan = 1L << (node.bits - FANOUT_BITS);
+        var found = 0L;
+        for (int i = 0; i < node.children.length; i++) {
+            final var child = node.children[i];
+            if (child != null) {
+                found += count(child, ox + childSpan * (i >>> FANOUT_BITS), oy + childSpan * (i & 3),
+                        x0, y0, x1, y1, any);
+                if (any && found > 0) {
+                    return found;
+                }
+            }
+        }
+        return found;
+    }
+
+    private static void collect(final Node node, final long ox, final long oy,
+                                final long x0, final long y0, final long x1, final long y1, final Cells cells) {
+        final var lastX = ox + span(node.bits);
+        final var lastY = oy + span(node.bits);
+        if (Long.compareUnsigned(lastX, x0) < 0 || Long.compareUnsigned(ox, x1) > 0
+                || Long.compareUnsigned(lastY, y0) < 0 || Long.compareUnsigned(oy, y1) > 0) {
+            return;
+        }
+        if (node.columns != null) {
+            final var rows = rowMask(oy, lastY, y0, y1);
+            for (int column = firstOffset(ox, x0); column <= lastOffset(ox, lastX, x1); column++) {
+                var bits = node.columns[column] & rows;
+                while (bits != 0) {
+                    final var row = Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                    cells.add((ox + column) ^ Long.MIN_VALUE, (oy + row) ^ Long.MIN_VALUE);
+                }
+            }
+            return;
+        }
+        final var childSpan = 1L << (node.bits - FANOUT_BITS);
+        for (int i = 0; i < node.children.length; i++) {
+            final var child = node.children[i];
+            if (child != null) {
+                collect(child, ox + childSpan * (i >>> FANOUT_BITS), oy + childSpan * (i & 3),
+                        x0, y0, x1, y1, cells);
+            }
+        }
+    }
+
+    /**
+     * Children are ordered by column and then by row
+     */
+    private static int childIndex(final int bits, final long ux, final long uy) {
+        final var shift = bits - FANOUT_BITS;
+        return (int) ((ux >>> shift) & 3) << FANOUT_BITS | (int) ((uy >>> shift) & 3);
+    }
+
+    /**
+     * @return the distance from the first to the last cell of a Node, 2^64 - 1 for the root
+     */
+    private static long span(final int bits) {
+        return bits == ROOT_BITS ? -1L : (1L << bits) - 1;
+    }
+
+    /**
+     * @return the first offset in a bottom Node starting at origin that is not below low
+     */
+    private static int firstOffset(final long origin, final long low) {
+        return Long.compareUnsigned(low, origin) > 0 ? (int) (low - origin) : 0;
+    }
+
+    /**
+     * @return the last offset in a bottom Node from origin to last that is not above high
+     */
+    private static int lastOffset(final long origin, final long last, final long high) {
+        return Long.compareUnsigned(high, last) < 0 ? (int) (high - origin) : Node.LEAF_SIZE - 1;
+    }
+
+    private static long rowMask(final long oy, final long lastY, final long y0, final long y1) {
+        final var first = firstOffset(oy, y0);
+        final var last = lastOffset(oy, lastY, y1);
+        return (-1L >>> (Node.LEAF_SIZE - 1 - last)) & (-1L << first);
+    }
+
+    /**
+     * Cells found by a query, as parallel arrays
+     */
+    static final class Cells {
+        private long[] xs = new long[16];
+        private long[] ys = new long[16];
+        private int size = 0;
+
+        int size() {
+            return size;
+        }
+
+        long x(final int index) {
+            return xs[index];
+        }
+
+        long y(final int index) {
+            return ys[index];
+        }
+
+        private void add(final long x, final long y) {
+            if (size == xs.length) {
+                xs = Arrays.copyOf(xs, size * 2);
+                ys = Arrays.copyOf(ys, size * 2);
+            }
+            xs[size] = x;
+            ys[size] = y;
+            size++;
+        }
+    }
+
+    private static final class Node {
+        private static final int LEAF_SIZE = 1 << LEAF_BITS;
+
+        // log2 of how many cells the Node is on a side
+        private final int bits;
+
+        // Null in bottom Nodes
+        private final Node[] children;
+
+        // One long per column with a bit per row, only in bottom Nodes
+        private final long[] columns;
+
+        private long population = 0;
+
+        // Bounding box of the cells in unsigned offsets, only meaningful when population is not 0
+        private long minX;
+        private long maxX;
+        private long minY;
+        private long maxY;
+
+        private Node(final int bits) {
+            this.bits = bits;
+            if (bits == LEAF_BITS) {
+                this.children = null;
+                this.columns = new long[LEAF_SIZE];
+            } else {
+                this.children = new Node[1 << (2 * FANOUT_BITS)];
+                this.columns = null;
+            }
+        }
+
+        /**
+         * Recomputes the bounding box from the cells of a bottom Node or the boxes of the children
+         */
+        private void rebuildBounds() {
+            if (columns != null) {
+                final var origin = minX & -LEAF_SIZE;
+                final var rowOrigin = minY & -LEAF_SIZE;
+                var first = -1;
+                var last = -1;
+                var rows = 0L;
+                for (int column = 0; column < LEAF_SIZE; column++) {
+                    if (columns[column] != 0) {
+                        first = first < 0 ? column : first;
+                        last = column;
+                        rows |= columns[column];
+                    }
+                }
+                minX = origin + first;
+                maxX = origin + last;
+                minY = rowOrigin + Long.numberOfTrailingZeros(rows);
+                maxY = rowOrigin + (LEAF_SIZE - 1 - Long.numberOfLeadingZeros(rows));
+                return;
+            }
+            var empty = true;
+            for (Node child : children) {
+                if (child == null) {
+                    continue;
+                }
+                if (empty) {
+                    minX = child.minX;
+                    maxX = child.maxX;
+                    minY = child.minY;
+                    maxY = child.maxY;
+                    empty = false;
+                } else {
+                    minX = Long.compareUnsigned(child.minX, minX) < 0 ? child.minX : minX;
+                    maxX = Long.compareUnsigned(child.maxX, maxX) > 0 ? child.maxX : maxX;
+                    minY = Long.compareUnsigned(child.minY, minY) < 0 ? child.minY : minY;
+                    maxY = Long.compareUnsigned(child.maxY, maxY) > 0 ? child.maxY : maxY;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.nickwongdev.life;
+
+/**
+ * Hashes the positions of every Life in a World in a way that can be kept up to date one birth or death at a time.
+ * <p>
+ * The hash of a World is the sum of a mixed hash of every position in it. Addition does not care about order, so a
+ * birth adds the hash of its position and a death subtracts it, and engines never have to rehash the whole World.
+ * Equal generations always have equal hashes, unequal ones collide with a chance of about 2^-64.
+ */
+final class StateHash {
+
+    private StateHash() {
+    }
+
+    /**
+     * @return the hash of a single Life at the given position
+     */
+    static long of(final long x, final long y) {
+        // The splitmix64 finalizer
+        var z = x * 0x9E3779B97F4A7C15L ^ y;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * @param originX the x position of bit 0
+     * @param y       the y position of the row
+     * @param bits    one bit per Life, bit i is at originX + i
+     * @return the sum of the hashes of every Life in the row
+     */
+    static long ofRow(final long originX, final long y, final long bits) {
+        var sum = 0L;
+        var remaining = bits;
+        while (remaining != 0) {
+            sum += of(originX + Long.numberOfTrailingZeros(remaining), y);
+            remaining &= remaining - 1;
+        }
+        return sum;
+    }
+
+    /**
+     * Hashes a generation by visiting every Life
+     */
+    static long of(final WorldView view) {
+        final var sum = new long[1];
+        view.forEachLife((x, y) -> sum[0] += of(x, y));
+        return sum[0];
+    }
+}
@@ -0,0 +1,41 @@
+package com.nickwongdev.life;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event for the columns one worker scanned during a {@link World#tick()}, or all of them when
+ * ticking on the calling thread. Each Life is examined and its births resolved in the same pass, so both are in the
+ * duration of this event.
+ */
+@Name("com.nickwongdev.life.Stripe")
+@Label("Stripe")
+@Category({"Life", "World"})
+@Description("Scan of a range of columns during a tick")
+@StackTrace(false)
+final class StripeEvent extends jdk.jfr.Event {
+
+    @Label("Generation")
+    @Description("The generation being built")
+    long generation;
+
+    @Label("Columns")
+    long columns;
+
+    @Label("Examined")
+    @Description("How many Life were examined, one neighborhood query each")
+    long examined;
+
+    @Label("Births")
+    long births;
+
+    @Label("Deaths")
+    long deaths;
+
+    @Label("Overflows")
+    @Description("Births dropped past the edge of the World, once for each parent")
+    long overflows;
+}
@@ -0,0 +1,39 @@
+package com.nickwongdev.life;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event for one whole {@link World#tick()}. The phases inside it are {@link TickPhaseEvent}s and
+ * the work of each stripe is a {@link StripeEvent}.
+ */
+@Name("com.nickwongdev.life.Tick")
+@Label("Tick")
+@Category({"Life", "World"})
+@Description("One generation of a World")
+@StackTrace(false)
+final class TickEvent extends jdk.jfr.Event {
+
+    @Label("Generation")
+    @Description("The generation the tick completed")
+    long generation;
+
+    @Label("Population")
+    @Description("How many Life are alive after the tick")
+    long population;
+
+    @Label("Births")
+    long births;
+
+    @Label("Deaths")
+    long deaths;
+
+    @Label("Workers")
+    int workers;
+
+    @Label("Double Buffered")
+    boolean doubleBuffered;
+}
@@ -0,0 +1,148 @@
+package com.nickwongdev.life;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and histograms of what a {@link World} does every tick, read with {@link #snapshot()}.
+ * <p>
+ * Counted are ticks, births, deaths, how many Life were examined (each one is one neighborhood query), how many
+ * births were dropped because they would be past the edge of the World (once for each of the three parents), and the
+ * bytes allocated by the ticking thread. Tick duration, births, deaths and allocation per tick also go into
+ * {@link Log2Histogram}s.
+ * <p>
+ * Design decisions:
+ * A World only records anything once metrics are set on it, until then the cost is a null check per tick and per
+ * stripe. While recording, per Life counts are kept in local variables and added once per stripe, and per tick values
+ * are added once per tick, so metrics never contend with the tick itself. Counters are LongAdders so stripes on
+ * several workers can add to them at once.
+ * <p>
+ * Allocation is only measured when ticking on the calling thread and when the JVM can report allocation per thread,
+ * with workers the allocation happens on pool threads and is not counted.
+ * <p>
+ * Thread safe.
+ */
+public final class TickMetrics {
+
+    private static final com.sun.management.ThreadMXBean THREADS = allocationBean();
+
+    private final LongAdder ticks = new LongAdder();
+    private final LongAdder tickNanos = new LongAdder();
+    private final LongAdder births = new LongAdder();
+    private final LongAdder deaths = new LongAdder();
+    private final LongAdder examined = new LongAdder();
+    private final LongAdder overflows = new LongAdder();
+    private final LongAdder allocatedBytes = new LongAdder();
+
+    private final Log2Histogram tickDuration = new Log2Histogram();
+    private final Log2Histogram birthsPerTick = new Log2Histogram();
+    private final Log2Histogram deathsPerTick = new Log2Histogram();
+    private final Log2Histogram allocationPerTick = new Log2Histogram();
+
+    /**
+     * @return the bytes allocated by the calling thread so far, -1 if the JVM cannot tell
+     */
+    static long currentThreadAllocatedBytes() {
+        return THREADS == null ? -1 : THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * Called once per stripe with what the stripe counted
+     *
+     * @param lives     how many Life were examined
+     * @param overflows how many births were dropped past the edge of the World
+     */
+    void recordStripe(final long lives, final long overflows) {
+        examined.add(lives);
+        this.overflows.add(overflows);
+    }
+
+    /**
+     * Called once per tick
+     *
+     * @param nanos     how long the tick took
+     * @param births    how many Life were born
+     * @param deaths    how many Life died
+     * @param allocated bytes allocated during the tick, negative if not measured
+     */
+    void recordTick(final long nanos, final long births, final long deaths, final long allocated) {
+        ticks.increment();
+        tickNanos.add(nanos);
+        this.births.add(births);
+        this.deaths.add(deaths);
+        tickDuration.record(nanos);
+        birthsPerTick.record(births);
+        deathsPerTick.record(deaths);
+        if (allocated >= 0) {
+            allocatedBytes.add(allocated);
+            allocationPerTick.record(allocated);
+        }
+    }
+
+    /**
+     * @return every counter and histogram at this moment, a tick in progress may be partly included
+     */
+    public Snapshot snapshot() {
+        return new Snapshot(System.nanoTime(), ticks.sum(), tickNanos.sum(), births.sum(), deaths.sum(),
+                examined.sum(), overflows.sum(), allocatedBytes.sum(), tickDuration.snapshot(),
+                birthsPerTick.snapshot(), deathsPerTick.snapshot(), allocationPerTick.snapshot());
+    }
+
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled()) {
+            return bean;
+        }
+        return null;
+    }
+
+    /**
+     * The metrics of a World at one moment, totals since the metrics were created
+     *
+     * @param takenNanos        {@link System#nanoTime()} when the snapshot was taken
+     * @param ticks             how many ticks completed
+     * @param tickNanos         how long all of them took together
+     * @param births            how many Life were born
+     * @param deaths            how many Life died
+     * @param examined          how many Life were examined, one neighborhood query each
+     * @param overflows         how many births were dropped past the edge of the World
+     * @param allocatedBytes    bytes allocated by ticks on the calling thread
+     * @param tickDuration      nanoseconds per tick
+     * @param birthsPerTick     births per tick
+     * @param deathsPerTick     deaths per tick
+     * @param allocationPerTick bytes allocated per tick
+     */
+    public record Snapshot(long takenNanos, long ticks, long tickNanos, long births, long deaths, long examined,
+                           long overflows, long allocatedBytes, Log2Histogram.Snapshot tickDuration,
+                           Log2Histogram.Snapshot birthsPerTick, Log2Histogram.Snapshot deathsPerTick,
+                           Log2Histogram.Snapshot allocationPerTick) {
+
+        /**
+         * @return what happened between an earlier snapshot of the same metrics and this one, with takenNanos the
+         * time between them
+         */
+        public Snapshot minus(final Snapshot earlier) {
+            return new Snapshot(takenNanos - earlier.takenNanos, ticks - earlier.ticks,
+                    tickNanos - earlier.tickNanos, births - earlier.births, deaths - earlier.deaths,
+                    examined - earlier.examined, overflows - earlier.overflows,
+                    allocatedBytes - earlier.allocatedBytes, tickDuration.minus(earlier.tickDuration),
+                    birthsPerTick.minus(earlier.birthsPerTick), deathsPerTick.minus(earlier.deathsPerTick),
+                    allocationPerTick.minus(earlier.allocationPerTick));
+        }
+
+        /**
+         * @return one line for a log, durations in microseconds
+         */
+        public String format() {
+            return "ticks=" + ticks
+                    + " tick_us{p50=" + tickDuration.percentile(0.5) / 1000
+                    + ",p99=" + tickDuration.percentile(0.99) / 1000
+                    + ",max=" + tickDuration.percentile(1) / 1000 + "}"
+                    + " births=" + births
+                    + " deaths=" + deaths
+                    + " examined=" + examined
+                    + " overflows=" + overflows
+                    + " allocated_bytes=" + allocatedBytes;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.nickwongdev.life;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event for one phase of a {@link World#tick()}:
+ * <ul>
+ * <li>{@link #SCAN}, examining every Life and resolving births, across all stripes</li>
+ * <li>{@link #KILL}, removing Life that died, in place only</li>
+ * <li>{@link #NEWBORNS}, initializing and indexing newborns, in place only</li>
+ * <li>{@link #SWAP}, indexing births and deaths and swapping in the next generation, double-buffered only</li>
+ * </ul>
+ */
+@Name("com.nickwongdev.life.TickPhase")
+@Label("Tick Phase")
+@Category({"Life", "World"})
+@Description("One phase of a tick of a World")
+@StackTrace(false)
+final class TickPhaseEvent extends jdk.jfr.Event {
+
+    static final String SCAN = "scan";
+    static final String KILL = "kill";
+    static final String NEWBORNS = "newborns";
+    static final String SWAP = "swap";
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Generation")
+    @Description("The generation being built")
+    long generation;
+
+    @Label("Cells")
+    @Description("How many Life the phase handled, the births and deaths it found for a scan")
+    long cells;
+
+    /**
+     * Commits the event if it is being recorded, called after the phase
+     */
+    void end(final String phase, final long generation, final long cells) {
+        if (shouldCommit()) {
+            this.phase = phase;
+            this.generation = generation;
+            this.cells = cells;
+            commit();
+        }
+    }
+}
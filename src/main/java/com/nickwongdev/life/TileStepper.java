@@ -0,0 +1,38 @@
+package com.nickwongdev.life;
+
+/**
+ * Advances one padded tile by a generation, see {@link TileWorld#step(long[], long[], long[], long[])} for the
+ * layout of the arguments.
+ */
+@FunctionalInterface
+interface TileStepper {
+
+    /**
+     * Steps one row at a time with plain long arithmetic
+     */
+    TileStepper SCALAR = TileWorld::step;
+
+    /**
+     * @param rows the tile with a row of padding above and below
+     * @param west the cell west of each padded row in bit 0
+     * @param east the cell east of each padded row in bit 63
+     * @param next where to write the 64 rows of the next generation
+     */
+    void step(long[] rows, long[] west, long[] east, long[] next);
+
+    /**
+     * The Vector API is an incubator module, so it is only loaded by name. When the JVM was not started with
+     * --add-modules jdk.incubator.vector, or has no vector registers wider than a long, the scalar stepper is used.
+     *
+     * @return a stepper that processes several rows per instruction, or {@link #SCALAR}
+     */
+    static TileStepper vectorOrScalar() {
+        try {
+            return (TileStepper) Class.forName("com.nickwongdev.life.VectorTileStepper")
+                    .getDeclaredConstructor()
+                    .newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return SCALAR;
+        }
+    }
+}
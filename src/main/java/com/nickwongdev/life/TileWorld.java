@@ -0,0 +1,460 @@
+package com.nickwongdev.life;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An Engine that stores the World as a sparse map of 64x64 bit tiles.
+ * <p>
+ * Each tile is a long[64], one long per row with bit i holding the cell at x offset i. A whole row of 64 cells is
+ * advanced at once with bitwise adder logic, so the cost of a generation is proportional to the number of occupied
+ * tiles rather than the number of Life, and a live cell costs a bit instead of an object.
+ * <p>
+ * Tiles are aligned to multiples of 64, and since 2^64 is a multiple of 64 the tiles cover the coordinate space
+ * exactly. Tiles past MIN_LONG / MAX_LONG are never read or created, which gives the same dead border as
+ * {@link World}.
+ * <p>
+ * {@link #vectorized()} steps tiles with the Vector API, several rows per instruction, when the JVM is started with
+ * --add-modules jdk.incubator.vector, see {@link VectorTileStepper}.
+ * <p>
+ * Design decisions:
+ * Per-Life age is not tracked. Life returned from this Engine is created on demand from the bits and always has
+ * an age of 0.
+ * <p>
+ * A tile's next state depends on the border rows of all eight of its neighbors, so a tile whose neighborhood is the
+ * same as it was two generations ago must come out the same as it did two generations ago. Only the tiles around
+ * tiles that differ from two generations ago are recomputed. Tiles with a period of one or two, like still lifes and
+ * blinkers, are frozen: still tiles cost nothing, and oscillating tiles swap back to their previous state without
+ * being stepped. They wake up as soon as a tile next to them becomes active again, which makes the cost of a
+ * generation proportional to real activity rather than population, even in worlds full of blinkers.
+ */
+public class TileWorld implements Engine {
+
+    static final int TILE_SHIFT = 6;
+    static final int TILE_SIZE = 1 << TILE_SHIFT;
+    static final int TILE_MASK = TILE_SIZE - 1;
+
+    private static final long MIN_TILE = Long.MIN_VALUE >> TILE_SHIFT;
+    private static final long MAX_TILE = Long.MAX_VALUE >> TILE_SHIFT;
+
+    private final Map<TileKey, long[]> tiles = new HashMap<>();
+
+    private final TileStepper stepper;
+
+    // Every tile that differs from the generation before, mapped to its state in that generation
+    private Map<TileKey, long[]> previous = new HashMap<>();
+
+    // Tiles that differ from two generations ago, only these and their neighbors are stepped
+    private Set<TileKey> active = new HashSet<>();
+
+    // Tiles changed by createLife or destroyLife since the last tick, their history no longer follows the rules
+    private Set<TileKey> edited = new HashSet<>();
+
+    // The previous state of a tile that did not exist
+    private static final long[] EMPTY_TILE = new long[TILE_SIZE];
+
+    private long age = 0;
+
+    // Sum of the StateHash of every live cell
+    private long stateHash = 0;
+
+    // How many cells are alive, kept with the state hash so counting does not visit every tile
+    private long population = 0;
+
+    public TileWorld() {
+        this(TileStepper.SCALAR);
+    }
+
+    TileWorld(final TileStepper stepper) {
+        this.stepper = stepper;
+    }
+
+    /**
+     * @return a TileWorld that steps tiles with the Vector API when jdk.incubator.vector is available, and with the
+     * scalar step otherwise
+     */
+    public static TileWorld vectorized() {
+        return new TileWorld(TileStepper.vectorOrScalar());
+    }
+
+    /**
+     * @return whether tiles are stepped with the Vector API
+     */
+    boolean isVectorized() {
+        return stepper != TileStepper.SCALAR;
+    }
+
+    @Override
+    public Life createLife(final long xPos, final long yPos) {
+        final var tile = tiles.computeIfAbsent(new TileKey(xPos >> TILE_SHIFT, yPos >> TILE_SHIFT),
+                k -> new long[TILE_SIZE]);
+        final var row = (int) (yPos & TILE_MASK);
+        final var bit = 1L << (xPos & TILE_MASK);
+        if ((tile[row] & bit) != 0) {
+            return null;
+        }
+        tile[row] |= bit;
+        stateHash += StateHash.of(xPos, yPos);
+        population++;
+        edited.add(new TileKey(xPos >> TILE_SHIFT, yPos >> TILE_SHIFT));
+        return new Life(xPos, yPos);
+    }
+
+    @Override
+    public void destroyLife(final Life life) {
+        final var key = new TileKey(life.getX() >> TILE_SHIFT, life.getY() >> TILE_SHIFT);
+        final var tile = tiles.get(key);
+        if (tile == null) {
+            return;
+        }
+        final var row = (int) (life.getY() & TILE_MASK);
+        final var bit = 1L << (life.getX() & TILE_MASK);
+        if ((tile[row] & bit) == 0) {
+            return;
+        }
+        tile[row] &= ~bit;
+        stateHash -= StateHash.of(life.getX(), life.getY());
+        population--;
+        edited.add(key);
+        // Clean up resources to avoid memory leak of empty tiles
+        if (isEmpty(tile)) {
+            tiles.remove(key);
+        }
+    }
+
+    @Override
+    public Life[] spatialQuery(final long startX, final long startY, final long endX, final long endY) {
+        assert (startX <= endX);
+        assert (endY <= startY);
+
+        final List<Life> foundLife = new ArrayList<>();
+        final var startTileX = startX >> TILE_SHIFT;
+        final var endTileX = endX >> TILE_SHIFT;
+        final var startTileY = endY >> TILE_SHIFT;
+        final var endTileY = startY >> TILE_SHIFT;
+
+        // Small areas look up the tiles they cover, large areas filter the tiles that exist
+        final var width = endTileX - startTileX + 1;
+        final var height = endTileY - startTileY + 1;
+        if (width > 0 && height > 0 && width <= tiles.size() && height <= tiles.size() / width) {
+            for (long tileX = startTileX; tileX <= endTileX; tileX++) {
+                for (long tileY = startTileY; tileY <= endTileY; tileY++) {
+                    final var tile = tiles.get(new TileKey(tileX, tileY));
+                    if (tile != null) {
+                        collect(tileX, tileY, tile, startX, startY, endX, endY, foundLife);
+                    }
+                }
+            }
+        } else {
+            for (Map.Entry<TileKey, long[]> entry : tiles.entrySet()) {
+                final var key = entry.getKey();
+                if (key.x() >= startTileX && key.x() <= endTileX && key.y() >= startTileY && key.y() <= endTileY) {
+                    collect(key.x(), key.y(), entry.getValue(), startX, startY, endX, endY, foundLife);
+                }
+            }
+        }
+        foundLife.sort(Comparator.comparingLong(Life::getX).thenComparingLong(Life::getY));
+        return foundLife.toArray(new Life[0]);
+    }
+
+    @Override
+    public void initialize() {
+        age = 1;
+    }
+
+    @Override
+    public void restore(final long generation) {
+        age = generation;
+    }
+
+    /**
+     * Only tiles that differ from two generations ago, and the tiles next to them, are stepped. Every other tile that
+     * changed last generation has the same neighborhood it had two generations ago, so it goes back to the state it
+     * had last generation. Results are held back until every tile is computed so no tile reads a neighbor that has
+     * already moved on.
+     * <p>
+     * Edited tiles are stepped for two generations, since the shortcut relies on each state being the result of the
+     * one before it.
+     */
+    @Override
+    public void tick() {
+        final Map<TileKey, long[]> updates = new HashMap<>();
+        final Set<TileKey> visited = new HashSet<>((active.size() + edited.size()) * 9);
+        final var rows = new long[TILE_SIZE + 2];
+        final var west = new long[TILE_SIZE + 2];
+        final var east = new long[TILE_SIZE + 2];
+        var next = new long[TILE_SIZE];
+
+        for (Set<TileKey> sources : List.of(active, edited)) {
+            for (TileKey key : sources) {
+                for (long tileX = key.x() - 1; tileX <= key.x() + 1; tileX++) {
+                    for (long tileY = key.y() - 1; tileY <= key.y() + 1; tileY++) {
+                        if (!inBounds(tileX, tileY)) {
+                            continue;
+                        }
+                        final var candidate = new TileKey(tileX, tileY);
+                        if (!visited.add(candidate)) {
+                            continue;
+                        }
+                        gatherNeighborhood(tileX, tileY, rows, west, east);
+                        stepper.step(rows, west, east, next);
+                        final var current = tiles.get(candidate);
+                        if (current == null ? isEmpty(next) : Arrays.equals(current, next)) {
+                            continue;
+                        }
+                        updates.put(candidate, next);
+                        next = new long[TILE_SIZE];
+                    }
+                }
+            }
+        }
+
+        // Frozen oscillators swap back without being stepped
+        for (Map.Entry<TileKey, long[]> entry : previous.entrySet()) {
+            if (!visited.contains(entry.getKey())) {
+                updates.put(entry.getKey(), entry.getValue());
+            }
+        }
+
+        final Map<TileKey, long[]> nextPrevious = new HashMap<>(updates.size() * 2);
+        final Set<TileKey> nextActive = new HashSet<>(edited);
+        for (Map.Entry<TileKey, long[]> update : updates.entrySet()) {
+            final var key = update.getKey();
+            final var current = tiles.getOrDefault(key, EMPTY_TILE);
+            final var twoAgo = previous.getOrDefault(key, current);
+            if (!Arrays.equals(update.getValue(), twoAgo)) {
+                nextActive.add(key);
+            }
+            nextPrevious.put(key, current);
+            updateCounts(key, current, update.getValue());
+            if (isEmpty(update.getValue())) {
+                tiles.remove(key);
+            } else {
+                tiles.put(key, update.getValue());
+            }
+        }
+
+        // A tile that changed last generation and stopped now still differs from two generations ago
+        for (TileKey key : previous.keySet()) {
+            if (!updates.containsKey(key)) {
+                nextActive.add(key);
+            }
+        }
+
+        previous = nextPrevious;
+        active = nextActive;
+        edited = new HashSet<>();
+        age++;
+    }
+
+    @Override
+    public long getAge() {
+        return age;
+    }
+
+    /**
+     * There are no ages to update, and the previous and active tiles are the same ones they were the last time the
+     * World was in this state
+     */
+    @Override
+    public void fastForward(final long generations, final long period) {
+        age += generations;
+    }
+
+    @Override
+    public long stateHash() {
+        return stateHash;
+    }
+
+    @Override
+    public long getPopulation() {
+        return population;
+    }
+
+    /**
+     * Tiles are sorted, then every column of cells is walked through all the tiles that share its tile column
+     */
+    @Override
+    public void forEachLife(final CellConsumer consumer) {
+        final var keys = tiles.keySet().toArray(new TileKey[0]);
+        Arrays.sort(keys, Comparator.comparingLong(TileKey::x).thenComparingLong(TileKey::y));
+        var start = 0;
+        while (start < keys.length) {
+            var end = start;
+            while (end < keys.length && keys[end].x() == keys[start].x()) {
+                end++;
+            }
+            final var originX = keys[start].x() << TILE_SHIFT;
+            for (int column = 0; column < TILE_SIZE; column++) {
+                final var bit = 1L << column;
+                for (int i = start; i < end; i++) {
+                    final var tile = tiles.get(keys[i]);
+                    final var originY = keys[i].y() << TILE_SHIFT;
+                    for (int row = 0; row < TILE_SIZE; row++) {
+                        if ((tile[row] & bit) != 0) {
+                            consumer.accept(originX + column, originY + row);
+                        }
+                    }
+                }
+            }
+            start = end;
+        }
+    }
+
+    /**
+     * @return how many tiles are occupied
+     */
+    int getTileCount() {
+        return tiles.size();
+    }
+
+    /**
+     * @return how many tiles differ from two generations ago
+     */
+    int getActiveTileCount() {
+        return active.size();
+    }
+
+    /**
+     * Copies a tile into the middle of a padded buffer along with the rows and edge bits of its eight neighbors.
+     * Row 0 of the buffer is the row above the tile and row 65 is the row below. West holds the neighboring cell in
+     * bit 0 and east holds it in bit 63, ready to be OR-ed into a shifted row.
+     */
+    private void gatherNeighborhood(final long tileX, final long tileY,
+                                    final long[] rows, final long[] west, final long[] east) {
+        final var center = tile(tileX, tileY);
+        final var north = tile(tileX, tileY - 1);
+        final var south = tile(tileX, tileY + 1);
+        final var westTile = tile(tileX - 1, tileY);
+        final var eastTile = tile(tileX + 1, tileY);
+        final var northWest = tile(tileX - 1, tileY - 1);
+        final var northEast = tile(tileX + 1, tileY - 1);
+        final var southWest = tile(tileX - 1, tileY + 1);
+        final var southEast = tile(tileX + 1, tileY + 1);
+
+        rows[0] = north == null ? 0 : north[TILE_MASK];
+        rows[TILE_SIZE + 1] = south == null ? 0 : south[0];
+        west[0] = northWest == null ? 0 : northWest[TILE_MASK] >>> TILE_MASK;
+        west[TILE_SIZE + 1] = southWest == null ? 0 : southWest[0] >>> TILE_MASK;
+        east[0] = northEast == null ? 0 : northEast[TILE_MASK] << TILE_MASK;
+        east[TILE_SIZE + 1] = southEast == null ? 0 : southEast[0] << TILE_MASK;
+        for (int row = 0; row < TILE_SIZE; row++) {
+            rows[row + 1] = center == null ? 0 : center[row];
+            west[row + 1] = westTile == null ? 0 : westTile[row] >>> TILE_MASK;
+            east[row + 1] = eastTile == null ? 0 : eastTile[row] << TILE_MASK;
+        }
+    }
+
+    /**
+     * Adds the births and subtracts the deaths between two versions of a tile, to the state hash and the population
+     */
+    private void updateCounts(final TileKey key, final long[] current, final long[] next) {
+        final var originX = key.x() << TILE_SHIFT;
+        final var originY = key.y() << TILE_SHIFT;
+        for (int row = 0; row < TILE_SIZE; row++) {
+            final var before = current == null ? 0 : current[row];
+            if (before != next[row]) {
+                stateHash += StateHash.ofRow(originX, originY + row, next[row] & ~before);
+                stateHash -= StateHash.ofRow(originX, originY + row, before & ~next[row]);
+                population += Long.bitCount(next[row]) - Long.bitCount(before);
+            }
+        }
+    }
+
+    private long[] tile(final long tileX, final long tileY) {
+        if (!inBounds(tileX, tileY)) {
+            return null;
+        }
+        return tiles.get(new TileKey(tileX, tileY));
+    }
+
+    /**
+     * Advances one padded tile by a generation, 64 cells at a time. The eight neighbors of every cell in a row are
+     * summed with bit-sliced adders, so each bit position of the intermediate longs is an independent counter.
+     *
+     * @param rows the tile with a row of padding above and below
+     * @param west the cell west of each padded row in bit 0
+     * @param east the cell east of each padded row in bit 63
+     * @param next where to write the 64 rows of the next generation
+     */
+    static void step(final long[] rows, final long[] west, final long[] east, final long[] next) {
+        for (int row = 1; row <= TILE_SIZE; row++) {
+            final var above = rows[row - 1];
+            final var center = rows[row];
+            final var below = rows[row + 1];
+
+            // A cell's west neighbor is the next lower bit, so shifting left lines it up with the cell
+            final var aboveWest = (above << 1) | west[row - 1];
+            final var aboveEast = (above >>> 1) | east[row - 1];
+            final var centerWest = (center << 1) | west[row];
+            final var centerEast = (center >>> 1) | east[row];
+            final var belowWest = (below << 1) | west[row + 1];
+            final var belowEast = (below >>> 1) | east[row + 1];
+
+            // Three full adders and a half adder give one ones bit and up to four twos bits per cell
+            final var aboveOnes = aboveWest ^ above ^ aboveEast;
+            final var aboveTwos = (aboveWest & above) | (aboveEast & (aboveWest ^ above));
+            final var belowOnes = belowWest ^ below ^ belowEast;
+            final var belowTwos = (belowWest & below) | (belowEast & (belowWest ^ below));
+            final var centerOnes = centerWest ^ centerEast;
+            final var centerTwos = centerWest & centerEast;
+
+            final var ones = aboveOnes ^ belowOnes ^ centerOnes;
+            final var onesCarry = (aboveOnes & belowOnes) | (centerOnes & (aboveOnes ^ belowOnes));
+
+            // Twos is set for a count of 2 or 3, fours or more is set when at least two of the twos bits are set
+            final var twos = aboveTwos ^ belowTwos ^ centerTwos ^ onesCarry;
+            final var foursOrMore = (aboveTwos & belowTwos) | (centerTwos & onesCarry)
+                    | ((aboveTwos ^ belowTwos) & (centerTwos ^ onesCarry));
+
+            // Exactly three neighbors, or exactly two and already alive
+            next[row - 1] = twos & ~foursOrMore & (ones | center);
+        }
+    }
+
+    static void collect(final long tileX, final long tileY, final long[] tile,
+                                final long startX, final long startY, final long endX, final long endY,
+                                final List<Life> foundLife) {
+        final var originX = tileX << TILE_SHIFT;
+        final var originY = tileY << TILE_SHIFT;
+        for (int row = 0; row < TILE_SIZE; row++) {
+            final var y = originY + row;
+            if (y < endY || y > startY) {
+                continue;
+            }
+            var bits = tile[row];
+            while (bits != 0) {
+                final var x = originX + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                if (x >= startX && x <= endX) {
+                    foundLife.add(new Life(x, y));
+                }
+            }
+        }
+    }
+
+    static boolean inBounds(final long tileX, final long tileY) {
+        return tileX >= MIN_TILE && tileX <= MAX_TILE && tileY >= MIN_TILE && tileY <= MAX_TILE;
+    }
+
+    static boolean isEmpty(final long[] tile) {
+        for (long row : tile) {
+            if (row != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Position of a tile, in units of 64 cells
+     */
+    record TileKey(long x, long y) {
+    }
+}
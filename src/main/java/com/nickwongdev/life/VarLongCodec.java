@@ -0,0 +1,102 @@
+package com.nickwongdev.life;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * The varint and zigzag coding shared by the snapshot and delta stream formats, along with moving their buffers to
+ * and from a channel.
+ * <p>
+ * A varint is seven bits per byte, lowest first, with the top bit set on every byte but the last, so small values
+ * take one byte and any long takes at most {@link #MAX_LENGTH}. Zigzag maps small negative values to small unsigned
+ * ones, 0, -1, 1, -2 become 0, 1, 2, 3.
+ */
+final class VarLongCodec {
+
+    // The most bytes a varint of a long takes
+    static final int MAX_LENGTH = 10;
+
+    private VarLongCodec() {
+    }
+
+    static void putVarLong(final ByteBuffer buffer, final long value) {
+        var remaining = value;
+        while ((remaining & ~0x7FL) != 0) {
+            buffer.put((byte) ((remaining & 0x7F) | 0x80));
+            remaining >>>= 7;
+        }
+        buffer.put((byte) remaining);
+    }
+
+    /**
+     * @param format what is being read, for error messages, like "snapshot"
+     * @throws IOException if the buffer ends part way through the varint or it is longer than 64 bits
+     */
+    static long getVarLong(final ByteBuffer buffer, final String format) throws IOException {
+        var value = 0L;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (!buffer.hasRemaining()) {
+                throw new IOException("Corrupt " + format + ", ends part way through a record");
+            }
+            final var b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("Corrupt " + format + ", varint longer than 64 bits");
+    }
+
+    static long zigzag(final long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(final long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Writes the buffer to the channel first if it has less than the given room left
+     */
+    static void ensureRoom(final WritableByteChannel channel, final ByteBuffer buffer, final int length)
+            throws IOException {
+        if (buffer.remaining() < length) {
+            drain(channel, buffer);
+        }
+    }
+
+    /**
+     * Writes everything in the buffer to the channel and clears it
+     */
+    static void drain(final WritableByteChannel channel, final ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Reads until at least the given number of bytes are buffered or the channel has nothing more
+     *
+     * @return true if the channel reached the end of the stream
+     */
+    static boolean fill(final ReadableByteChannel channel, final ByteBuffer buffer, final int length)
+            throws IOException {
+        if (buffer.remaining() >= length) {
+            return false;
+        }
+        buffer.compact();
+        var endOfStream = false;
+        while (buffer.position() < length) {
+            if (channel.read(buffer) < 0) {
+                endOfStream = true;
+                break;
+            }
+        }
+        buffer.flip();
+        return endOfStream;
+    }
+}
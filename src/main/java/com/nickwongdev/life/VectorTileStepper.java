@@ -0,0 +1,92 @@
+package com.nickwongdev.life;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The bit-sliced step of {@link TileWorld#step(long[], long[], long[], long[])} with one row per vector lane.
+ * <p>
+ * Every row of the scalar step is computed from the rows above and below it with the same shifts and adders, so
+ * rows are independent and map straight onto lanes. With 512-bit vectors eight rows, 512 cells, are advanced per
+ * group of instructions, and a 64 row tile takes eight iterations.
+ * <p>
+ * Not thread safe, each TileWorld has its own.
+ * <p>
+ * Only created through {@link TileStepper#vectorOrScalar()}, which falls back to the scalar step when this class
+ * cannot be loaded.
+ */
+final class VectorTileStepper implements TileStepper {
+
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+
+    VectorTileStepper() {
+        // A single lane would only add overhead to the scalar step
+        if (SPECIES.length() < 2 || TileWorld.TILE_SIZE % SPECIES.length() != 0) {
+            throw new UnsupportedOperationException("No useful vector shape, preferred is " + SPECIES);
+        }
+    }
+
+    // Sums of each padded row, a cell with its west and east neighbors, then only the two neighbors
+    private final long[] tripleOnes = new long[TileWorld.TILE_SIZE + 2];
+    private final long[] tripleTwos = new long[TileWorld.TILE_SIZE + 2];
+    private final long[] pairOnes = new long[TileWorld.TILE_SIZE + 2];
+    private final long[] pairTwos = new long[TileWorld.TILE_SIZE + 2];
+
+    /**
+     * Each row is summed horizontally once rather than once for each of the three rows that read it, and the work
+     * is split over two loops so each stays small enough for the JIT to keep every vector in registers.
+     */
+    @Override
+    public void step(final long[] rows, final long[] west, final long[] east, final long[] next) {
+        sumRows(rows, west, east);
+        combineRows(rows, next);
+    }
+
+    private void sumRows(final long[] rows, final long[] west, final long[] east) {
+        final var bound = SPECIES.loopBound(rows.length);
+        var row = 0;
+        for (; row < bound; row += SPECIES.length()) {
+            final var center = LongVector.fromArray(SPECIES, rows, row);
+            final var westOf = center.lanewise(VectorOperators.LSHL, 1).or(LongVector.fromArray(SPECIES, west, row));
+            final var eastOf = center.lanewise(VectorOperators.LSHR, 1).or(LongVector.fromArray(SPECIES, east, row));
+            final var pair = westOf.lanewise(VectorOperators.XOR, eastOf);
+            pair.intoArray(pairOnes, row);
+            westOf.and(eastOf).intoArray(pairTwos, row);
+            pair.lanewise(VectorOperators.XOR, center).intoArray(tripleOnes, row);
+            westOf.and(center).or(eastOf.and(westOf.lanewise(VectorOperators.XOR, center))).intoArray(tripleTwos, row);
+        }
+        for (; row < rows.length; row++) {
+            final var center = rows[row];
+            final var westOf = (center << 1) | west[row];
+            final var eastOf = (center >>> 1) | east[row];
+            pairOnes[row] = westOf ^ eastOf;
+            pairTwos[row] = westOf & eastOf;
+            tripleOnes[row] = westOf ^ eastOf ^ center;
+            tripleTwos[row] = (westOf & center) | (eastOf & (westOf ^ center));
+        }
+    }
+
+    private void combineRows(final long[] rows, final long[] next) {
+        for (int row = 1; row <= TileWorld.TILE_SIZE; row += SPECIES.length()) {
+            final var aboveOnes = LongVector.fromArray(SPECIES, tripleOnes, row - 1);
+            final var aboveTwos = LongVector.fromArray(SPECIES, tripleTwos, row - 1);
+            final var belowOnes = LongVector.fromArray(SPECIES, tripleOnes, row + 1);
+            final var belowTwos = LongVector.fromArray(SPECIES, tripleTwos, row + 1);
+            final var centerOnes = LongVector.fromArray(SPECIES, pairOnes, row);
+            final var centerTwos = LongVector.fromArray(SPECIES, pairTwos, row);
+
+            final var outerOnes = aboveOnes.lanewise(VectorOperators.XOR, belowOnes);
+            final var ones = outerOnes.lanewise(VectorOperators.XOR, centerOnes);
+            final var onesCarry = aboveOnes.and(belowOnes).or(centerOnes.and(outerOnes));
+
+            final var outerTwos = aboveTwos.lanewise(VectorOperators.XOR, belowTwos);
+            final var innerTwos = centerTwos.lanewise(VectorOperators.XOR, onesCarry);
+            final var twos = outerTwos.lanewise(VectorOperators.XOR, innerTwos);
+            final var foursOrMore = aboveTwos.and(belowTwos).or(centerTwos.and(onesCarry)).or(outerTwos.and(innerTwos));
+
+            final var center = LongVector.fromArray(SPECIES, rows, row);
+            twos.lanewise(VectorOperators.AND_NOT, foursOrMore).and(ones.or(center)).intoArray(next, row - 1);
+        }
+    }
+}
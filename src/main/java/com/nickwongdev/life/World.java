@@ -2,7 +2,11 @@ package com.nickwongdev.life;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * World has Life in it.
@@ -42,12 +46,13 @@ import java.util.concurrent.atomic.AtomicReference;
  *      L M N O P
  *
  * In this diagram, the subject under inspection is represented with an X.
- * Near neighbors are represented with digits, the number corresponds to the index of the counter array passed in.
- * Far neighbors are represented by letters in the following diagram.
+ * Near neighbors are represented with digits and far neighbors are represented by letters.
  *
  * The assertion of this model is X can only spawn life as a new near neighbor, that is in the numeric positions.
  * However, it can partner with far neighbors to do so. Additionally, X must have a certain number of near neighbors
- * in order to keep living.
+ * in order to keep living. The 25 positions are packed into a bitmask and resolved with four lookups into a table
+ * of every 4x4 square, see {@link NeighborhoodTable}, which answers whether X survives and where it gives birth
+ * without counting anything.
  *
  * The goal of this solution was to iterate over the set of existing life only once in a thread safe manner. Each Life
  * will be considered once and a spatial query will be performed to find its neighbors and decide if it lives or dies
@@ -61,20 +66,106 @@ import java.util.concurrent.atomic.AtomicReference;
  * alerting partner Life that it already created Life with a link or something similar, this allows either a check to
  * discard the new Life creation, or in rare multithreaded situations, an insert failure to the concurrent Map.
  *
+ * Alternatively, the World can be created double-buffered. In that mode the next generation is built into a separate
+ * map out of new Life objects and swapped in once it is complete. The map being read never changes during a tick, so
+ * there are no newborns to skip, no kill pass, and readers such as printWorld and spatialQuery on other threads
+ * always see one whole generation.
+ *
+ * Rectangle queries, counts and emptiness checks from outside the World go through a {@link SpatialIndex} of where
+ * every Life is, so a wide query over a sparse World does not have to walk every column it crosses. The index is
+ * updated with every createLife and destroyLife, and once per tick with the births and deaths of the generation, so
+ * neighbor queries during a tick still read the map directly and never wait on it. The index also knows the
+ * population and bounding box of the World, so both are available without visiting any Life.
+ *
+ * Every tick ends by handing its list of births and its kill list to a {@link ChangeListener}, if one is set, so what
+ * changed can be streamed out without looking at the rest of the World.
+ *
+ * Ticks, their phases and the work of each stripe are Java Flight Recorder events, see {@link TickEvent}, which cost
+ * next to nothing unless a recording has them enabled.
+ *
+ * A World ticking with more than one worker owns a ForkJoinPool, whose threads are stopped by {@link #close()}.
+ * Ticking such a World after it is closed throws RejectedExecutionException.
+ *
  */
-public class World {
+public class World implements Engine, AutoCloseable {
+
+    // How many stripes each worker gets, more stripes than workers lets the pool balance uneven columns
+    private static final int STRIPES_PER_WORKER = 4;
+
+    // Navigable Sorted Map, allows making Range queries. Replaced every tick when double-buffered.
+    private volatile NavigableMap<Long, NavigableMap<Long, Life>> worldMap = new ConcurrentSkipListMap<>();
+
+    // Updated right after worldMap is swapped, so a reader may briefly see the new generation with the old age
+    private volatile long age = 0;
 
-    private static final long[] CANNOT_CREATE_LIFE_THERE = new long[0];
+    // Sum of the StateHash of every Life, updated by every birth and death from any thread
+    private final LongAdder stateHash = new LongAdder();
 
-    // Navigable Sorted Map, allows making Range queries
-    private final NavigableMap<Long, NavigableMap<Long, Life>> worldMap = new ConcurrentSkipListMap<>();
+    // Where every Life is, also the lock that keeps it and worldMap in step for readers
+    private final SpatialIndex index = new SpatialIndex();
 
-    private int age = 0;
+    // Batches insert into worldMap under the read lock without the index lock, destroyLife drops empty columns under
+    // the write lock so a batch never inserts into a column that is being dropped
+    private final ReentrantReadWriteLock columnLock = new ReentrantReadWriteLock();
 
-    public int getAge() {
+    // Null when ticking on the calling thread
+    private final ForkJoinPool pool;
+
+    private final boolean doubleBuffered;
+
+    // Told about the births and deaths of every tick, null when nobody is listening
+    private volatile ChangeListener changeListener;
+
+    // Null when not recording
+    private volatile TickMetrics metrics;
+
+    public World() {
+        this(1);
+    }
+
+    /**
+     * @param workers how many threads to tick with, 1 ticks on the calling thread
+     */
+    public World(final int workers) {
+        this(workers, false);
+    }
+
+    /**
+     * @param workers        how many threads to tick with, 1 ticks on the calling thread
+     * @param doubleBuffered build each generation into a new map instead of mutating the World in place
+     */
+    public World(final int workers, final boolean doubleBuffered) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("workers must be at least 1, was " + workers);
+        }
+        this.pool = workers == 1 ? null : new ForkJoinPool(workers);
+        this.doubleBuffered = doubleBuffered;
+    }
+
+    @Override
+    public long getAge() {
         return age;
     }
 
+    /**
+     * Reports the births and deaths of every tick from now on. Life created or destroyed directly and the aging done
+     * by {@link #fastForward(long, long)} are not reported.
+     *
+     * @param listener called at the end of every tick, or null to stop reporting
+     */
+    public void setChangeListener(final ChangeListener listener) {
+        this.changeListener = listener;
+    }
+
+    /**
+     * Records what every tick does from now on, see {@link TickMetrics}
+     *
+     * @param metrics where to record, or null to stop recording
+     */
+    public void setMetrics(final TickMetrics metrics) {
+        this.metrics = metrics;
+    }
+
     /**
      * Thread-Safe insert of new Life into the World. Note: It is possible that two concurrently processing Life nodes
      * might try to insert the same new Life node for the same location. Life is created as part of the atomic insert
@@ -84,41 +175,121 @@ public class World {
      * @param yPos The y position for new life to be created
      * @return the new Life created or null if there was already life there or life could not be created there (oob)
      */
+    @Override
     public Life createLife(final long xPos, final long yPos) {
+        return restoreLife(xPos, yPos, 0);
+    }
+
+    /**
+     * Thread-Safe insert of Life that already has an age, see {@link #createLife(long, long)}
+     */
+    @Override
+    public Life restoreLife(final long xPos, final long yPos, final long age) {
+        synchronized (index) {
+            final var life = insertLife(worldMap, xPos, yPos, age);
+            if (life != null) {
+                stateHash.add(StateHash.of(xPos, yPos));
+                index.add(xPos, yPos);
+            }
+            return life;
+        }
+    }
+
+    /**
+     * Thread-Safe insert of new Life into the given map, see {@link #createLife(long, long)}
+     *
+     * @param map  The map to insert into
+     * @param xPos The x position for new life to be created
+     * @param yPos The y position for new life to be created
+     * @param age  The age of the new life
+     * @return the new Life created or null if there was already life there
+     */
+    private static Life insertLife(final NavigableMap<Long, NavigableMap<Long, Life>> map,
+                                   final long xPos, final long yPos, final long age) {
         final AtomicReference<Life> lifeRetVal = new AtomicReference<>();
-        worldMap.compute(xPos, (x, v) -> {
+        map.compute(xPos, (x, v) -> {
             var yMap = v;
             if (yMap == null) {
                 yMap = new ConcurrentSkipListMap<>();
             }
-            final var life = new Life(xPos, yPos);
+            final var life = new Life(xPos, yPos, age);
             final var oldLife = yMap.putIfAbsent(yPos, life);
-            if (oldLife == null) {
-                lifeRetVal.set(life);
-            }
+            // The map may apply this more than once when another thread adds the column first, only the last counts
+            lifeRetVal.set(oldLife == null ? life : null);
             return yMap;
         });
         return lifeRetVal.get();
     }
 
+    /**
+     * Thread-Safe insert of a batch of new Life. The map is concurrent, so cells go into it without the lock and
+     * several batches can be inserted at once. The index is then updated for the whole batch under one lock, skipping
+     * any Life that was destroyed in between, so loading from many threads takes the lock once per batch rather than
+     * once per cell. Until then the new Life is in the map but not yet visible to queries.
+     */
+    @Override
+    public int createLives(final long[] xs, final long[] ys, final int length) {
+        final var created = new Life[length];
+        var count = 0;
+        columnLock.readLock().lock();
+        try {
+            for (int i = 0; i < length; i++) {
+                final var life = insertLife(worldMap, xs[i], ys[i], 0);
+                if (life != null) {
+                    stateHash.add(StateHash.of(xs[i], ys[i]));
+                    created[count++] = life;
+                }
+            }
+        } finally {
+            columnLock.readLock().unlock();
+        }
+        synchronized (index) {
+            for (int i = 0; i < count; i++) {
+                final var life = created[i];
+                final var column = worldMap.get(life.getX());
+                if (column != null && column.get(life.getY()) == life) {
+                    index.add(life.getX(), life.getY());
+                }
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
     /**
      * Thread-Safe removal of items from the World
      *
      * @param life The Life to remove from the World (usually because it is dead)
      */
+    @Override
     public void destroyLife(final Life life) {
-        worldMap.computeIfPresent(life.getX(), (k, v) -> {
-            v.remove(life.getY());
-            // Clean up resources to avoid memory leak of empty maps
-            if (v.isEmpty()) {
-                return null;
+        columnLock.writeLock().lock();
+        try {
+            synchronized (index) {
+                worldMap.computeIfPresent(life.getX(), (k, v) -> {
+                    if (v.remove(life.getY()) != null) {
+                        stateHash.add(-StateHash.of(life.getX(), life.getY()));
+                        index.remove(life.getX(), life.getY());
+                    }
+                    // Clean up resources to avoid memory leak of empty maps
+                    if (v.isEmpty()) {
+                        return null;
+                    }
+                    return v;
+                });
             }
-            return v;
-        });
+        } finally {
+            columnLock.writeLock().unlock();
+        }
     }
 
     /**
-     * Scans an area of the World and returns a List of Life in that area
+     * Scans an area of the World and returns a List of Life in that area. Only the Life in the area is visited,
+     * however many columns it crosses, see {@link SpatialIndex}.
      *
      * @param startX The upper left x position of the area
      * @param startY The upper left y position of the area
@@ -126,13 +297,76 @@ public class World {
      * @param endY   The lower right y position of the area
      * @return An array of Life found in the area specified
      */
+    @Override
     public Life[] spatialQuery(final long startX, final long startY, final long endX, final long endY) {
         assert (startX <= endX);
         assert (endY <= startY);
 
+        final SpatialIndex.Cells cells;
+        final NavigableMap<Long, NavigableMap<Long, Life>> map;
+        synchronized (index) {
+            cells = index.collect(startX, endY, endX, startY);
+            map = worldMap;
+        }
+
+        final List<Life> foundLife = new ArrayList<>(cells.size());
+        for (int i = 0; i < cells.size(); i++) {
+            final var yMap = map.get(cells.x(i));
+            final var life = yMap == null ? null : yMap.get(cells.y(i));
+            // Missing only when read part way through an in place tick
+            if (life != null) {
+                foundLife.add(life);
+            }
+        }
+        return foundLife.toArray(new Life[0]);
+    }
+
+    @Override
+    public long count(final long startX, final long startY, final long endX, final long endY) {
+        synchronized (index) {
+            return index.count(startX, endY, endX, startY);
+        }
+    }
+
+    @Override
+    public boolean isEmpty(final long startX, final long startY, final long endX, final long endY) {
+        synchronized (index) {
+            return index.isEmpty(startX, endY, endX, startY);
+        }
+    }
+
+    /**
+     * Read from the index, so it does not depend on how much Life there is. Part way through an in place tick it is
+     * the population of the last generation.
+     */
+    @Override
+    public long getPopulation() {
+        synchronized (index) {
+            return index.size();
+        }
+    }
+
+    /**
+     * Read from the index, so it does not depend on how much Life there is. Part way through an in place tick it is
+     * the bounds of the last generation.
+     */
+    @Override
+    public Bounds getBounds() {
+        synchronized (index) {
+            return index.bounds();
+        }
+    }
+
+    /**
+     * Walks the columns of the map in an area, which is cheaper than the index for the small boxes around a Life
+     *
+     * @return An array of Life found in the area specified, ordered by x and then by y
+     */
+    private static Life[] scanColumns(final NavigableMap<Long, NavigableMap<Long, Life>> map, final long startX,
+                                      final long startY, final long endX, final long endY) {
         final List<Life> foundLife = new ArrayList<>(25);
 
-        final var xMap = worldMap.tailMap(startX, true);
+        final var xMap = map.tailMap(startX, true);
 
         for (final Map.Entry<Long, NavigableMap<Long, Life>> xEntry : xMap.entrySet()) {
             if (xEntry.getKey() > endX) {
@@ -152,113 +386,316 @@ public class World {
     /**
      * See class docs for more info on methodology.
      *
-     * This method iterates through all the Life in the World and considers the Life in cells up to two away.
+     * This method iterates through all the Life in the World and considers the Life in cells up to two away. When
+     * the World was created with more than one worker, the columns of the World are split into stripes and each
+     * stripe is processed by the ForkJoinPool.
      *
      */
+    @Override
     public void tick() {
-        // Storage for the Spatial Query
-        final int[] possibleLifeCounters = new int[8];
+        final var event = new TickEvent();
+        event.begin();
+        final var tickMetrics = metrics;
+        final var startNanos = tickMetrics == null ? 0 : System.nanoTime();
+        final var startBytes = tickMetrics == null || pool != null ? -1 : TickMetrics.currentThreadAllocatedBytes();
+
+        final var changes = doubleBuffered ? tickDoubleBuffered() : tickInPlace();
+
+        if (tickMetrics != null) {
+            final var allocated = startBytes < 0 ? -1 : TickMetrics.currentThreadAllocatedBytes() - startBytes;
+            tickMetrics.recordTick(System.nanoTime() - startNanos, changes.births().size(),
+                    changes.deaths().size(), allocated);
+        }
+        if (event.shouldCommit()) {
+            event.generation = age;
+            event.population = getPopulation();
+            event.births = changes.births().size();
+            event.deaths = changes.deaths().size();
+            event.workers = pool == null ? 1 : pool.getParallelism();
+            event.doubleBuffered = doubleBuffered;
+            event.commit();
+        }
+        final var listener = changeListener;
+        if (listener != null) {
+            listener.changed(age, changes.births(), changes.deaths());
+        }
+    }
 
+    /**
+     * Ticks by mutating the World, newborns are skipped while scanning and the dead are removed afterwards
+     */
+    private Changes tickInPlace() {
         // List of Life to kill after resolution
-        final List<Life> killList = new ArrayList<>();
-        final List<Life> newLifeList = new ArrayList<>();
+        final List<Life> killList;
+        final List<Life> newLifeList;
+
+        final var scan = new TickPhaseEvent();
+        scan.begin();
+        if (pool == null) {
+            killList = new ArrayList<>();
+            newLifeList = new ArrayList<>();
+            processColumns(worldMap, killList, newLifeList);
+        } else {
+            final var columns = worldMap.keySet().toArray(new Long[0]);
+            final var grain = Math.max(1, columns.length / (pool.getParallelism() * STRIPES_PER_WORKER));
+            final var stripe = new Stripe(this, columns, 0, columns.length, grain, null);
+            pool.invoke(stripe);
+            killList = stripe.killList;
+            newLifeList = stripe.newLifeList;
+        }
+        scan.end(TickPhaseEvent.SCAN, age + 1, newLifeList.size() + killList.size());
+
+        // Holding the write lock for the whole kill list makes every destroyLife in it a reentrant acquire
+        columnLock.writeLock().lock();
+        try {
+            synchronized (index) {
+                final var kill = new TickPhaseEvent();
+                kill.begin();
+                for (Life life : killList) {
+                    destroyLife(life);
+                }
+                kill.end(TickPhaseEvent.KILL, age + 1, killList.size());
+
+                // Initialize all newborns
+                final var newborns = new TickPhaseEvent();
+                newborns.begin();
+                for (Life life : newLifeList) {
+                    life.tick();
+                    index.add(life.getX(), life.getY());
+                }
+                newborns.end(TickPhaseEvent.NEWBORNS, age + 1, newLifeList.size());
+            }
+        } finally {
+            columnLock.writeLock().unlock();
+        }
 
-        for (NavigableMap<Long, Life> yMap : worldMap.values()) {
+        age++;
+        return new Changes(newLifeList, killList);
+    }
+
+    /**
+     * Considers every Life in the given columns, see class docs for more info on methodology.
+     *
+     * @param columns     the part of the World to process
+     * @param killList    where to put Life that dies this tick
+     * @param newLifeList where to put Life born this tick
+     */
+    private void processColumns(final NavigableMap<Long, NavigableMap<Long, Life>> columns,
+                                final List<Life> killList, final List<Life> newLifeList) {
+        final var event = new StripeEvent();
+        event.begin();
+        final var startBirths = newLifeList.size();
+        final var startDeaths = killList.size();
+        var columnCount = 0L;
+        var examined = 0L;
+        var overflows = 0L;
+        for (NavigableMap<Long, Life> yMap : columns.values()) {
+            columnCount++;
             for (Life life : yMap.values()) {
 
                 // Skip newborns
                 if (life.getAge() == 0) {
                     continue;
                 }
-
-                var closeNeighborCount = 0;
-
-                // Initializing to 1 accounts for Self
-                Arrays.fill(possibleLifeCounters, 1);
+                examined++;
 
                 // Here's what you do on every Tick
-                // Storage for spatial query
-                var x = life.getX();
-                var y = life.getY();
-
-                var neighbors = queryAroundPoint(x, y);
-
-                for (Life neighbor : neighbors) {
-
-                    // Skip self
-                    if (neighbor == life) {
+                final var x = life.getX();
+                final var y = life.getY();
+                final var neighborhood = neighborhoodMask(life, queryAroundPoint(x, y), true);
+                final var next = NeighborhoodTable.centerOf5x5(neighborhood);
+
+                // Anything alive next generation that is empty now is a birth
+                var births = next & ~neighborhood;
+                while (births != 0) {
+                    final var bit = Integer.numberOfTrailingZeros(births);
+                    births &= births - 1;
+                    final var dx = bit % 5 - 2;
+                    final var dy = bit / 5 - 2;
+                    if (isPastEdge(x, y, dx, dy)) {
+                        overflows++;
                         continue;
                     }
-
-                    // Skip newborns
-                    if (neighbor.getAge() == 0) {
-                        continue;
+                    // Null when a partner already created it, possibly in another stripe
+                    var newLife = insertLife(worldMap, x + dx, y + dy, 0);
+                    if (newLife != null) {
+                        stateHash.add(StateHash.of(x + dx, y + dy));
+                        newLifeList.add(newLife);
                     }
+                }
 
-                    // I decided to consider the neighbor in relation to the Life being examined
-                    // This resulted in a lot of recalculation of the position
-                    var relationalNeighborX = (int) (neighbor.getX() - x);
-                    var relationalNeighborY = (int) (neighbor.getY() - y);
+                if ((next & (1 << NeighborhoodTable.CENTER_BIT)) == 0) {
+                    killList.add(life);
+                }
 
-                    // Close neighbor check, increment neighbor counter
-                    if (relationalNeighborX >= -1 && relationalNeighborX <= 1 && relationalNeighborY <= 1 && relationalNeighborY >= -1) {
-                        closeNeighborCount++;
-                    }
+                life.tick();
+            }
+        }
+        endStripe(event, columnCount, examined, newLifeList.size() - startBirths, killList.size() - startDeaths,
+                overflows);
+    }
 
-                    // Updates the possibleLifeCounters based on the position of the current Neighbor
-                    updateCounters(relationalNeighborX, relationalNeighborY, possibleLifeCounters);
-                }
+    /**
+     * Builds the next generation into a new map and swaps it in. Every Life in the current map is old Life, so
+     * nothing has to be skipped, and survivors are copied forward as new Life one tick older so the generation
+     * readers are looking at never changes.
+     */
+    private Changes tickDoubleBuffered() {
+        final NavigableMap<Long, NavigableMap<Long, Life>> nextMap = new ConcurrentSkipListMap<>();
+        final List<Life> killList;
+        final List<Life> newLifeList;
+
+        final var scan = new TickPhaseEvent();
+        scan.begin();
+        if (pool == null) {
+            killList = new ArrayList<>();
+            newLifeList = new ArrayList<>();
+            buildNextGeneration(worldMap, nextMap, killList, newLifeList);
+        } else {
+            final var columns = worldMap.keySet().toArray(new Long[0]);
+            final var grain = Math.max(1, columns.length / (pool.getParallelism() * STRIPES_PER_WORKER));
+            final var stripe = new Stripe(this, columns, 0, columns.length, grain, nextMap);
+            pool.invoke(stripe);
+            killList = stripe.killList;
+            newLifeList = stripe.newLifeList;
+        }
+        scan.end(TickPhaseEvent.SCAN, age + 1, newLifeList.size() + killList.size());
+
+        // Readers take the index and the map under the same lock, so they see both or neither
+        synchronized (index) {
+            final var swap = new TickPhaseEvent();
+            swap.begin();
+            for (Life life : killList) {
+                index.remove(life.getX(), life.getY());
+            }
+            for (Life life : newLifeList) {
+                index.add(life.getX(), life.getY());
+            }
+            worldMap = nextMap;
+            swap.end(TickPhaseEvent.SWAP, age + 1, newLifeList.size() + killList.size());
+            age++;
+        }
+        return new Changes(newLifeList, killList);
+    }
 
-                // See what life we created
-                for (int i = 0; i < possibleLifeCounters.length; i++) {
-                    if (possibleLifeCounters[i] == 3) {
-                        var isDuplicate = false;
-                        var absoluteCoordinates = relationalPositionToActualPosition(life, i);
-                        if (absoluteCoordinates == CANNOT_CREATE_LIFE_THERE) {
-                            continue;
-                        }
-                        var unadjustedX = absoluteCoordinates[0];
-                        var unadjustedY = absoluteCoordinates[1];
-
-                        // Duplicate check to make sure we aren't trying to create life on top of existing Life
-                        for (final Life partner : neighbors) {
-                            if (partner.getX() == unadjustedX && partner.getY() == unadjustedY) {
-                                isDuplicate = true;
-                                break;
-                            }
-                        }
-                        if (!isDuplicate) {
-                            var newLife = createLife(unadjustedX, unadjustedY);
-                            newLifeList.add(newLife);
-                        }
+    /**
+     * Considers every Life in the given columns and writes survivors and newborns into the next generation
+     *
+     * @param columns     the part of the World to process
+     * @param nextMap     where to build the next generation
+     * @param killList    where to put Life that dies this tick
+     * @param newLifeList where to put Life born this tick
+     */
+    private void buildNextGeneration(final NavigableMap<Long, NavigableMap<Long, Life>> columns,
+                                     final NavigableMap<Long, NavigableMap<Long, Life>> nextMap,
+                                     final List<Life> killList, final List<Life> newLifeList) {
+        final var event = new StripeEvent();
+        event.begin();
+        final var startBirths = newLifeList.size();
+        final var startDeaths = killList.size();
+        var columnCount = 0L;
+        var examined = 0L;
+        var overflows = 0L;
+        for (NavigableMap<Long, Life> yMap : columns.values()) {
+            columnCount++;
+            for (Life life : yMap.values()) {
+                examined++;
+                final var x = life.getX();
+                final var y = life.getY();
+                final var neighborhood = neighborhoodMask(life, queryAroundPoint(x, y), false);
+                final var next = NeighborhoodTable.centerOf5x5(neighborhood);
+
+                var births = next & ~neighborhood;
+                while (births != 0) {
+                    final var bit = Integer.numberOfTrailingZeros(births);
+                    births &= births - 1;
+                    final var dx = bit % 5 - 2;
+                    final var dy = bit / 5 - 2;
+                    if (isPastEdge(x, y, dx, dy)) {
+                        overflows++;
+                        continue;
+                    }
+                    // Partners all find the same newborn, only the first insert succeeds
+                    final var newLife = insertLife(nextMap, x + dx, y + dy, 1);
+                    if (newLife != null) {
+                        stateHash.add(StateHash.of(x + dx, y + dy));
+                        newLifeList.add(newLife);
                     }
                 }
 
-                // If we didn't find the right number of close neighbors, the current life will no longer be alive
-                if (closeNeighborCount != 2 && closeNeighborCount != 3) {
+                if ((next & (1 << NeighborhoodTable.CENTER_BIT)) != 0) {
+                    insertLife(nextMap, x, y, life.getAge() + 1);
+                } else {
+                    stateHash.add(-StateHash.of(x, y));
                     killList.add(life);
                 }
-
-                life.tick();
             }
         }
+        endStripe(event, columnCount, examined, newLifeList.size() - startBirths, killList.size() - startDeaths,
+                overflows);
+    }
 
-        for (Life life : killList) {
-            destroyLife(life);
+    /**
+     * Records what one stripe counted in the metrics, if any, and commits its event if it is being recorded
+     */
+    private void endStripe(final StripeEvent event, final long columnCount, final long examined, final long births,
+                           final long deaths, final long overflows) {
+        final var tickMetrics = metrics;
+        if (tickMetrics != null) {
+            tickMetrics.recordStripe(examined, overflows);
+        }
+        if (event.shouldCommit()) {
+            event.generation = age + 1;
+            event.columns = columnCount;
+            event.examined = examined;
+            event.births = births;
+            event.deaths = deaths;
+            event.overflows = overflows;
+            event.commit();
         }
+    }
 
-        // Initialize all newborns
-        for (Life life : newLifeList) {
-            life.tick();
+    /**
+     * Packs the Life in the 5x5 box around a Life into a mask for {@link NeighborhoodTable}
+     *
+     * @param life         the Life being examined
+     * @param neighbors    the result of the spatial query around the Life
+     * @param skipNewborns whether Life with an age of 0 should be ignored
+     * @return a bit (dy + 2) * 5 + (dx + 2) for every Life at offset (dx, dy)
+     */
+    private static int neighborhoodMask(final Life life, final Life[] neighbors, final boolean skipNewborns) {
+        var mask = 0;
+        for (Life neighbor : neighbors) {
+            // Skip newborns
+            if (skipNewborns && neighbor.getAge() == 0) {
+                continue;
+            }
+            final var dx = (int) (neighbor.getX() - life.getX());
+            final var dy = (int) (neighbor.getY() - life.getY());
+            mask |= 1 << ((dy + 2) * 5 + dx + 2);
         }
+        return mask;
+    }
 
-        age++;
+    /**
+     * Overflow Detection, a neighbor past MIN_LONG / MAX_LONG wraps around to the other side of the World
+     *
+     * @return true if the neighbor at (dx, dy) is outside the World
+     */
+    private static boolean isPastEdge(final long x, final long y, final int dx, final int dy) {
+        if ((dx < 0 && x == Long.MIN_VALUE) || (dx > 0 && x == Long.MAX_VALUE)
+                || (dy < 0 && y == Long.MIN_VALUE) || (dy > 0 && y == Long.MAX_VALUE)) {
+            System.err.println("Overflow detected attempting to create life near " + x + " " + y);
+            return true;
+        }
+        return false;
     }
 
     /**
      * Before we can begin, the first set of life has to live for 1 tick so that it is considered "old life" in the
      * first tick
      */
+    @Override
     public void initialize() {
         age = 1;
         for (NavigableMap<Long, Life> yMap : worldMap.values()) {
@@ -268,15 +705,94 @@ public class World {
         }
     }
 
-    public void printWorld() {
-        System.out.println("#Life 1.06");
+    /**
+     * Restored Life already has its age, only the generation is set
+     */
+    @Override
+    public void restore(final long generation) {
+        age = generation;
+    }
+
+    /**
+     * Life that was alive for the whole period stays alive forever and gets older, Life that was born during the
+     * period is reborn every period and keeps its age.
+     */
+    @Override
+    public void fastForward(final long generations, final long period) {
+        if (doubleBuffered) {
+            // The map readers may be holding never changes, so the aged generation goes into a new one
+            final NavigableMap<Long, NavigableMap<Long, Life>> nextMap = new ConcurrentSkipListMap<>();
+            for (NavigableMap<Long, Life> yMap : worldMap.values()) {
+                for (Life life : yMap.values()) {
+                    final var lifeAge = life.getAge() > period ? life.getAge() + generations : life.getAge();
+                    insertLife(nextMap, life.getX(), life.getY(), lifeAge);
+                }
+            }
+            synchronized (index) {
+                worldMap = nextMap;
+                age += generations;
+            }
+            return;
+        }
         for (NavigableMap<Long, Life> yMap : worldMap.values()) {
             for (Life life : yMap.values()) {
-                System.out.println(life.getX() + " " + life.getY());
+                if (life.getAge() > period) {
+                    life.tick(generations);
+                }
+            }
+        }
+        age += generations;
+    }
+
+    @Override
+    public long stateHash() {
+        return stateHash.sum();
+    }
+
+    /**
+     * A double-buffered World never changes a generation once it is complete, so the current map is handed out as it
+     * is. An in place World has to be copied.
+     */
+    @Override
+    public WorldView freeze() {
+        if (!doubleBuffered) {
+            return Engine.super.freeze();
+        }
+        synchronized (index) {
+            return new Generation(worldMap, age, index.size());
+        }
+    }
+
+    @Override
+    public void forEachLife(final CellConsumer consumer) {
+        final var snapshot = worldMap;
+        for (NavigableMap<Long, Life> yMap : snapshot.values()) {
+            for (Life life : yMap.values()) {
+                consumer.accept(life.getX(), life.getY());
             }
         }
     }
 
+    @Override
+    public void forEachLifeWithAge(final AgedCellConsumer consumer) {
+        final var snapshot = worldMap;
+        for (NavigableMap<Long, Life> yMap : snapshot.values()) {
+            for (Life life : yMap.values()) {
+                consumer.accept(life.getX(), life.getY(), life.getAge());
+            }
+        }
+    }
+
+    /**
+     * Stops the worker threads, if there are any. The Life of the World can still be read.
+     */
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
     private Life[] queryAroundPoint(final long x, final long y) {
         var startX = x - 2;
         var startY = y + 2;
@@ -300,245 +816,113 @@ public class World {
             System.err.println("Overflow detected on endY, setting to " + Long.MIN_VALUE);
             endY = Long.MIN_VALUE;
         }
-        return spatialQuery(startX, startY, endX, endY);
+        return scanColumns(worldMap, startX, startY, endX, endY);
     }
 
     /**
-     * A Life can only spawn a new Life that is a direct neighbor, but it can partner with far neighbors.
-     *
-     * In the following diagram, the subject under inspection is represented with an X.
-     * Near neighbors are represented with digits, the number corresponds to the index of the counter array passed in.
-     * Far neighbors are represented by letters in the following diagram.
-     *
-     * A B C D E
-     * F 0 1 2 G
-     * H 3 X 4 I
-     * J 5 6 7 K
-     * L M N O P
-     *
-     * This means X can spawn life at 3 with H and J.
-     *
-     * This method considers the relative position of a neighbor and updates the appropriate counters that could
-     * spawn new Life with X. If that counter reaches exactly 3, Life will be spawned.
-     *
-     * @param relativeX The relative X-coordinate value of the Neighbor in relation the current inspected Life
-     * @param relativeY The relative Y-coordinate value of the Neighbor in relation the current inspected Life
-     * @param possibleLifeCounters The array to store counters in
+     * One complete generation of a double-buffered World
      */
-    private void updateCounters(final int relativeX, final int relativeY, final int[] possibleLifeCounters) {
-        if (relativeY == 2) {
-            switch (relativeX) {
-                // A
-                case -2 -> possibleLifeCounters[0]++;
-                // B
-                case -1 -> {
-                    possibleLifeCounters[0]++;
-                    possibleLifeCounters[1]++;
-                }
-                // C
-                case 0 -> {
-                    possibleLifeCounters[0]++;
-                    possibleLifeCounters[1]++;
-                    possibleLifeCounters[2]++;
-                }
-                // D
-                case 1 -> {
-                    possibleLifeCounters[1]++;
-                    possibleLifeCounters[2]++;
-                }
-                // E
-                case 2 -> possibleLifeCounters[2]++;
-            }
-        } else if (relativeY == 1) {
-            switch (relativeX) {
-                // F
-                case -2 -> {
-                    possibleLifeCounters[0]++;
-                    possibleLifeCounters[3]++;
-                }
-                // 0
-                case -1 -> {
-                    possibleLifeCounters[1]++;
-                    possibleLifeCounters[3]++;
-                }
-                // 1
-                case 0 -> {
-                    possibleLifeCounters[0]++;
-                    possibleLifeCounters[2]++;
-                    possibleLifeCounters[3]++;
-                    possibleLifeCounters[4]++;
-                }
-                // 2
-                case 1 -> {
-                    possibleLifeCounters[1]++;
-                    possibleLifeCounters[4]++;
-                }
-                // G
-                case 2 -> {
-                    possibleLifeCounters[2]++;
-                    possibleLifeCounters[4]++;
-                }
-            }
-        } else if (relativeY == 0) {
-            switch (relativeX) {
-                // H
-                case -2 -> {
-                    possibleLifeCounters[0]++;
-                    possibleLifeCounters[3]++;
-                    possibleLifeCounters[5]++;
-                }
-                case -1 -> { // 3
-                    possibleLifeCounters[0]++;
-                    possibleLifeCounters[1]++;
-                    possibleLifeCounters[5]++;
-                    possibleLifeCounters[6]++;
-                }
-                case 1 -> { // 4
-                    possibleLifeCounters[1]++;
-                    possibleLifeCounters[2]++;
-                    possibleLifeCounters[6]++;
-                    possibleLifeCounters[7]++;
-                }
-                case 2 -> { // I
-                    possibleLifeCounters[2]++;
-                    possibleLifeCounters[4]++;
-                    possibleLifeCounters[7]++;
-                }
-            }
-        } else if (relativeY == -1) {
-            switch (relativeX) {
-                case -2 -> { // J
-                    possibleLifeCounters[3]++;
-                    possibleLifeCounters[5]++;
-                }
-                case -1 -> { // 5
-                    possibleLifeCounters[3]++;
-                    possibleLifeCounters[6]++;
-                }
-                case 0 -> { // 6
-                    possibleLifeCounters[3]++;
-                    possibleLifeCounters[4]++;
-                    possibleLifeCounters[5]++;
-                    possibleLifeCounters[7]++;
-                }
-                case 1 -> { // 7
-                    possibleLifeCounters[6]++;
-                    possibleLifeCounters[4]++;
-                }
-                case 2 -> { // K
-                    possibleLifeCounters[4]++;
-                    possibleLifeCounters[7]++;
-                }
-            }
-        } else if (relativeY == -2) {
-            switch (relativeX) {
-                // L
-                case -2 -> possibleLifeCounters[5]++;
-                // M
-                case -1 -> {
-                    possibleLifeCounters[5]++;
-                    possibleLifeCounters[6]++;
-                }
-                // N
-                case 0 -> {
-                    possibleLifeCounters[5]++;
-                    possibleLifeCounters[6]++;
-                    possibleLifeCounters[7]++;
-                }
-                // O
-                case 1 -> {
-                    possibleLifeCounters[6]++;
-                    possibleLifeCounters[7]++;
+    private static final class Generation implements WorldView {
+        private final NavigableMap<Long, NavigableMap<Long, Life>> map;
+        private final long age;
+        private final long population;
+
+        private Generation(final NavigableMap<Long, NavigableMap<Long, Life>> map, final long age,
+                           final long population) {
+            this.map = map;
+            this.age = age;
+            this.population = population;
+        }
+
+        @Override
+        public long getAge() {
+            return age;
+        }
+
+        @Override
+        public long getPopulation() {
+            return population;
+        }
+
+        @Override
+        public void forEachLife(final CellConsumer consumer) {
+            forEachLifeWithAge((x, y, lifeAge) -> consumer.accept(x, y));
+        }
+
+        @Override
+        public void forEachLifeWithAge(final AgedCellConsumer consumer) {
+            for (NavigableMap<Long, Life> yMap : map.values()) {
+                for (Life life : yMap.values()) {
+                    consumer.accept(life.getX(), life.getY(), life.getAge());
                 }
-                // P
-                case 2 -> possibleLifeCounters[7]++;
             }
         }
     }
 
     /**
-     * Storage for counters is as array with indexes to represent close neighbors used as follows:
-     * 0 1 2
-     * 3 X 4
-     * 5 6 7
-     *
-     * X = the current Life being examined
-     * Number = The index of the array that represents counters around X
-     *
-     * During an overflow, the method will throw an exception
+     * What one tick changed
+     */
+    private record Changes(List<Life> births, List<Life> deaths) {
+    }
+
+    /**
+     * A range of columns of the World. Stripes split in half until they are small enough, then process their
+     * columns directly.
      *
-     * @param curLife currentLife that all relational positions revolve around
-     * @param index the index in the storage counter array
-     * @return the absolute coordinates of the index in the World
+     * Stripe boundaries need no special handling beyond what the single threaded tick already does. Neighbors in
+     * another stripe are read through the same concurrent map, newborns from another stripe are skipped by the age
+     * check, and when Life on both sides of a boundary partner to create the same newborn only one insert into the
+     * concurrent map succeeds.
      */
-    private long[] relationalPositionToActualPosition(final Life curLife, final int index) {
-        var curX = curLife.getX();
-        var curY = curLife.getY();
-        var unadjustedX = curLife.getX();
-        var unadjustedY = curLife.getY();
-        var xAdj = Operation.NONE;
-        var yAdj = Operation.NONE;
-        switch (index) {
-            case 0 -> {
-                unadjustedX--;
-                unadjustedY++;
-                xAdj = Operation.SUB;
-                yAdj = Operation.ADD;
-            }
-            case 1 -> {
-                unadjustedY++;
-                yAdj = Operation.ADD;
-            }
-            case 2 -> {
-                unadjustedX++;
-                unadjustedY++;
-                xAdj = Operation.ADD;
-                yAdj = Operation.ADD;
-            }
-            case 3 -> {
-                unadjustedX--;
-                xAdj = Operation.SUB;
-            }
-            case 4 -> {
-                unadjustedX++;
-                xAdj = Operation.ADD;
-            }
-            case 5 -> {
-                unadjustedX--;
-                unadjustedY--;
-                xAdj = Operation.SUB;
-                yAdj = Operation.SUB;
-            }
-            case 6 -> {
-                unadjustedY--;
-                yAdj = Operation.SUB;
-            }
-            case 7 -> {
-                unadjustedX++;
-                unadjustedY--;
-                xAdj = Operation.ADD;
-                yAdj = Operation.SUB;
-            }
+    private static final class Stripe extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final World world;
+        private final Long[] columns;
+        private final int start;
+        private final int end;
+        private final int grain;
+
+        // Null when ticking in place
+        private final NavigableMap<Long, NavigableMap<Long, Life>> nextMap;
+
+        private List<Life> killList;
+        private List<Life> newLifeList;
+
+        private Stripe(final World world, final Long[] columns, final int start, final int end, final int grain,
+                       final NavigableMap<Long, NavigableMap<Long, Life>> nextMap) {
+            this.world = world;
+            this.columns = columns;
+            this.start = start;
+            this.end = end;
+            this.grain = grain;
+            this.nextMap = nextMap;
         }
 
-        // Overflow Detection
-        if (
-                (xAdj == Operation.ADD && unadjustedX < curX) ||
-                (xAdj == Operation.SUB && unadjustedX > curX) ||
-                (yAdj == Operation.ADD && unadjustedY < curY) ||
-                (yAdj == Operation.SUB && unadjustedY > curY)
-        ) {
-            System.err.println("Overflow detected attempting to create life near " + curX + " " + curY);
-            return CANNOT_CREATE_LIFE_THERE;
+        @Override
+        protected void compute() {
+            if (end - start <= grain) {
+                killList = new ArrayList<>();
+                newLifeList = new ArrayList<>();
+                if (start < end) {
+                    final var stripe = world.worldMap.subMap(columns[start], true, columns[end - 1], true);
+                    if (nextMap == null) {
+                        world.processColumns(stripe, killList, newLifeList);
+                    } else {
+                        world.buildNextGeneration(stripe, nextMap, killList, newLifeList);
+                    }
+                }
+                return;
+            }
+            final var middle = (start + end) >>> 1;
+            final var left = new Stripe(world, columns, start, middle, grain, nextMap);
+            final var right = new Stripe(world, columns, middle, end, grain, nextMap);
+            invokeAll(left, right);
+            killList = left.killList;
+            killList.addAll(right.killList);
+            newLifeList = left.newLifeList;
+            newLifeList.addAll(right.newLifeList);
         }
-
-        return new long[] { unadjustedX, unadjustedY };
-    }
-
-    private enum Operation {
-        NONE,
-        ADD,
-        SUB
     }
 }
 
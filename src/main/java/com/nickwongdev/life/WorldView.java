@@ -0,0 +1,43 @@
+package com.nickwongdev.life;
+
+/**
+ * Read access to one generation of Life, what it takes to save or print it.
+ * <p>
+ * Every {@link Engine} is a view of its current generation. {@link Engine#freeze()} gives a view that stays on the
+ * generation it was taken at and can be read from any thread.
+ */
+public interface WorldView {
+
+    /**
+     * @return the current generation
+     */
+    long getAge();
+
+    /**
+     * Visits every Life ordered by x and then by y
+     *
+     * @param consumer receives the position of every Life
+     */
+    void forEachLife(CellConsumer consumer);
+
+    /**
+     * Visits every Life and its age ordered by x and then by y. Views that keep ages override this, the default
+     * reports every age as 0.
+     *
+     * @param consumer receives the position and age of every Life
+     */
+    default void forEachLifeWithAge(final AgedCellConsumer consumer) {
+        forEachLife((x, y) -> consumer.accept(x, y, 0));
+    }
+
+    /**
+     * Views that keep count as Life is born and dies override this, the default visits every Life.
+     *
+     * @return how many Life there are
+     */
+    default long getPopulation() {
+        final var population = new long[1];
+        forEachLife((x, y) -> population[0]++);
+        return population[0];
+    }
+}
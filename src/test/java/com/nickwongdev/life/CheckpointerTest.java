@@ -0,0 +1,111 @@
+package com.nickwongdev.life;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CheckpointerTest {
+
+    /**
+     * Checkpoints are taken at exact generations, only the latest are kept, and the latest restores to the same
+     * World the run had at that generation. Which checkpoints are skipped depends on how fast the disk is.
+     */
+    @Test
+    void checkpoints(@TempDir final Path directory) throws IOException {
+        for (Engine engine : new Engine[]{new World(), new World(2, true), new HashLifeWorld()}) {
+            final var engineDirectory = directory.resolve(engine.getClass().getSimpleName() + engine.hashCode());
+            seed(engine);
+            try (var checkpointer = new Checkpointer(engineDirectory, 10, 2)) {
+                final var result = Runner.generations(55).run(engine, checkpointer);
+                assertEquals(55, result.generations());
+            }
+
+            final List<String> names = new ArrayList<>();
+            try (Stream<Path> files = Files.list(engineDirectory)) {
+                files.forEach(file -> names.add(file.getFileName().toString()));
+            }
+            assertTrue(names.size() >= 1 && names.size() <= 2, names.toString());
+            for (String name : names) {
+                assertTrue(name.matches("checkpoint-00000000000000000[1-5]0\\.snap"), name);
+            }
+
+            final var latest = Checkpointer.latest(engineDirectory);
+            final var restored = new World();
+            try (var channel = FileChannel.open(latest)) {
+                SnapshotReader.read(channel, restored);
+            }
+            final var expected = new World();
+            seed(expected);
+            expected.advance(restored.getAge() - 1);
+            assertEquals(latest.getFileName().toString(),
+                    String.format("checkpoint-%019d.snap", restored.getAge()));
+            assertEquals(StateHash.of(expected), StateHash.of(restored));
+            if (engine instanceof World world) {
+                world.close();
+            }
+        }
+    }
+
+    /**
+     * A run restored at generation 5000 takes its first checkpoint at 6000, not straight away
+     */
+    @Test
+    void restoredSchedule(@TempDir final Path directory) throws IOException {
+        final var engine = new World();
+        engine.createLife(0, 0);
+        engine.createLife(1, 0);
+        engine.createLife(0, 1);
+        engine.createLife(1, 1);
+        engine.restore(5000);
+
+        try (var checkpointer = new Checkpointer(directory, 1000, 3)) {
+            assertEquals(1000, checkpointer.untilNext(engine));
+            assertFalse(checkpointer.afterAdvance(engine));
+            final var result = Runner.generations(1500).run(engine, checkpointer);
+            assertEquals(1500, result.generations());
+        }
+
+        final List<String> names = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> names.add(file.getFileName().toString()));
+        }
+        assertEquals(List.of("checkpoint-0000000000000006000.snap"), names);
+    }
+
+    /**
+     * A frozen generation does not change as the Engine carries on
+     */
+    @Test
+    void freeze() {
+        for (Engine engine : new Engine[]{new World(), new World(1, true), new PackedWorld(), new HashLifeWorld()}) {
+            seed(engine);
+            final var frozen = engine.freeze();
+            final var hash = StateHash.of(frozen);
+            final var population = frozen.getPopulation();
+            engine.advance(5);
+            engine.fastForward(10, 5);
+            assertEquals(1, frozen.getAge());
+            assertEquals(population, frozen.getPopulation());
+            assertEquals(hash, StateHash.of(frozen));
+            assertNotEquals(hash, StateHash.of(engine));
+        }
+    }
+
+    private static void seed(final Engine engine) {
+        final var random = new Random(20);
+        for (int i = 0; i < 1000; i++) {
+            engine.createLife(random.nextInt(60) - 30, random.nextInt(60) - 30);
+        }
+        engine.initialize();
+    }
+}
@@ -0,0 +1,105 @@
+package com.nickwongdev.life;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeltaTest {
+
+    /**
+     * Replaying the stream rebuilds the last generation, in place and double-buffered, on one thread or several
+     */
+    @Test
+    void replay() throws IOException {
+        for (World world : new World[]{new World(), new World(4), new World(1, true), new World(4, true)}) {
+            final var random = new Random(23);
+            for (int i = 0; i < 2000; i++) {
+                world.createLife(random.nextInt(80) - 40, random.nextInt(80) - 40);
+            }
+            world.createLife(Long.MIN_VALUE, Long.MAX_VALUE);
+            world.initialize();
+
+            final var output = new ByteArrayOutputStream();
+            final var writer = new DeltaWriter(Channels.newChannel(output), 64);
+            writer.begin(world);
+            world.setChangeListener(writer);
+            world.advance(40);
+            world.setChangeListener(null);
+            writer.flush();
+            assertEquals(41, writer.getRecords());
+
+            final var replayed = new World();
+            assertEquals(41, new DeltaReader(Channels.newChannel(new ByteArrayInputStream(output.toByteArray())), 64)
+                    .replayInto(replayed));
+            assertEquals(world.getAge(), replayed.getAge());
+            assertEquals(world.getPopulation(), replayed.getPopulation());
+            assertEquals(world.stateHash(), replayed.stateHash());
+
+            world.advance(3);
+            replayed.advance(3);
+            assertEquals(world.stateHash(), replayed.stateHash());
+            world.close();
+        }
+    }
+
+    /**
+     * Generations where nothing changed are left out of the stream
+     */
+    @Test
+    void stableWorld() throws IOException {
+        final var world = new World();
+        world.createLife(0, 0);
+        world.createLife(1, 0);
+        world.createLife(0, 1);
+        world.createLife(1, 1);
+        world.initialize();
+
+        final var output = new ByteArrayOutputStream();
+        final var writer = new DeltaWriter(Channels.newChannel(output));
+        writer.begin(world);
+        world.setChangeListener(writer);
+        world.advance(1000);
+        writer.flush();
+        assertEquals(1, writer.getRecords());
+
+        final var replayed = new World();
+        assertEquals(1, DeltaReader.replay(Channels.newChannel(new ByteArrayInputStream(output.toByteArray())),
+                replayed));
+        assertEquals(1, replayed.getAge());
+        assertEquals(4, replayed.getPopulation());
+    }
+
+    @Test
+    void rejectsCorruptInput() throws IOException {
+        final var world = new World();
+        world.createLife(0, 0);
+        world.createLife(1, 0);
+        world.createLife(2, 0);
+        world.initialize();
+        final var output = new ByteArrayOutputStream();
+        final var writer = new DeltaWriter(Channels.newChannel(output));
+        writer.begin(world);
+        world.setChangeListener(writer);
+        world.advance(2);
+        writer.flush();
+        final var bytes = output.toByteArray();
+
+        assertThrows(IOException.class, () -> replay(Arrays.copyOf(bytes, 4)));
+        assertThrows(IOException.class, () -> replay(Arrays.copyOf(bytes, bytes.length - 1)));
+        assertThrows(IOException.class, () -> replay(Arrays.copyOf(bytes, DeltaWriter.HEADER_LENGTH)));
+        final var badMagic = bytes.clone();
+        badMagic[0] = 'X';
+        assertThrows(IOException.class, () -> replay(badMagic));
+    }
+
+    private static long replay(final byte[] bytes) throws IOException {
+        return DeltaReader.replay(Channels.newChannel(new ByteArrayInputStream(bytes)), new World());
+    }
+}
@@ -0,0 +1,219 @@
+package com.nickwongdev.life;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashLifeWorldTest {
+
+    private static final long[][] GLIDER = {{0, 1}, {1, 2}, {2, 0}, {2, 1}, {2, 2}};
+
+    @Test
+    void createLife() {
+        final var world = new HashLifeWorld();
+        assertNotNull(world.createLife(0, 0));
+        assertNull(world.createLife(0, 0));
+        assertNotNull(world.createLife(Long.MIN_VALUE, Long.MAX_VALUE));
+        assertTrue(world.getCell(Long.MIN_VALUE, Long.MAX_VALUE));
+        assertEquals(2, world.getPopulation());
+    }
+
+    @Test
+    void destroyLife() {
+        final var world = new HashLifeWorld();
+        world.createLife(-100, -100);
+        world.createLife(0, 0);
+
+        var result = world.spatialQuery(-100, -100, -100, -100);
+        assertEquals(1, result.length);
+
+        world.destroyLife(result[0]);
+
+        result = world.spatialQuery(-100, -100, -100, -100);
+        assertEquals(0, result.length);
+        assertEquals(1, world.getPopulation());
+    }
+
+    @Test
+    void spatialQuery() {
+        final var world = new HashLifeWorld();
+        world.createLife(-100, -100);
+        world.createLife(0, 0);
+        world.createLife(0, 1);
+        world.createLife(1, 0);
+        world.createLife(1, 100);
+        world.createLife(100, 1);
+
+        final var lifeResult = world.spatialQuery(-1, 1, 1, -1);
+        assertEquals(3, lifeResult.length);
+        assertEquals(0, lifeResult[0].getX());
+        assertEquals(0, lifeResult[0].getY());
+        assertEquals(0, lifeResult[1].getX());
+        assertEquals(1, lifeResult[1].getY());
+        assertEquals(1, lifeResult[2].getX());
+        assertEquals(0, lifeResult[2].getY());
+
+        assertEquals(6, world.spatialQuery(Long.MIN_VALUE, Long.MAX_VALUE, Long.MAX_VALUE, Long.MIN_VALUE).length);
+    }
+
+    /**
+     * Single generations must match the reference World
+     */
+    @Test
+    void matchesWorld() {
+        final var world = new World();
+        final var hashLife = new HashLifeWorld();
+        for (long[] cell : GLIDER) {
+            world.createLife(cell[0], cell[1]);
+            hashLife.createLife(cell[0], cell[1]);
+            world.createLife(cell[0] + 20, cell[1] - 7);
+            hashLife.createLife(cell[0] + 20, cell[1] - 7);
+        }
+        world.initialize();
+        hashLife.initialize();
+
+        for (int i = 0; i < 40; i++) {
+            world.tick();
+            hashLife.tick();
+            assertSameLife(world, hashLife);
+        }
+        assertEquals(world.getAge(), hashLife.getAge());
+    }
+
+    /**
+     * A glider moves one cell diagonally every four generations, so after 2^62 generations it has moved 2^60 cells
+     */
+    @Test
+    void advanceGlider() {
+        final var world = new HashLifeWorld();
+        for (long[] cell : GLIDER) {
+            world.createLife(cell[0], cell[1]);
+        }
+        world.initialize();
+
+        world.advance(1L << 62);
+
+        assertEquals(1 + (1L << 62), world.getAge());
+        assertEquals(5, world.getPopulation());
+        for (long[] cell : GLIDER) {
+            assertTrue(world.getCell(cell[0] + (1L << 60), cell[1] + (1L << 60)));
+        }
+    }
+
+    @Test
+    void advanceSpinner() {
+        final var world = new HashLifeWorld();
+        world.createLife(-1, 0);
+        world.createLife(0, 0);
+        world.createLife(1, 0);
+        world.initialize();
+
+        world.advance(1_000_000_001L);
+
+        var resarray = world.spatialQuery(-1, 1, 1, -1);
+        assertEquals(3, resarray.length);
+        assertEquals(0, resarray[0].getX());
+        assertEquals(-1, resarray[0].getY());
+        assertEquals(0, resarray[2].getX());
+        assertEquals(1, resarray[2].getY());
+    }
+
+    /**
+     * A glider flying into the edge of the coordinate space has to break up exactly as it does in World
+     */
+    @Test
+    void gliderAtEdge() {
+        final var world = new World();
+        final var hashLife = new HashLifeWorld();
+        for (long[] cell : GLIDER) {
+            world.createLife(Long.MAX_VALUE - 3 + cell[0], Long.MAX_VALUE - 3 + cell[1]);
+            hashLife.createLife(Long.MAX_VALUE - 3 + cell[0], Long.MAX_VALUE - 3 + cell[1]);
+        }
+        world.initialize();
+        hashLife.initialize();
+
+        world.advance(30);
+        hashLife.advance(30);
+
+        assertSameLife(world, hashLife);
+    }
+
+    @Test
+    void collectGarbage() {
+        final var world = new HashLifeWorld(1000);
+        for (long[] cell : GLIDER) {
+            world.createLife(cell[0], cell[1]);
+        }
+        world.initialize();
+
+        for (int i = 0; i < 100; i++) {
+            world.advance(4);
+        }
+
+        assertTrue(world.getNodeCount() < 2000);
+        for (long[] cell : GLIDER) {
+            assertTrue(world.getCell(cell[0] + 100, cell[1] + 100));
+        }
+    }
+
+    /**
+     * Life comes out of the tree in the same x then y order as a full query, right up to the edges of the space
+     */
+    @Test
+    void forEachLifeOrder() {
+        final var world = new HashLifeWorld();
+        final var random = new Random(11);
+        for (int i = 0; i < 2000; i++) {
+            world.createLife(random.nextInt(300) - 150, random.nextInt(300) - 150);
+        }
+        world.createLife(Long.MIN_VALUE, Long.MAX_VALUE);
+        world.createLife(Long.MAX_VALUE, Long.MIN_VALUE);
+        world.createLife(Long.MAX_VALUE, Long.MAX_VALUE);
+
+        final var expected = world.spatialQuery(Long.MIN_VALUE, Long.MAX_VALUE, Long.MAX_VALUE, Long.MIN_VALUE);
+        final var index = new int[1];
+        world.forEachLife((x, y) -> {
+            assertEquals(expected[index[0]].getX(), x);
+            assertEquals(expected[index[0]].getY(), y);
+            index[0]++;
+        });
+        assertEquals(expected.length, index[0]);
+    }
+
+    /**
+     * A solid 2^16 square has more Life than fits in an array, it is still handed out in order, a column at a time
+     */
+    @Test
+    void forEachLifeOfHugePattern() {
+        final var world = new HashLifeWorld();
+        var node = world.cell(true);
+        for (int level = 0; level < 16; level++) {
+            node = world.join(node, node, node, node);
+        }
+        world.replaceRoot(node, 1);
+        assertEquals(1L << 32, world.getPopulation());
+
+        final var count = new int[1];
+        final var stopped = assertThrows(IllegalStateException.class, () -> world.forEachLife((x, y) -> {
+            if (count[0] == 1 << 17) {
+                throw new IllegalStateException("Stopped after two columns");
+            }
+            assertEquals(-(1L << 15) + (count[0] >> 16), x);
+            assertEquals(-(1L << 15) + (count[0] & 0xFFFF), y);
+            count[0]++;
+        }));
+        assertEquals("Stopped after two columns", stopped.getMessage());
+    }
+
+    private static void assertSameLife(final Engine expected, final Engine actual) {
+        var expectedLife = expected.spatialQuery(Long.MIN_VALUE, Long.MAX_VALUE, Long.MAX_VALUE, Long.MIN_VALUE);
+        var actualLife = actual.spatialQuery(Long.MIN_VALUE, Long.MAX_VALUE, Long.MAX_VALUE, Long.MIN_VALUE);
+        assertEquals(expectedLife.length, actualLife.length);
+        for (int i = 0; i < expectedLife.length; i++) {
+            assertEquals(expectedLife[i].getX(), actualLife[i].getX());
+            assertEquals(expectedLife[i].getY(), actualLife[i].getY());
+        }
+    }
+}
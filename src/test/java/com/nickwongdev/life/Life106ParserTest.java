@@ -0,0 +1,77 @@
+package com.nickwongdev.life;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Life106ParserTest {
+
+    @Test
+    void parse() throws IOException {
+        final var cells = parse(new Life106Parser(), "#Life 1.06\n0 1\n-2 3\n");
+        assertEquals(2, cells.size());
+        assertArrayEquals(new long[]{0, 1}, cells.get(0));
+        assertArrayEquals(new long[]{-2, 3}, cells.get(1));
+    }
+
+    @Test
+    void whitespaceCommentsAndBlankLines() throws IOException {
+        final var input = "  #Life 1.06 \r\n#D a glider\r\n\r\n\t 0\t  1  \r\n\n+1 2\n#N\n2 0";
+        final var cells = parse(new Life106Parser(), input);
+        assertEquals(3, cells.size());
+        assertArrayEquals(new long[]{0, 1}, cells.get(0));
+        assertArrayEquals(new long[]{1, 2}, cells.get(1));
+        assertArrayEquals(new long[]{2, 0}, cells.get(2));
+    }
+
+    @Test
+    void fullRange() throws IOException {
+        final var cells = parse(new Life106Parser(),
+                "#Life 1.06\n-9223372036854775808 9223372036854775807\n9223372036854775807 -9223372036854775808\n");
+        assertArrayEquals(new long[]{Long.MIN_VALUE, Long.MAX_VALUE}, cells.get(0));
+        assertArrayEquals(new long[]{Long.MAX_VALUE, Long.MIN_VALUE}, cells.get(1));
+    }
+
+    /**
+     * A tiny buffer splits the header and numbers across reads
+     */
+    @Test
+    void smallBuffer() throws IOException {
+        final var input = new StringBuilder("#Life 1.06\n");
+        for (int i = -500; i < 500; i++) {
+            input.append(i * 1_000_000_007L).append(' ').append(-i).append('\n');
+        }
+        final var cells = parse(new Life106Parser(16), input.toString());
+        assertEquals(1000, cells.size());
+        for (int i = 0; i < 1000; i++) {
+            assertArrayEquals(new long[]{(i - 500) * 1_000_000_007L, 500 - i}, cells.get(i));
+        }
+    }
+
+    @Test
+    void errors() {
+        final var parser = new Life106Parser();
+        assertThrows(IOException.class, () -> parse(parser, "0 1\n"));
+        assertThrows(IOException.class, () -> parse(parser, "#Life 1.06\n0\n"));
+        assertThrows(IOException.class, () -> parse(parser, "#Life 1.06\n0 1 2\n"));
+        assertThrows(IOException.class, () -> parse(parser, "#Life 1.06\n0 x\n"));
+        assertThrows(IOException.class, () -> parse(parser, "#Life 1.06\n- 1\n"));
+        assertThrows(IOException.class, () -> parse(parser, "#Life 1.06\n9223372036854775808 0\n"));
+        final var error = assertThrows(IOException.class, () -> parse(parser, "#Life 1.06\n0 1\n1 -\n"));
+        assertTrue(error.getMessage().contains("line 3"));
+    }
+
+    private static List<long[]> parse(final Life106Parser parser, final String input) throws IOException {
+        final List<long[]> cells = new ArrayList<>();
+        final var count = parser.parse(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)),
+                (x, y) -> cells.add(new long[]{x, y}));
+        assertEquals(cells.size(), count);
+        return cells;
+    }
+}
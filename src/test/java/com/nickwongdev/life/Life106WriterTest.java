@@ -0,0 +1,63 @@
+package com.nickwongdev.life;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Life106WriterTest {
+
+    @Test
+    void write() throws IOException {
+        final var world = new World();
+        world.createLife(Long.MIN_VALUE, Long.MAX_VALUE);
+        world.createLife(0, -1);
+        world.createLife(10, 0);
+
+        assertEquals("#Life 1.06\n-9223372036854775808 9223372036854775807\n0 -1\n10 0\n", write(world));
+    }
+
+    /**
+     * Every Engine visits Life in the same order, and a tiny buffer forces many drains
+     */
+    @Test
+    void roundTrip() throws IOException {
+        final var random = new Random(13);
+        final var engines = new Engine[]{new World(), new TileWorld(), new PackedWorld(), new HashLifeWorld()};
+        for (int i = 0; i < 3000; i++) {
+            final var x = random.nextInt(300) - 150 + (random.nextBoolean() ? Long.MIN_VALUE / 2 : 0);
+            final var y = random.nextInt(300) - 150;
+            for (Engine engine : engines) {
+                engine.createLife(x, y);
+            }
+        }
+
+        final var expected = write(engines[0]);
+        for (Engine engine : engines) {
+            assertEquals(expected, write(engine));
+        }
+
+        final var bytes = new ByteArrayOutputStream();
+        final var writer = new Life106Writer(Channels.newChannel(bytes), 64);
+        writer.writeHeader();
+        engines[0].forEachLife(writer);
+        writer.flush();
+        assertEquals(expected, bytes.toString(StandardCharsets.US_ASCII));
+
+        final var parsed = new World();
+        new Life106Parser().parse(new ByteArrayInputStream(bytes.toByteArray()), parsed::createLife);
+        assertEquals(expected, write(parsed));
+    }
+
+    private static String write(final Engine engine) throws IOException {
+        final var bytes = new ByteArrayOutputStream();
+        Life106Writer.write(engine, Channels.newChannel(bytes));
+        return bytes.toString(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,68 @@
+package com.nickwongdev.life;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongPairMapTest {
+
+    @Test
+    void putGetRemove() {
+        final var map = new LongPairMap();
+        assertTrue(map.putIfAbsent(Long.MIN_VALUE, Long.MAX_VALUE, 7));
+        assertFalse(map.putIfAbsent(Long.MIN_VALUE, Long.MAX_VALUE, 8));
+        assertEquals(7, map.get(Long.MIN_VALUE, Long.MAX_VALUE, -1));
+        assertEquals(-1, map.get(0, 0, -1));
+        assertEquals(1, map.increment(0, 0));
+        assertEquals(2, map.increment(0, 0));
+        assertTrue(map.remove(0, 0));
+        assertFalse(map.remove(0, 0));
+        assertEquals(1, map.size());
+    }
+
+    /**
+     * Removal shifts clusters around, so compare against a HashMap through many random operations
+     */
+    @Test
+    void matchesHashMap() {
+        final var map = new LongPairMap();
+        final Map<String, Integer> expected = new HashMap<>();
+        final var random = new Random(3);
+        for (int i = 0; i < 200_000; i++) {
+            var x = (long) random.nextInt(64);
+            var y = (long) random.nextInt(64);
+            var key = x + " " + y;
+            if (random.nextBoolean()) {
+                map.put(x, y, i);
+                expected.put(key, i);
+            } else {
+                assertEquals(expected.remove(key) != null, map.remove(x, y));
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        for (int slot = 0; slot < map.capacity(); slot++) {
+            if (map.isOccupied(slot)) {
+                assertEquals(expected.get(map.x(slot) + " " + map.y(slot)), map.value(slot));
+            }
+        }
+    }
+
+    @Test
+    void copySortedKeys() {
+        final var map = new LongPairMap();
+        final var random = new Random(5);
+        for (int i = 0; i < 1000; i++) {
+            map.put(random.nextLong(), random.nextInt(3), 0);
+        }
+        final var xs = new long[map.size()];
+        final var ys = new long[map.size()];
+        assertEquals(map.size(), map.copySortedKeys(xs, ys));
+        for (int i = 1; i < xs.length; i++) {
+            assertTrue(xs[i - 1] < xs[i] || (xs[i - 1] == xs[i] && ys[i - 1] < ys[i]));
+        }
+    }
+}
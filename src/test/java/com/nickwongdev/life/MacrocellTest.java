@@ -0,0 +1,122 @@
+package com.nickwongdev.life;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MacrocellTest {
+
+    @Test
+    void glider() throws IOException {
+        final var world = new HashLifeWorld();
+        final var cells = parse("[M2] (golly 4.2)\n#R B3/S23\n.*$..*$***$\n", world);
+        assertEquals(5, cells);
+        assertEquals(1, world.getAge());
+        // A level 3 pattern covers -4 to 3 in both directions
+        assertTrue(world.getCell(-3, -4));
+        assertTrue(world.getCell(-2, -3));
+        assertTrue(world.getCell(-4, -2));
+        assertTrue(world.getCell(-3, -2));
+        assertTrue(world.getCell(-2, -2));
+        assertEquals(5, world.getPopulation());
+    }
+
+    @Test
+    void generationAndEmptyChildren() throws IOException {
+        final var world = new HashLifeWorld();
+        parse("[M2]\n#G 41\n*$\n4 0 0 0 1\n", world);
+        assertEquals(42, world.getAge());
+        // The leaf is the south east quarter of a 16x16 square centered on (0, 0)
+        assertTrue(world.getCell(0, 0));
+        assertEquals(1, world.getPopulation());
+    }
+
+    /**
+     * Each level is four copies of the last, so 21 lines hold 4^20 Life, more than 10^12
+     */
+    @Test
+    void hugePattern() throws IOException {
+        final var input = new StringBuilder("[M2]\n*$\n");
+        for (int level = 4; level <= 23; level++) {
+            final var child = level - 3;
+            input.append(level).append(' ').append(child).append(' ').append(child).append(' ').append(child)
+                    .append(' ').append(child).append('\n');
+        }
+        final var world = new HashLifeWorld();
+        final var expected = 1L << 40;
+        assertEquals(expected, parse(input.toString(), world));
+        assertEquals(expected, world.getPopulation());
+
+        // One Life at the top left corner of every 8x8 leaf
+        final var half = 1L << 22;
+        assertTrue(world.getCell(-half, -half));
+        assertTrue(world.getCell(-half + 8, -half + 16));
+        assertTrue(world.getCell(half - 8, half - 8));
+        assertFalse(world.getCell(-half + 1, -half));
+        assertFalse(world.getCell(half, half));
+
+        final var output = new ByteArrayOutputStream();
+        assertEquals(21, MacrocellWriter.write(world, Channels.newChannel(output)));
+        final var copy = new HashLifeWorld();
+        assertEquals(expected, parse(output.toString(StandardCharsets.US_ASCII), copy));
+        assertEquals(world.stateHash(), copy.stateHash());
+    }
+
+    @Test
+    void roundTrip() throws IOException {
+        final var world = new HashLifeWorld();
+        world.createLife(-1000, 7);
+        world.createLife(-999, 7);
+        world.createLife(-998, 7);
+        world.createLife(5, -3);
+        world.createLife(1L << 40, -(1L << 40));
+        world.initialize();
+        world.advance(10);
+
+        final var output = new ByteArrayOutputStream();
+        MacrocellWriter.write(world, Channels.newChannel(output));
+        final var text = output.toString(StandardCharsets.US_ASCII);
+        assertTrue(text.startsWith("[M2]"));
+        assertTrue(text.contains("#G 10\n"));
+
+        final var copy = new HashLifeWorld();
+        parse(text, copy);
+        assertEquals(world.getAge(), copy.getAge());
+        assertEquals(StateHash.of(world), StateHash.of(copy));
+        assertEquals(world.stateHash(), copy.stateHash());
+    }
+
+    @Test
+    void emptyWorld() throws IOException {
+        final var world = new HashLifeWorld();
+        world.initialize();
+        final var output = new ByteArrayOutputStream();
+        MacrocellWriter.write(world, Channels.newChannel(output));
+        final var copy = new HashLifeWorld();
+        assertEquals(0, parse(output.toString(StandardCharsets.US_ASCII), copy));
+        assertEquals(0, copy.getPopulation());
+    }
+
+    @Test
+    void rejectsInvalidInput() {
+        assertThrows(IOException.class, () -> parse("x = 3, y = 3\n", new HashLifeWorld()));
+        assertThrows(IOException.class, () -> parse("[M2]\n", new HashLifeWorld()));
+        assertThrows(IOException.class, () -> parse("[M2]\n#R B36/S23\n*$\n", new HashLifeWorld()));
+        assertThrows(IOException.class, () -> parse("[M2]\n*********$\n", new HashLifeWorld()));
+        assertThrows(IOException.class, () -> parse("[M2]\n*$\n4 1 1 1 2\n", new HashLifeWorld()));
+        assertThrows(IOException.class, () -> parse("[M2]\n*$\n5 1 1 1 1\n", new HashLifeWorld()));
+        assertThrows(IOException.class, () -> parse("[M2]\n*$\n4 1 1 1\n", new HashLifeWorld()));
+        final var error = assertThrows(IOException.class, () -> parse("[M2]\n*$\n*x$\n", new HashLifeWorld()));
+        assertTrue(error.getMessage().contains("line 3"), error.getMessage());
+    }
+
+    private static long parse(final String input, final HashLifeWorld world) throws IOException {
+        return MacrocellParser.parse(new ByteArrayInputStream(input.getBytes(StandardCharsets.US_ASCII)), world);
+    }
+}
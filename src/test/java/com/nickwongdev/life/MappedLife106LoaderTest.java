@@ -0,0 +1,110 @@
+package com.nickwongdev.life;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedLife106LoaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Every cell must arrive exactly once no matter where the chunk boundaries fall
+     */
+    @Test
+    void load() throws IOException {
+        final var file = tempDir.resolve("soup.life");
+        final var content = new StringBuilder("#Life 1.06\n");
+        final var random = new Random(1);
+        for (int i = 0; i < 20_000; i++) {
+            if (i % 1000 == 0) {
+                content.append("#D comment\n\n");
+            }
+            content.append(random.nextLong()).append("  \t").append(random.nextInt(100)).append('\n');
+        }
+        content.append("-9223372036854775808 9223372036854775807");
+        Files.writeString(file, content);
+
+        final var expected = new World();
+        final long expectedCount;
+        try (var stream = Files.newInputStream(file)) {
+            expectedCount = new Life106Parser().parse(stream, expected::createLife);
+        }
+
+        for (Engine engine : new Engine[]{new World(), new PackedWorld()}) {
+            assertEquals(expectedCount, MappedLife106Loader.load(file, 4, engine));
+            var expectedLife = expected.spatialQuery(Long.MIN_VALUE, Long.MAX_VALUE, Long.MAX_VALUE, Long.MIN_VALUE);
+            var actualLife = engine.spatialQuery(Long.MIN_VALUE, Long.MAX_VALUE, Long.MAX_VALUE, Long.MIN_VALUE);
+            assertEquals(expectedLife.length, actualLife.length);
+            for (int i = 0; i < expectedLife.length; i++) {
+                assertEquals(expectedLife[i].getX(), actualLife[i].getX());
+                assertEquals(expectedLife[i].getY(), actualLife[i].getY());
+            }
+        }
+    }
+
+    /**
+     * A thread safe Engine gets whole batches from every worker, never one call per cell, so workers only meet on
+     * the Engine's lock once per batch
+     */
+    @Test
+    void batchesThreadSafeEngines() throws IOException {
+        final var file = tempDir.resolve("batches.life");
+        final var content = new StringBuilder("#Life 1.06\n");
+        for (int i = 0; i < 100_000; i++) {
+            content.append(i % 500).append(' ').append(i / 500).append('\n');
+        }
+        Files.writeString(file, content);
+
+        final var singleCalls = new AtomicLong();
+        final var batches = new AtomicLong();
+        final var threads = ConcurrentHashMap.<Thread>newKeySet();
+        final var world = new World() {
+            @Override
+            public Life createLife(final long xPos, final long yPos) {
+                singleCalls.incrementAndGet();
+                return super.createLife(xPos, yPos);
+            }
+
+            @Override
+            public int createLives(final long[] xs, final long[] ys, final int length) {
+                batches.incrementAndGet();
+                threads.add(Thread.currentThread());
+                return super.createLives(xs, ys, length);
+            }
+        };
+        assertEquals(100_000, MappedLife106Loader.load(file, 4, world));
+        assertEquals(0, singleCalls.get());
+        assertTrue(batches.get() < 100, "batches " + batches.get());
+        assertTrue(threads.size() > 1, "threads " + threads.size());
+        assertEquals(100_000, world.getPopulation());
+        assertEquals(100_000, world.count(0, 199, 499, 0));
+    }
+
+    @Test
+    void headerOnly() throws IOException {
+        final var file = tempDir.resolve("empty.life");
+        Files.writeString(file, "#Life 1.06\n");
+        assertEquals(0, MappedLife106Loader.load(file, 2, new World()));
+    }
+
+    @Test
+    void errors() throws IOException {
+        final var missingHeader = tempDir.resolve("missing.life");
+        Files.writeString(missingHeader, "0 1\n");
+        assertThrows(IOException.class, () -> MappedLife106Loader.load(missingHeader, 2, new World()));
+
+        final var badLine = tempDir.resolve("bad.life");
+        Files.writeString(badLine, "#Life 1.06\n0 1\n2\n");
+        assertThrows(IOException.class, () -> MappedLife106Loader.load(badLine, 2, new World()));
+    }
+}
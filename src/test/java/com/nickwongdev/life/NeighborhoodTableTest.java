@@ -0,0 +1,51 @@
+package com.nickwongdev.life;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NeighborhoodTableTest {
+
+    @Test
+    void centerOf4x4() {
+        // A blinker along row 1 turns into one down column 1
+        final var horizontal = 0b0111 << 4;
+        assertEquals(0b0101, NeighborhoodTable.centerOf4x4(horizontal));
+
+        // A block is stable
+        final var block = 0b0000_0110_0110_0000;
+        assertEquals(0b1111, NeighborhoodTable.centerOf4x4(block));
+        assertEquals(0, NeighborhoodTable.centerOf4x4(0));
+    }
+
+    /**
+     * Every cell of the 3x3 center matches counting its neighbors by hand
+     */
+    @Test
+    void centerOf5x5() {
+        final var random = new Random(3);
+        for (int i = 0; i < 100_000; i++) {
+            final var bits = random.nextInt(1 << 25);
+            var expected = 0;
+            for (int y = 1; y <= 3; y++) {
+                for (int x = 1; x <= 3; x++) {
+                    var neighbors = 0;
+                    for (int dy = -1; dy <= 1; dy++) {
+                        for (int dx = -1; dx <= 1; dx++) {
+                            if ((dx != 0 || dy != 0) && ((bits >>> ((y + dy) * 5 + x + dx)) & 1) != 0) {
+                                neighbors++;
+                            }
+                        }
+                    }
+                    final var alive = ((bits >>> (y * 5 + x)) & 1) != 0;
+                    if (neighbors == 3 || (alive && neighbors == 2)) {
+                        expected |= 1 << (y * 5 + x);
+                    }
+                }
+            }
+            assertEquals(expected, NeighborhoodTable.centerOf5x5(bits));
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.nickwongdev.life;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapTileWorldTest {
+
+    @Test
+    void createAndDestroyLife() {
+        try (var world = new OffHeapTileWorld()) {
+            assertNotNull(world.createLife(0, 0));
+            assertNull(world.createLife(0, 0));
+            assertNotNull(world.createLife(-1, -1));
+            assertEquals(2, world.getTileCount());
+
+            assertEquals(2, world.getPopulation());
+
+            world.destroyLife(new Life(-1, -1));
+            assertEquals(1, world.getTileCount());
+            assertEquals(1, world.getPopulation());
+            assertEquals(1, world.spatialQuery(-10, 10, 10, -10).length);
+        }
+    }
+
+    /**
+     * A soup spread over many tiles, plus gliders heading off every edge of the coordinate space
+     */
+    @Test
+    void matchesTileWorld() {
+        final var random = new Random(17);
+        final var expected = new TileWorld();
+        try (var world = new OffHeapTileWorld()) {
+            for (int i = 0; i < 20000; i++) {
+                final var x = random.nextInt(600) - 300;
+                final var y = random.nextInt(600) - 300;
+                expected.createLife(x, y);
+                world.createLife(x, y);
+            }
+            for (long[] corner : new long[][]{{Long.MAX_VALUE - 10, Long.MAX_VALUE - 10}, {Long.MIN_VALUE, 0}}) {
+                for (long[] cell : new long[][]{{1, 0}, {2, 1}, {0, 2}, {1, 2}, {2, 2}}) {
+                    expected.createLife(corner[0] + cell[0], corner[1] + cell[1]);
+                    world.createLife(corner[0] + cell[0], corner[1] + cell[1]);
+                }
+            }
+            expected.initialize();
+            world.initialize();
+
+            for (int generation = 0; generation < 60; generation++) {
+                expected.tick();
+                world.tick();
+                assertEquals(expected.stateHash(), world.stateHash());
+                assertEquals(expected.getPopulation(), world.getPopulation());
+            }
+            assertEquals(StateHash.of(expected), StateHash.of(world));
+            assertEquals(expected.getTileCount(), world.getTileCount());
+            assertArrayEquals(positions(expected), positions(world));
+            assertTrue(world.getNativeBytes() > 0);
+
+            // Small areas look up the tiles they cover, the answers must match filtering every tile
+            for (int i = 0; i < 200; i++) {
+                final var x = random.nextInt(700) - 350;
+                final var y = random.nextInt(700) - 350;
+                final var size = random.nextInt(5);
+                assertArrayEquals(positions(expected.spatialQuery(x, y + size, x + size, y)),
+                        positions(world.spatialQuery(x, y + size, x + size, y)));
+            }
+
+            // forEachLife gives the same cells in the same x then y order as the full query
+            final var visited = new long[expected.spatialQuery(Long.MIN_VALUE, Long.MAX_VALUE, Long.MAX_VALUE,
+                    Long.MIN_VALUE).length * 2];
+            final var index = new int[1];
+            world.forEachLife((x, y) -> {
+                visited[index[0]++] = x;
+                visited[index[0]++] = y;
+            });
+            assertArrayEquals(positions(world), visited);
+        }
+    }
+
+    @Test
+    void close() {
+        final var world = new OffHeapTileWorld();
+        world.createLife(0, 0);
+        world.close();
+        assertThrows(IllegalStateException.class, () -> world.createLife(0, 0));
+    }
+
+    private static long[] positions(final Engine engine) {
+        return positions(engine.spatialQuery(Long.MIN_VALUE, Long.MAX_VALUE, Long.MAX_VALUE, Long.MIN_VALUE));
+    }
+
+    private static long[] positions(final Life[] life) {
+        final var positions = new long[life.length * 2];
+        for (int i = 0; i < life.length; i++) {
+            positions[i * 2] = life[i].getX();
+            positions[i * 2 + 1] = life[i].getY();
+        }
+        return positions;
+    }
+}
@@ -0,0 +1,110 @@
+package com.nickwongdev.life;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PackedWorldTest {
+
+    private static final long[][] GLIDER = {{0, 1}, {1, 2}, {2, 0}, {2, 1}, {2, 2}};
+
+    @Test
+    void createLife() {
+        final var world = new PackedWorld();
+        assertNotNull(world.createLife(0, 0));
+        assertNull(world.createLife(0, 0));
+    }
+
+    @Test
+    void destroyLife() {
+        final var world = new PackedWorld();
+        world.createLife(-100, -100);
+        world.createLife(0, 0);
+
+        var result = world.spatialQuery(-100, -100, -100, -100);
+        assertEquals(1, result.length);
+
+        world.destroyLife(result[0]);
+
+        result = world.spatialQuery(-100, -100, -100, -100);
+        assertEquals(0, result.length);
+    }
+
+    @Test
+    void spatialQuery() {
+        final var world = new PackedWorld();
+        world.createLife(-100, -100);
+        world.createLife(0, 0);
+        world.createLife(0, 1);
+        world.createLife(1, 0);
+        world.createLife(1, 100);
+        world.createLife(100, 1);
+
+        final var lifeResult = world.spatialQuery(-1, 1, 1, -1);
+        assertEquals(3, lifeResult.length);
+        assertEquals(0, lifeResult[0].getX());
+        assertEquals(0, lifeResult[0].getY());
+        assertEquals(0, lifeResult[1].getX());
+        assertEquals(1, lifeResult[1].getY());
+        assertEquals(1, lifeResult[2].getX());
+        assertEquals(0, lifeResult[2].getY());
+
+        final var biggerResult = world.spatialQuery(-1000, 1000, 1000, -1000);
+        assertEquals(6, biggerResult.length);
+        assertEquals(-100, biggerResult[0].getX());
+        assertEquals(100, biggerResult[5].getX());
+    }
+
+    @Test
+    void spatialQueryAtMaxValue() {
+        final var world = new PackedWorld();
+        for (long i = 0; i < 4; i++) {
+            world.createLife(Long.MAX_VALUE - i, Long.MAX_VALUE - i);
+        }
+
+        final var lifeResult = world.spatialQuery(Long.MAX_VALUE - 1, Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE - 1);
+        assertEquals(2, lifeResult.length);
+        assertEquals(Long.MAX_VALUE - 1, lifeResult[0].getX());
+        assertEquals(Long.MAX_VALUE - 1, lifeResult[0].getY());
+        assertEquals(Long.MAX_VALUE, lifeResult[1].getX());
+        assertEquals(Long.MAX_VALUE, lifeResult[1].getY());
+    }
+
+    /**
+     * Positions and ages must match the reference World
+     */
+    @Test
+    void matchesWorld() {
+        final var world = new World();
+        final var packedWorld = new PackedWorld();
+        final var random = new Random(11);
+        for (int i = 0; i < 2000; i++) {
+            var x = random.nextInt(100) - 50;
+            var y = random.nextInt(100) - 50;
+            world.createLife(x, y);
+            packedWorld.createLife(x, y);
+        }
+        for (long[] cell : GLIDER) {
+            world.createLife(Long.MAX_VALUE - 3 + cell[0], Long.MAX_VALUE - 3 + cell[1]);
+            packedWorld.createLife(Long.MAX_VALUE - 3 + cell[0], Long.MAX_VALUE - 3 + cell[1]);
+        }
+        world.initialize();
+        packedWorld.initialize();
+
+        for (int i = 0; i < 30; i++) {
+            world.tick();
+            packedWorld.tick();
+
+            var expected = world.spatialQuery(Long.MIN_VALUE, Long.MAX_VALUE, Long.MAX_VALUE, Long.MIN_VALUE);
+            var actual = packedWorld.spatialQuery(Long.MIN_VALUE, Long.MAX_VALUE, Long.MAX_VALUE, Long.MIN_VALUE);
+            assertEquals(expected.length, actual.length);
+            for (int j = 0; j < expected.length; j++) {
+                assertEquals(expected[j].getX(), actual[j].getX());
+                assertEquals(expected[j].getY(), actual[j].getY());
+                assertEquals(expected[j].getAge(), actual[j].getAge());
+            }
+        }
+    }
+}
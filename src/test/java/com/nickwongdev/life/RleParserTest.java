@@ -0,0 +1,102 @@
+package com.nickwongdev.life;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RleParserTest {
+
+    @Test
+    void glider() throws IOException {
+        final var cells = parse(new RleParser(), "#N Glider\n#C A comment\nx = 3, y = 3, rule = B3/S23\nbob$2bo$3o!\n");
+        assertEquals(5, cells.size());
+        assertArrayEquals(new long[]{1, 0}, cells.get(0));
+        assertArrayEquals(new long[]{2, 1}, cells.get(1));
+        assertArrayEquals(new long[]{0, 2}, cells.get(2));
+        assertArrayEquals(new long[]{1, 2}, cells.get(3));
+        assertArrayEquals(new long[]{2, 2}, cells.get(4));
+    }
+
+    /**
+     * Runs split across lines, blank rows, Windows line endings and anything after the end
+     */
+    @Test
+    void layout() throws IOException {
+        final var input = "x = 12, y = 4\r\n3o\r\n9b\r\n2o3$\r\n12o! trailing text\n$$$";
+        final var cells = parse(new RleParser(), input);
+        assertEquals(17, cells.size());
+        assertArrayEquals(new long[]{0, 0}, cells.get(0));
+        assertArrayEquals(new long[]{12, 0}, cells.get(3));
+        assertArrayEquals(new long[]{0, 3}, cells.get(5));
+        assertArrayEquals(new long[]{11, 3}, cells.get(16));
+    }
+
+    @Test
+    void origin() throws IOException {
+        assertArrayEquals(new long[]{-5, 7}, parse(new RleParser(), "#P -5 7\nx = 1, y = 1\no!").get(0));
+        assertArrayEquals(new long[]{-5, 7}, parse(new RleParser(), "#R -5 7\nx = 1, y = 1\no!").get(0));
+        assertArrayEquals(new long[]{Long.MIN_VALUE, 3},
+                parse(new RleParser(), "#CXRLE Pos=-9223372036854775808,3 Gen=0\nx = 1, y = 1\no!").get(0));
+    }
+
+    @Test
+    void errors() {
+        final var parser = new RleParser();
+        assertThrows(IOException.class, () -> parse(parser, "bo$o!"));
+        assertThrows(IOException.class, () -> parse(parser, "x = 1, y = 1, rule = B36/S23\no!"));
+        assertThrows(IOException.class, () -> parse(parser, "x = 1, y = 1\no"));
+        assertThrows(IOException.class, () -> parse(parser, "x = 1, y = 1\n3\no!"));
+        assertThrows(IOException.class, () -> parse(parser, "x = 1, y = 1\no?!"));
+        assertThrows(IOException.class, () -> parse(parser, "x = 1, y = 1\n99999999999999999999b!"));
+    }
+
+    /**
+     * Writing and reading back gives the same Life, with patterns far apart, at the edges and bigger than a line,
+     * and a tiny buffer forces many reads and writes
+     */
+    @Test
+    void roundTrip() throws IOException {
+        final var random = new Random(21);
+        final var world = new World();
+        for (int i = 0; i < 3000; i++) {
+            world.createLife(random.nextInt(200) - 100, random.nextInt(200) - 100);
+        }
+        for (int i = 0; i < 100; i++) {
+            world.createLife(Long.MIN_VALUE + i, Long.MAX_VALUE);
+            world.createLife(Long.MAX_VALUE, Long.MIN_VALUE + i);
+        }
+
+        final var bytes = new ByteArrayOutputStream();
+        new RleWriter(Channels.newChannel(bytes), 16).writePattern(world);
+        final var rle = bytes.toString(StandardCharsets.US_ASCII);
+        for (String line : rle.split("\n")) {
+            assertTrue(line.length() <= 70, line);
+        }
+        assertTrue(rle.contains("x = 18446744073709551616, y = 18446744073709551616, rule = B3/S23"));
+
+        final var parsed = new World();
+        assertEquals(world.getPopulation(), new RleParser(16).parse(
+                new ByteArrayInputStream(bytes.toByteArray()), parsed::createLife));
+        assertEquals(StateHash.of(world), StateHash.of(parsed));
+
+        final var empty = new ByteArrayOutputStream();
+        RleWriter.write(new World(), Channels.newChannel(empty));
+        assertEquals(0, new RleParser().parse(new ByteArrayInputStream(empty.toByteArray()), (x, y) -> fail()));
+    }
+
+    private static List<long[]> parse(final RleParser parser, final String input) throws IOException {
+        final List<long[]> cells = new ArrayList<>();
+        parser.parse(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)),
+                (x, y) -> cells.add(new long[]{x, y}));
+        return cells;
+    }
+}
@@ -0,0 +1,192 @@
+package com.nickwongdev.life;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RunnerTest {
+
+    @Test
+    void generations() {
+        final var world = glider();
+        final var result = Runner.generations(12).run(world);
+        assertEquals(Runner.StopReason.GENERATIONS, result.reason());
+        assertEquals(12, result.generations());
+        assertEquals(13, world.getAge());
+    }
+
+    @Test
+    void timeBudget() {
+        final var world = glider();
+        final var runner = new Runner(Runner.UNLIMITED, TimeUnit.MILLISECONDS.toNanos(50), Runner.UNLIMITED,
+                Runner.Until.NEVER, 1);
+        final var result = runner.run(world);
+        assertEquals(Runner.StopReason.TIME_BUDGET, result.reason());
+        assertTrue(result.generations() > 0);
+        assertEquals(result.generations() + 1, world.getAge());
+    }
+
+    @Test
+    void population() {
+        // A lone pair dies out after one generation
+        final var world = new World();
+        world.createLife(0, 0);
+        world.createLife(1, 0);
+        world.initialize();
+        final var result = new Runner(100, Runner.UNLIMITED, 0, Runner.Until.NEVER, 1).run(world);
+        assertEquals(Runner.StopReason.POPULATION, result.reason());
+        assertEquals(1, result.generations());
+        assertEquals(0, result.population());
+    }
+
+    @Test
+    void stable() {
+        // A pre-block becomes a block after one generation
+        final var world = new World();
+        world.createLife(0, 0);
+        world.createLife(1, 0);
+        world.createLife(0, 1);
+        world.initialize();
+        final var result = new Runner(100, Runner.UNLIMITED, Runner.UNLIMITED, Runner.Until.STABLE, 1).run(world);
+        assertEquals(Runner.StopReason.STABLE, result.reason());
+        assertEquals(2, result.generations());
+        assertEquals(1, result.period());
+        assertEquals(Runner.UNLIMITED, result.population());
+        assertEquals(4, world.spatialQuery(-10, 10, 10, -10).length);
+    }
+
+    @Test
+    void periodic() {
+        final var world = new TileWorld();
+        world.createLife(-1, 0);
+        world.createLife(0, 0);
+        world.createLife(1, 0);
+        world.initialize();
+
+        // A blinker never becomes stable, so the generation limit stops it
+        var result = new Runner(20, Runner.UNLIMITED, Runner.UNLIMITED, Runner.Until.STABLE, 1).run(world);
+        assertEquals(Runner.StopReason.GENERATIONS, result.reason());
+
+        result = new Runner(20, Runner.UNLIMITED, Runner.UNLIMITED, Runner.Until.PERIODIC, 2).run(world);
+        assertEquals(Runner.StopReason.PERIODIC, result.reason());
+        assertEquals(2, result.generations());
+        assertEquals(2, result.period());
+
+        // A glider only repeats in a different place
+        result = new Runner(40, Runner.UNLIMITED, Runner.UNLIMITED, Runner.Until.PERIODIC, 16).run(glider());
+        assertEquals(Runner.StopReason.GENERATIONS, result.reason());
+    }
+
+    /**
+     * Every Engine keeps its hash up to date through births and deaths, and HashLife hashes equal trees equally
+     */
+    @Test
+    void stateHash() {
+        final var random = new Random(7);
+        final var engines = new Engine[]{new World(), new World(2, true), new TileWorld(), new PackedWorld(),
+                new HashLifeWorld()};
+        for (int i = 0; i < 400; i++) {
+            final var x = random.nextInt(40);
+            final var y = random.nextInt(40) + (random.nextBoolean() ? Long.MAX_VALUE - 40 : 0);
+            for (Engine engine : engines) {
+                engine.createLife(x, y);
+            }
+        }
+        for (Engine engine : engines) {
+            engine.destroyLife(new Life(0, 0));
+            engine.destroyLife(new Life(1, 1));
+            engine.initialize();
+        }
+        for (int generation = 0; generation < 30; generation++) {
+            final var expected = StateHash.of(engines[0]);
+            for (Engine engine : engines) {
+                if (!(engine instanceof HashLifeWorld)) {
+                    assertEquals(expected, engine.stateHash(), engine.getClass().getSimpleName());
+                }
+                engine.tick();
+            }
+        }
+        for (Engine engine : engines) {
+            if (engine instanceof World world) {
+                world.close();
+            }
+        }
+
+        final var a = new HashLifeWorld();
+        final var b = new HashLifeWorld();
+        a.createLife(5, 5);
+        b.createLife(5, 5);
+        b.createLife(6, 6);
+        assertNotEquals(a.stateHash(), b.stateHash());
+        b.destroyLife(new Life(6, 6));
+        assertEquals(a.stateHash(), b.stateHash());
+    }
+
+    /**
+     * A blinker next to a block fast forwarded through most of the run matches one simulated the whole way
+     */
+    @Test
+    void fastForward() {
+        final var generations = 100_001;
+        final var expected = new World();
+        blinkerAndBlock(expected);
+        expected.initialize();
+        expected.advance(generations);
+
+        final var engines = new Engine[]{new World(), new TileWorld(), new PackedWorld(), new HashLifeWorld()};
+        for (Engine engine : engines) {
+            blinkerAndBlock(engine);
+            engine.initialize();
+            final var result = new Runner(generations, Runner.UNLIMITED, Runner.UNLIMITED, Runner.Until.NEVER, 8, true)
+                    .run(engine);
+            final var name = engine.getClass().getSimpleName();
+            assertEquals(Runner.StopReason.GENERATIONS, result.reason(), name);
+            assertEquals(generations, result.generations(), name);
+            assertEquals(2, result.period(), name);
+            assertEquals(expected.getAge(), engine.getAge(), name);
+            assertEquals(StateHash.of(expected), StateHash.of(engine), name);
+        }
+
+        // Ages keep counting for Life that never dies and repeat for Life that is reborn
+        final var simulated = expected.spatialQuery(-10, 110, 110, -10);
+        for (Engine engine : new Engine[]{engines[0], engines[2]}) {
+            final var skipped = engine.spatialQuery(-10, 110, 110, -10);
+            assertEquals(simulated.length, skipped.length);
+            for (int i = 0; i < skipped.length; i++) {
+                assertEquals(simulated[i].getAge(), skipped[i].getAge(), skipped[i].toString());
+            }
+        }
+    }
+
+    @Test
+    void requiresCondition() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new Runner(Runner.UNLIMITED, Runner.UNLIMITED, Runner.UNLIMITED, Runner.Until.NEVER, 1));
+    }
+
+    /**
+     * A blinker, and three cells that become a block after one generation
+     */
+    private static void blinkerAndBlock(final Engine engine) {
+        engine.createLife(0, -1);
+        engine.createLife(0, 0);
+        engine.createLife(0, 1);
+        engine.createLife(100, 100);
+        engine.createLife(100, 101);
+        engine.createLife(101, 100);
+    }
+
+    private static Engine glider() {
+        final var world = new World();
+        world.createLife(1, 0);
+        world.createLife(2, 1);
+        world.createLife(0, 2);
+        world.createLife(1, 2);
+        world.createLife(2, 2);
+        world.initialize();
+        return world;
+    }
+}
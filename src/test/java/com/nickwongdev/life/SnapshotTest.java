@@ -0,0 +1,101 @@
+package com.nickwongdev.life;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotTest {
+
+    /**
+     * A restored World has the same Life, ages and generation, and carries on exactly like the original
+     */
+    @Test
+    void roundTrip() throws IOException {
+        final var world = new World();
+        final var random = new Random(19);
+        for (int i = 0; i < 3000; i++) {
+            world.createLife(random.nextInt(120) - 60, random.nextInt(120) - 60);
+        }
+        world.createLife(Long.MIN_VALUE, Long.MAX_VALUE);
+        world.createLife(Long.MAX_VALUE, Long.MIN_VALUE);
+        world.initialize();
+        world.advance(7);
+
+        final var bytes = save(world);
+        final var restored = new World();
+        assertEquals(world.getPopulation(), SnapshotReader.read(
+                Channels.newChannel(new ByteArrayInputStream(bytes)), restored));
+        assertEquals(world.getAge(), restored.getAge());
+        assertEquals(world.stateHash(), restored.stateHash());
+        assertEquals(agedCells(world), agedCells(restored));
+
+        world.advance(5);
+        restored.advance(5);
+        assertEquals(agedCells(world), agedCells(restored));
+    }
+
+    /**
+     * Any Engine can be restored from any other, and a tiny buffer forces many partial records
+     */
+    @Test
+    void acrossEngines() throws IOException {
+        final var random = new Random(20);
+        final var packed = new PackedWorld();
+        for (int i = 0; i < 2000; i++) {
+            packed.createLife(random.nextInt(80) - 40, random.nextInt(80) - 40);
+        }
+        packed.initialize();
+        packed.advance(3);
+        final var bytes = save(packed);
+        final var savedAge = packed.getAge();
+        final var savedHash = packed.stateHash();
+        packed.tick();
+        final var nextHash = packed.stateHash();
+
+        for (Engine engine : new Engine[]{new World(), new TileWorld(), new PackedWorld(), new HashLifeWorld()}) {
+            new SnapshotReader(Channels.newChannel(new ByteArrayInputStream(bytes)), 1).readInto(engine);
+            assertEquals(savedAge, engine.getAge());
+            // HashLifeWorld hashes its tree rather than its cells, so every Engine is hashed the same way here
+            assertEquals(savedHash, StateHash.of(engine));
+            engine.tick();
+            assertEquals(nextHash, StateHash.of(engine));
+        }
+    }
+
+    @Test
+    void rejectsCorruptInput() throws IOException {
+        assertThrows(IOException.class, () -> SnapshotReader.read(
+                Channels.newChannel(new ByteArrayInputStream("#Life 1.06\n0 0\n".getBytes())), new World()));
+
+        final var world = new World();
+        world.createLife(0, 0);
+        world.createLife(0, 1);
+        world.initialize();
+        final var truncated = Arrays.copyOf(save(world), 30);
+        assertThrows(IOException.class, () -> SnapshotReader.read(
+                Channels.newChannel(new ByteArrayInputStream(truncated)), new World()));
+
+        assertThrows(IllegalStateException.class, () -> save(new World()));
+    }
+
+    private static byte[] save(final Engine engine) throws IOException {
+        final var bytes = new ByteArrayOutputStream();
+        SnapshotWriter.write(engine, Channels.newChannel(bytes));
+        return bytes.toByteArray();
+    }
+
+    private static List<String> agedCells(final Engine engine) {
+        final List<String> cells = new ArrayList<>();
+        engine.forEachLifeWithAge((x, y, age) -> cells.add(x + " " + y + " " + age));
+        return cells;
+    }
+}
@@ -0,0 +1,118 @@
+package com.nickwongdev.life;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpatialIndexTest {
+
+    @Test
+    void addAndRemove() {
+        final var index = new SpatialIndex();
+        assertTrue(index.add(0, 0));
+        assertFalse(index.add(0, 0));
+        assertTrue(index.add(Long.MIN_VALUE, Long.MAX_VALUE));
+        assertEquals(2, index.size());
+
+        assertTrue(index.remove(0, 0));
+        assertFalse(index.remove(0, 0));
+        assertFalse(index.remove(1, 1));
+        assertEquals(1, index.size());
+        assertEquals(1, index.count(Long.MIN_VALUE, Long.MIN_VALUE, Long.MAX_VALUE, Long.MAX_VALUE));
+    }
+
+    /**
+     * The bounding box shrinks back as the cells on its edges are removed
+     */
+    @Test
+    void bounds() {
+        final var index = new SpatialIndex();
+        assertNull(index.bounds());
+        index.add(3, 4);
+        assertEquals(new Bounds(3, 4, 3, 4), index.bounds());
+        index.add(Long.MIN_VALUE, 100);
+        index.add(70, -5);
+        index.add(Long.MAX_VALUE, Long.MAX_VALUE);
+        assertEquals(new Bounds(Long.MIN_VALUE, -5, Long.MAX_VALUE, Long.MAX_VALUE), index.bounds());
+
+        index.remove(Long.MAX_VALUE, Long.MAX_VALUE);
+        assertEquals(new Bounds(Long.MIN_VALUE, -5, 70, 100), index.bounds());
+        index.remove(Long.MIN_VALUE, 100);
+        assertEquals(new Bounds(3, -5, 70, 4), index.bounds());
+        index.remove(70, -5);
+        assertEquals(new Bounds(3, 4, 3, 4), index.bounds());
+        index.remove(3, 4);
+        assertNull(index.bounds());
+    }
+
+    /**
+     * Counts and collected cells match checking every cell by hand, for rectangles that cut through Nodes at every
+     * level and at the edges of the space
+     */
+    @Test
+    void matchesBruteForce() {
+        final var random = new Random(17);
+        final var index = new SpatialIndex();
+        final long[][] cells = new long[3000][];
+        for (int i = 0; i < cells.length; i++) {
+            var x = coordinate(random);
+            var y = coordinate(random);
+            while (!index.add(x, y)) {
+                x = coordinate(random);
+                y = coordinate(random);
+            }
+            cells[i] = new long[]{x, y};
+        }
+        // Remove some again so emptied Nodes are exercised
+        for (int i = 0; i < cells.length; i += 3) {
+            assertTrue(index.remove(cells[i][0], cells[i][1]));
+        }
+
+        for (int query = 0; query < 500; query++) {
+            final var x0 = coordinate(random);
+            final var x1 = coordinate(random);
+            final var y0 = coordinate(random);
+            final var y1 = coordinate(random);
+            final var minX = Math.min(x0, x1);
+            final var maxX = Math.max(x0, x1);
+            final var minY = Math.min(y0, y1);
+            final var maxY = Math.max(y0, y1);
+
+            final Set<String> expected = new HashSet<>();
+            for (int i = 0; i < cells.length; i++) {
+                final var x = cells[i][0];
+                final var y = cells[i][1];
+                if (i % 3 != 0 && x >= minX && x <= maxX && y >= minY && y <= maxY) {
+                    expected.add(x + "," + y);
+                }
+            }
+            final var found = index.collect(minX, minY, maxX, maxY);
+            final Set<String> actual = new HashSet<>();
+            for (int i = 0; i < found.size(); i++) {
+                actual.add(found.x(i) + "," + found.y(i));
+                if (i > 0) {
+                    assertTrue(found.x(i - 1) < found.x(i)
+                            || (found.x(i - 1) == found.x(i) && found.y(i - 1) < found.y(i)));
+                }
+            }
+            assertEquals(expected, actual);
+            assertEquals(expected.size(), index.count(minX, minY, maxX, maxY));
+            assertEquals(expected.isEmpty(), index.isEmpty(minX, minY, maxX, maxY));
+        }
+    }
+
+    /**
+     * Mostly clustered around the origin, with some at the edges of the space
+     */
+    private static long coordinate(final Random random) {
+        return switch (random.nextInt(4)) {
+            case 0 -> Long.MIN_VALUE + random.nextInt(100);
+            case 1 -> Long.MAX_VALUE - random.nextInt(100);
+            default -> random.nextInt(300) - 150;
+        };
+    }
+}
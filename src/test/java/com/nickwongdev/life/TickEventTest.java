@@ -0,0 +1,92 @@
+package com.nickwongdev.life;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TickEventTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * A blinker ticked in place records a tick, a stripe and three phases per generation, with its cell counts
+     */
+    @Test
+    void inPlace() throws IOException {
+        final var events = record(new World(), 5);
+        assertEquals(5, count(events, "com.nickwongdev.life.Tick"));
+        assertEquals(5, count(events, "com.nickwongdev.life.Stripe"));
+        assertEquals(15, count(events, "com.nickwongdev.life.TickPhase"));
+
+        for (RecordedEvent event : events) {
+            switch (event.getEventType().getName()) {
+                case "com.nickwongdev.life.Tick" -> {
+                    assertEquals(3, event.getLong("population"));
+                    assertEquals(2, event.getLong("births"));
+                    assertEquals(2, event.getLong("deaths"));
+                    assertFalse(event.getBoolean("doubleBuffered"));
+                }
+                case "com.nickwongdev.life.Stripe" -> {
+                    assertEquals(3, event.getLong("examined"));
+                    assertEquals(2, event.getLong("births"));
+                    assertEquals(2, event.getLong("deaths"));
+                }
+                case "com.nickwongdev.life.TickPhase" -> {
+                    final var phase = event.getString("phase");
+                    assertTrue(List.of(TickPhaseEvent.SCAN, TickPhaseEvent.KILL, TickPhaseEvent.NEWBORNS)
+                            .contains(phase), phase);
+                    assertEquals(phase.equals(TickPhaseEvent.SCAN) ? 4 : 2, event.getLong("cells"));
+                }
+                default -> {
+                }
+            }
+        }
+    }
+
+    @Test
+    void doubleBuffered() throws IOException {
+        final List<RecordedEvent> events;
+        try (var world = new World(4, true)) {
+            events = record(world, 5);
+        }
+        assertEquals(5, count(events, "com.nickwongdev.life.Tick"));
+        assertTrue(count(events, "com.nickwongdev.life.Stripe") >= 5);
+        assertEquals(10, count(events, "com.nickwongdev.life.TickPhase"));
+        assertEquals(15, events.stream()
+                .filter(event -> event.getEventType().getName().equals("com.nickwongdev.life.Stripe"))
+                .mapToLong(event -> event.getLong("examined"))
+                .sum());
+    }
+
+    private List<RecordedEvent> record(final World world, final int generations) throws IOException {
+        world.createLife(-1, 0);
+        world.createLife(0, 0);
+        world.createLife(1, 0);
+        world.initialize();
+
+        final var file = directory.resolve("tick.jfr");
+        try (var recording = new Recording()) {
+            recording.enable(TickEvent.class).withoutThreshold();
+            recording.enable(TickPhaseEvent.class).withoutThreshold();
+            recording.enable(StripeEvent.class).withoutThreshold();
+            recording.start();
+            world.advance(generations);
+            recording.stop();
+            recording.dump(file);
+        }
+        return RecordingFile.readAllEvents(file);
+    }
+
+    private static long count(final List<RecordedEvent> events, final String name) {
+        return events.stream().filter(event -> event.getEventType().getName().equals(name)).count();
+    }
+}
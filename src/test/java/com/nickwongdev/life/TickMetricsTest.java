@@ -0,0 +1,75 @@
+package com.nickwongdev.life;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TickMetricsTest {
+
+    /**
+     * A blinker has two births and two deaths every tick and three Life to examine
+     */
+    @Test
+    void blinker() {
+        for (World world : new World[]{new World(), new World(4), new World(1, true), new World(4, true)}) {
+            world.createLife(-1, 0);
+            world.createLife(0, 0);
+            world.createLife(1, 0);
+            world.initialize();
+            world.tick();
+
+            final var metrics = new TickMetrics();
+            world.setMetrics(metrics);
+            world.advance(10);
+            world.setMetrics(null);
+            world.advance(10);
+
+            final var snapshot = metrics.snapshot();
+            assertEquals(10, snapshot.ticks());
+            assertEquals(20, snapshot.births());
+            assertEquals(20, snapshot.deaths());
+            assertEquals(30, snapshot.examined());
+            assertEquals(0, snapshot.overflows());
+            assertEquals(10, snapshot.tickDuration().count());
+            assertEquals(3, snapshot.birthsPerTick().percentile(0.5));
+            assertTrue(snapshot.tickNanos() > 0);
+            world.close();
+        }
+    }
+
+    @Test
+    void overflows() {
+        final var world = new World();
+        world.createLife(Long.MAX_VALUE, -1);
+        world.createLife(Long.MAX_VALUE, 0);
+        world.createLife(Long.MAX_VALUE, 1);
+        world.initialize();
+        final var metrics = new TickMetrics();
+        world.setMetrics(metrics);
+        world.tick();
+        // Each of the three parents finds the birth past the edge
+        assertEquals(3, metrics.snapshot().overflows());
+        assertEquals(1, metrics.snapshot().births());
+    }
+
+    @Test
+    void histogram() {
+        final var histogram = new Log2Histogram();
+        assertEquals(0, histogram.snapshot().percentile(0.5));
+        histogram.record(0);
+        histogram.record(1);
+        histogram.record(5);
+        histogram.record(6);
+        histogram.record(Long.MAX_VALUE);
+        final var snapshot = histogram.snapshot();
+        assertEquals(5, snapshot.count());
+        assertEquals(0, snapshot.percentile(0.1));
+        assertEquals(7, snapshot.percentile(0.6));
+        assertEquals(Long.MAX_VALUE, snapshot.percentile(1));
+
+        histogram.record(1000);
+        final var since = histogram.snapshot().minus(snapshot);
+        assertEquals(1, since.count());
+        assertEquals(1023, since.percentile(0.5));
+    }
+}
@@ -0,0 +1,225 @@
+package com.nickwongdev.life;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TileWorldTest {
+
+    private static final long[][] GLIDER = {{0, 1}, {1, 2}, {2, 0}, {2, 1}, {2, 2}};
+
+    @Test
+    void createLife() {
+        final var world = new TileWorld();
+        assertNotNull(world.createLife(0, 0));
+        assertNull(world.createLife(0, 0));
+        assertNotNull(world.createLife(-1, -1));
+        assertEquals(2, world.getTileCount());
+    }
+
+    @Test
+    void destroyLife() {
+        final var world = new TileWorld();
+        world.createLife(-100, -100);
+        world.createLife(0, 0);
+
+        var result = world.spatialQuery(-100, -100, -100, -100);
+        assertEquals(1, result.length);
+
+        world.destroyLife(result[0]);
+
+        result = world.spatialQuery(-100, -100, -100, -100);
+        assertEquals(0, result.length);
+        assertEquals(1, world.getTileCount());
+    }
+
+    @Test
+    void spatialQuery() {
+        final var world = new TileWorld();
+        world.createLife(-100, -100);
+        world.createLife(0, 0);
+        world.createLife(0, 1);
+        world.createLife(1, 0);
+        world.createLife(1, 100);
+        world.createLife(100, 1);
+
+        final var lifeResult = world.spatialQuery(-1, 1, 1, -1);
+        assertEquals(3, lifeResult.length);
+        assertEquals(0, lifeResult[0].getX());
+        assertEquals(0, lifeResult[0].getY());
+        assertEquals(0, lifeResult[1].getX());
+        assertEquals(1, lifeResult[1].getY());
+        assertEquals(1, lifeResult[2].getX());
+        assertEquals(0, lifeResult[2].getY());
+
+        assertEquals(6, world.spatialQuery(-1000, 1000, 1000, -1000).length);
+        assertEquals(6, world.spatialQuery(Long.MIN_VALUE, Long.MAX_VALUE, Long.MAX_VALUE, Long.MIN_VALUE).length);
+    }
+
+    /**
+     * A random soup straddling the origin crosses tile borders in every direction
+     */
+    @Test
+    void matchesWorld() {
+        final var world = new World();
+        final var tileWorld = new TileWorld();
+        final var random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            var x = random.nextInt(100) - 50;
+            var y = random.nextInt(100) - 50;
+            world.createLife(x, y);
+            tileWorld.createLife(x, y);
+        }
+        world.initialize();
+        tileWorld.initialize();
+
+        for (int i = 0; i < 30; i++) {
+            world.tick();
+            tileWorld.tick();
+            assertSameLife(world, tileWorld);
+            assertEquals(world.getPopulation(), tileWorld.getPopulation());
+        }
+    }
+
+    @Test
+    void gliderAtEdge() {
+        final var world = new World();
+        final var tileWorld = new TileWorld();
+        for (long[] cell : GLIDER) {
+            world.createLife(Long.MAX_VALUE - 3 + cell[0], Long.MAX_VALUE - 3 + cell[1]);
+            tileWorld.createLife(Long.MAX_VALUE - 3 + cell[0], Long.MAX_VALUE - 3 + cell[1]);
+            world.createLife(Long.MIN_VALUE + 3 - cell[0], Long.MIN_VALUE + 3 - cell[1]);
+            tileWorld.createLife(Long.MIN_VALUE + 3 - cell[0], Long.MIN_VALUE + 3 - cell[1]);
+        }
+        world.initialize();
+        tileWorld.initialize();
+
+        for (int i = 0; i < 30; i++) {
+            world.tick();
+            tileWorld.tick();
+            assertSameLife(world, tileWorld);
+        }
+    }
+
+    /**
+     * A block never changes, so once the glider has flown away nothing near the block is recomputed
+     */
+    @Test
+    void stableTilesAreSkipped() {
+        final var world = new TileWorld();
+        world.createLife(0, 0);
+        world.createLife(0, 1);
+        world.createLife(1, 0);
+        world.createLife(1, 1);
+        for (long[] cell : GLIDER) {
+            world.createLife(cell[0] + 1000, cell[1] + 1000);
+        }
+        world.initialize();
+
+        for (int i = 0; i < 100; i++) {
+            world.tick();
+        }
+
+        assertTrue(world.getActiveTileCount() <= 2);
+        assertEquals(4, world.spatialQuery(-10, 10, 10, -10).length);
+        assertEquals(5, world.spatialQuery(1000, 2000, 2000, 1000).length);
+
+        world.destroyLife(world.spatialQuery(0, 0, 0, 0)[0]);
+        world.tick();
+        assertEquals(4, world.spatialQuery(-10, 10, 10, -10).length);
+    }
+
+    /**
+     * Blinkers are frozen while nothing is near them, and wake up when a glider runs into them or cells are edited
+     */
+    @Test
+    void oscillatorsAreFrozen() {
+        final var expected = new PackedWorld();
+        final var world = new TileWorld();
+        for (Engine engine : new Engine[]{expected, world}) {
+            for (int i = 0; i < 8; i++) {
+                // Alternate between blinkers across a tile border and inside a tile
+                final var x = i * 32L + (i % 2 == 0 ? -1 : 10);
+                engine.createLife(x, 20);
+                engine.createLife(x + 1, 20);
+                engine.createLife(x + 2, 20);
+            }
+            for (long[] cell : GLIDER) {
+                engine.createLife(cell[0] - 100, cell[1] - 120);
+            }
+            engine.initialize();
+        }
+
+        for (int generation = 1; generation <= 600; generation++) {
+            expected.tick();
+            world.tick();
+            if (generation == 20) {
+                // The glider is over a hundred cells away, so only its tiles are active
+                assertTrue(world.getActiveTileCount() <= 4, "active " + world.getActiveTileCount());
+            }
+            if (generation % 97 == 0) {
+                for (Engine engine : new Engine[]{expected, world}) {
+                    engine.createLife(generation % 200, 21);
+                    engine.destroyLife(new Life(96 + 10, 20));
+                }
+            }
+            assertSameLife(expected, world);
+            assertEquals(expected.stateHash(), world.stateHash());
+        }
+    }
+
+    /**
+     * The tests run with jdk.incubator.vector, so the vector stepper is used and must match the scalar one bit for bit
+     */
+    @Test
+    void vectorStepMatchesScalar() {
+        final var stepper = TileStepper.vectorOrScalar();
+        assertNotSame(TileStepper.SCALAR, stepper);
+        assertTrue(TileWorld.vectorized().isVectorized());
+
+        final var random = new Random(11);
+        final var rows = new long[TileWorld.TILE_SIZE + 2];
+        final var west = new long[TileWorld.TILE_SIZE + 2];
+        final var east = new long[TileWorld.TILE_SIZE + 2];
+        final var expected = new long[TileWorld.TILE_SIZE];
+        final var actual = new long[TileWorld.TILE_SIZE];
+        for (int i = 0; i < 1000; i++) {
+            for (int row = 0; row < rows.length; row++) {
+                rows[row] = random.nextLong() & random.nextLong();
+                west[row] = random.nextLong() & 1;
+                east[row] = random.nextLong() & Long.MIN_VALUE;
+            }
+            TileStepper.SCALAR.step(rows, west, east, expected);
+            stepper.step(rows, west, east, actual);
+            assertArrayEquals(expected, actual);
+        }
+
+        final var world = new World();
+        final var vectorized = TileWorld.vectorized();
+        for (int i = 0; i < 3000; i++) {
+            final var x = random.nextInt(200);
+            final var y = random.nextInt(200);
+            world.createLife(x, y);
+            vectorized.createLife(x, y);
+        }
+        world.initialize();
+        vectorized.initialize();
+        for (int i = 0; i < 20; i++) {
+            world.tick();
+            vectorized.tick();
+        }
+        assertSameLife(world, vectorized);
+    }
+
+    private static void assertSameLife(final Engine expected, final Engine actual) {
+        var expectedLife = expected.spatialQuery(Long.MIN_VALUE, Long.MAX_VALUE, Long.MAX_VALUE, Long.MIN_VALUE);
+        var actualLife = actual.spatialQuery(Long.MIN_VALUE, Long.MAX_VALUE, Long.MAX_VALUE, Long.MIN_VALUE);
+        assertEquals(expectedLife.length, actualLife.length);
+        for (int i = 0; i < expectedLife.length; i++) {
+            assertEquals(expectedLife[i].getX(), actualLife[i].getX());
+            assertEquals(expectedLife[i].getY(), actualLife[i].getY());
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.nickwongdev.life;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VarLongCodecTest {
+
+    @Test
+    void roundTrip() throws IOException {
+        final var values = new long[]{0, 1, 127, 128, 300, -1, Long.MIN_VALUE, Long.MAX_VALUE};
+        final var buffer = ByteBuffer.allocate(values.length * 2 * VarLongCodec.MAX_LENGTH);
+        for (long value : values) {
+            VarLongCodec.putVarLong(buffer, value);
+            VarLongCodec.putVarLong(buffer, VarLongCodec.zigzag(value));
+        }
+        // Each value and its zigzag: small values take a byte, -1 is ten bytes plain and one zigzagged
+        assertEquals(1 + 1 + 1 + 1 + 1 + 2 + 2 + 2 + 2 + 2 + 10 + 1 + 10 + 10 + 9 + 10, buffer.position());
+        buffer.flip();
+        for (long value : values) {
+            assertEquals(value, VarLongCodec.getVarLong(buffer, "test"));
+            assertEquals(value, VarLongCodec.unzigzag(VarLongCodec.getVarLong(buffer, "test")));
+        }
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    void rejectsCorruptInput() {
+        final var truncated = ByteBuffer.wrap(new byte[]{(byte) 0x80, (byte) 0x80});
+        assertThrows(IOException.class, () -> VarLongCodec.getVarLong(truncated, "test"));
+        final var tooLong = ByteBuffer.wrap(new byte[11]);
+        for (int i = 0; i < 11; i++) {
+            tooLong.put(i, (byte) 0x80);
+        }
+        assertThrows(IOException.class, () -> VarLongCodec.getVarLong(tooLong, "test"));
+    }
+}
@@ -2,6 +2,11 @@ package com.nickwongdev.life;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.Random;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class WorldTest {
@@ -108,4 +113,224 @@ class WorldTest {
         assertEquals(1, resarray[2].getY());
         assertEquals(0, resarray[2].getX());
     }
-}
\ No newline at end of file
+
+    /**
+     * Ticking across stripes must give the same World as ticking on one thread
+     */
+    @Test
+    public void testParallelTick() {
+        final var world = new World();
+        try (var parallelWorld = new World(4)) {
+            final var random = new Random(7);
+            for (int i = 0; i < 5000; i++) {
+                var x = random.nextInt(200) - 100;
+                var y = random.nextInt(200) - 100;
+                world.createLife(x, y);
+                parallelWorld.createLife(x, y);
+            }
+            world.initialize();
+            parallelWorld.initialize();
+
+            for (int i = 0; i < 20; i++) {
+                world.tick();
+                parallelWorld.tick();
+
+                var expected = world.spatialQuery(-1000, 1000, 1000, -1000);
+                var actual = parallelWorld.spatialQuery(-1000, 1000, 1000, -1000);
+                assertEquals(expected.length, actual.length);
+                for (int j = 0; j < expected.length; j++) {
+                    assertEquals(expected[j].getX(), actual[j].getX());
+                    assertEquals(expected[j].getY(), actual[j].getY());
+                    assertEquals(expected[j].getAge(), actual[j].getAge());
+                }
+            }
+        }
+    }
+
+    /**
+     * Building each generation into a new map must give the same World as mutating in place, with or without stripes
+     */
+    @Test
+    public void testDoubleBufferedTick() {
+        final var world = new World();
+        final var bufferedWorld = new World(1, true);
+        try (var parallelBufferedWorld = new World(4, true)) {
+            final var random = new Random(9);
+            for (int i = 0; i < 5000; i++) {
+                var x = random.nextInt(200) - 100;
+                var y = random.nextInt(200) - 100;
+                world.createLife(x, y);
+                bufferedWorld.createLife(x, y);
+                parallelBufferedWorld.createLife(x, y);
+            }
+            world.initialize();
+            bufferedWorld.initialize();
+            parallelBufferedWorld.initialize();
+
+            for (int i = 0; i < 20; i++) {
+                world.tick();
+                bufferedWorld.tick();
+                parallelBufferedWorld.tick();
+
+                var expected = world.spatialQuery(-1000, 1000, 1000, -1000);
+                for (World actualWorld : new World[]{bufferedWorld, parallelBufferedWorld}) {
+                    var actual = actualWorld.spatialQuery(-1000, 1000, 1000, -1000);
+                    assertEquals(expected.length, actual.length);
+                    for (int j = 0; j < expected.length; j++) {
+                        assertEquals(expected[j].getX(), actual[j].getX());
+                        assertEquals(expected[j].getY(), actual[j].getY());
+                        assertEquals(expected[j].getAge(), actual[j].getAge());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Closing stops the workers, the last generation can still be read but not ticked
+     */
+    @Test
+    public void testClose() {
+        final var world = new World(2);
+        world.createLife(-1, 0);
+        world.createLife(0, 0);
+        world.createLife(1, 0);
+        world.initialize();
+        world.tick();
+        world.close();
+
+        assertEquals(3, world.spatialQuery(-1, 1, 1, -1).length);
+        assertThrows(RejectedExecutionException.class, world::tick);
+    }
+
+    /**
+     * A spinner always has exactly three Life, a reader on another thread must never see a half built generation
+     */
+    @Test
+    public void testDoubleBufferedSnapshot() throws InterruptedException {
+        final var world = new World(1, true);
+        world.createLife(-1, 0);
+        world.createLife(0, 0);
+        world.createLife(1, 0);
+        world.initialize();
+
+        final var done = new AtomicBoolean();
+        final var badReads = new AtomicInteger();
+        final var reader = new Thread(() -> {
+            while (!done.get()) {
+                if (world.spatialQuery(-1, 1, 1, -1).length != 3) {
+                    badReads.incrementAndGet();
+                }
+            }
+        });
+        reader.start();
+        for (int i = 0; i < 10_000; i++) {
+            world.tick();
+        }
+        done.set(true);
+        reader.join();
+
+        assertEquals(0, badReads.get());
+    }
+
+    /**
+     * Rectangles spanning the whole space find and count the same Life as small ones, in order, as the World ticks
+     */
+    @Test
+    public void testWideSpatialQuery() {
+        for (World world : new World[]{new World(), new World(1, true)}) {
+            world.createLife(Long.MIN_VALUE, Long.MIN_VALUE);
+            world.createLife(Long.MAX_VALUE, 5);
+            world.createLife(-1, 0);
+            world.createLife(0, 0);
+            world.createLife(1, 0);
+            world.initialize();
+            world.tick();
+
+            final var all = world.spatialQuery(Long.MIN_VALUE, Long.MAX_VALUE, Long.MAX_VALUE, Long.MIN_VALUE);
+            assertEquals(3, all.length);
+            for (int i = 0; i < all.length; i++) {
+                assertEquals(0, all[i].getX());
+                assertEquals(i - 1, all[i].getY());
+                assertEquals(i == 1 ? 2 : 1, all[i].getAge());
+            }
+            assertEquals(3, world.count(Long.MIN_VALUE, Long.MAX_VALUE, Long.MAX_VALUE, Long.MIN_VALUE));
+            assertEquals(2, world.count(Long.MIN_VALUE, Long.MAX_VALUE, Long.MAX_VALUE, 0));
+            assertTrue(world.isEmpty(1, Long.MAX_VALUE, Long.MAX_VALUE, Long.MIN_VALUE));
+            assertFalse(world.isEmpty(Long.MIN_VALUE, 1, 0, 1));
+        }
+    }
+
+    /**
+     * Population and bounds kept by the World match visiting every Life, generation after generation
+     */
+    @Test
+    public void testPopulationAndBounds() {
+        for (World world : new World[]{new World(), new World(4, false), new World(1, true)}) {
+            assertEquals(0, world.getPopulation());
+            assertNull(world.getBounds());
+
+            final var random = new Random(18);
+            for (int i = 0; i < 2000; i++) {
+                world.createLife(random.nextInt(100) - 50, random.nextInt(100) - 50);
+            }
+            world.initialize();
+
+            for (int i = 0; i < 30; i++) {
+                final var box = new long[]{Long.MAX_VALUE, Long.MAX_VALUE, Long.MIN_VALUE, Long.MIN_VALUE, 0};
+                world.forEachLife((x, y) -> {
+                    box[0] = Math.min(box[0], x);
+                    box[1] = Math.min(box[1], y);
+                    box[2] = Math.max(box[2], x);
+                    box[3] = Math.max(box[3], y);
+                    box[4]++;
+                });
+                assertEquals(box[4], world.getPopulation());
+                assertEquals(new Bounds(box[0], box[1], box[2], box[3]), world.getBounds());
+                world.tick();
+            }
+            world.close();
+        }
+    }
+
+    /**
+     * Batches inserted from several threads while other Life is destroyed leave the index agreeing with the map
+     */
+    @Test
+    public void testConcurrentCreateLives() throws InterruptedException {
+        final var world = new World();
+        final var threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final var seed = t;
+            threads[t] = new Thread(() -> {
+                final var random = new Random(seed);
+                final var xs = new long[64];
+                final var ys = new long[64];
+                for (int batch = 0; batch < 500; batch++) {
+                    for (int i = 0; i < xs.length; i++) {
+                        xs[i] = random.nextInt(64);
+                        ys[i] = random.nextInt(64);
+                    }
+                    world.createLives(xs, ys, xs.length);
+                    for (Life life : world.spatialQuery(random.nextInt(64), 63, 63, 0)) {
+                        if (random.nextBoolean()) {
+                            world.destroyLife(life);
+                        }
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        final var visited = new AtomicInteger();
+        world.forEachLife((x, y) -> {
+            visited.incrementAndGet();
+            assertEquals(1, world.count(x, y, x, y));
+        });
+        assertEquals(visited.get(), world.getPopulation());
+        assertEquals(StateHash.of(world), world.stateHash());
+    }
+}